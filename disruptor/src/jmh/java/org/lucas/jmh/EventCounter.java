@@ -0,0 +1,27 @@
+package org.lucas.jmh;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 按事件计数的辅助计数器。
+ * <p>
+ * batchSize 是 {@code @Param}，无法用 {@code @OperationsPerInvocation} 表示，
+ * 每次调用把发布的事件数累加到 {@link #events}，JMH 以 {@code events} 输出每秒事件数，
+ * 不同 batchSize 的结果可以直接比较。
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class EventCounter {
+
+    public long events;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        events = 0;
+    }
+
+}
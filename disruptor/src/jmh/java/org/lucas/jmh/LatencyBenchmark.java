@@ -0,0 +1,109 @@
+package org.lucas.jmh;
+
+import org.lucas.disruptor.Disruptor;
+import org.lucas.disruptor.EventHandler;
+import org.lucas.disruptor.ProducerType;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.Sequence;
+import org.lucas.disruptor.WaitStrategy;
+import org.lucas.disruptor.util.ThreadHints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同消费者拓扑的单向传递延迟：发布一个事件后自旋等待末端消费者处理完。
+ * <p>
+ * 拓扑与 {@link TopologyBenchmark.Topology} 相同，三个生产者、一个消费者见 {@link ThreeToOneLatencyBenchmark}。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LatencyBenchmark {
+
+    @Param
+    public TopologyBenchmark.Topology topology;
+
+    @Param
+    public WaitStrategyType waitStrategy;
+
+    @Param
+    public ProducerType producerType;
+
+    private Disruptor<ValueEvent> disruptor;
+
+    private RingBuffer<ValueEvent> ringBuffer;
+
+    /**
+     * 末端消费者处理完的序号
+     */
+    private final Sequence processed = new Sequence();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        disruptor = newDisruptor(topology, producerType, waitStrategy.newInstance(), processed);
+        ringBuffer = disruptor.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        disruptor.halt();
+    }
+
+    @Benchmark
+    public long handOff() {
+        return handOff(ringBuffer, processed);
+    }
+
+    static long handOff(final RingBuffer<ValueEvent> ringBuffer, final Sequence processed) {
+        final long sequence = ringBuffer.next();
+        ringBuffer.get(sequence).value = sequence;
+        ringBuffer.publish(sequence);
+        while (processed.get() < sequence) {
+            ThreadHints.onSpinWait();
+        }
+        return sequence;
+    }
+
+    /**
+     * @param processed 末端消费者处理完的序号
+     */
+    static Disruptor<ValueEvent> newDisruptor(final TopologyBenchmark.Topology topology,
+                                              final ProducerType producerType, final WaitStrategy waitStrategy,
+                                              final Sequence processed) {
+        final Disruptor<ValueEvent> disruptor = new Disruptor<>(ValueEvent::new, 1024, Thread::new, producerType,
+                waitStrategy);
+        final EventHandler<ValueEvent> a = new TopologyBenchmark.SumHandler();
+        final EventHandler<ValueEvent> b = new TopologyBenchmark.SumHandler();
+        final EventHandler<ValueEvent> last = (event, sequence, endOfBatch) -> processed.set(sequence);
+        switch (topology) {
+            case P1C1:
+                disruptor.handleEventsWith(last);
+                break;
+            case P1C3_PIPELINE:
+                disruptor.handleEventsWith(a).then(b).then(last);
+                break;
+            case P1C3_DIAMOND:
+                disruptor.handleEventsWith(a, b).then(last);
+                break;
+            case P1_WORK_POOL:
+                // 同一时刻只有一个事件在途，由抢到它的消费者记录
+                disruptor.handleEventsWithWorkerPool(event -> processed.set(event.value),
+                        event -> processed.set(event.value), event -> processed.set(event.value));
+                break;
+            default:
+                throw new IllegalStateException(topology.toString());
+        }
+        return disruptor;
+    }
+
+}
@@ -0,0 +1,217 @@
+package org.lucas.jmh;
+
+import org.lucas.disruptor.Disruptor;
+import org.lucas.disruptor.EventHandler;
+import org.lucas.disruptor.ProducerType;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.TimeoutException;
+import org.lucas.disruptor.util.ThreadHints;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 考虑协调遗漏（coordinated omission）的端到端延迟测试。
+ * <p>
+ * 生产者按固定速率发布事件，每个事件记录它<b>计划</b>发送的时间，而不是实际发送的时间：
+ * 生产者被缓冲区或消费者拖慢时，后续事件的延迟会如实包含排队时间。
+ * 消费者在处理事件时用 {@link System#nanoTime()} 减去计划时间，记录到 {@link LogLinearHistogram}。
+ * <p>
+ * 用法：
+ * <pre>
+ * java org.lucas.jmh.LatencyHarness [--rate 1000000] [--seconds 10] [--warmup 5] [--producers 2]
+ *      [--buffer 65536] [--wait BLOCKING,YIELDING,...] [--type SINGLE,MULTI]
+ * </pre>
+ */
+public final class LatencyHarness {
+
+    private int rate = 1_000_000;
+    private int seconds = 10;
+    private int warmupSeconds = 5;
+    private int producers = 2;
+    private int bufferSize = 1 << 16;
+    private final List<WaitStrategyType> waitStrategies = new ArrayList<>();
+    private final List<ProducerType> producerTypes = new ArrayList<>();
+
+    public static void main(final String[] args) throws Exception {
+        final LatencyHarness harness = new LatencyHarness();
+        harness.parse(args);
+        harness.run();
+        System.exit(0);
+    }
+
+    private void parse(final String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            final String value = args[i + 1];
+            switch (args[i]) {
+                case "--rate":
+                    rate = Integer.parseInt(value);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(value);
+                    break;
+                case "--warmup":
+                    warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "--producers":
+                    producers = Integer.parseInt(value);
+                    break;
+                case "--buffer":
+                    bufferSize = Integer.parseInt(value);
+                    break;
+                case "--wait":
+                    for (String name : value.split(",")) {
+                        waitStrategies.add(WaitStrategyType.valueOf(name.trim()));
+                    }
+                    break;
+                case "--type":
+                    for (String name : value.split(",")) {
+                        producerTypes.add(ProducerType.valueOf(name.trim()));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (waitStrategies.isEmpty()) {
+            for (WaitStrategyType type : WaitStrategyType.values()) {
+                waitStrategies.add(type);
+            }
+        }
+        if (producerTypes.isEmpty()) {
+            for (ProducerType type : ProducerType.values()) {
+                producerTypes.add(type);
+            }
+        }
+        if (producers < 1) {
+            throw new IllegalArgumentException("--producers must be > 0: " + producers);
+        }
+        if (rate < 1) {
+            throw new IllegalArgumentException("--rate must be > 0: " + rate);
+        }
+        for (ProducerType producerType : producerTypes) {
+            // 间隔为 0 时生产者永远追不上计划时间
+            if (0 == intervalNanos(producerCount(producerType))) {
+                throw new IllegalArgumentException(
+                        "--rate " + rate + " gives a zero send interval for " + producerType);
+            }
+        }
+    }
+
+    private void run() throws InterruptedException, TimeoutException {
+        System.out.printf(Locale.ROOT, "rate=%d/s seconds=%d warmup=%d buffer=%d%n", rate, seconds, warmupSeconds,
+                bufferSize);
+        System.out.printf(Locale.ROOT, "%-16s %-8s %12s %10s %10s %10s %10s%n",
+                "waitStrategy", "type", "count", "p50(us)", "p99(us)", "p99.9(us)", "max(us)");
+
+        for (ProducerType producerType : producerTypes) {
+            for (WaitStrategyType waitStrategy : waitStrategies) {
+                final LogLinearHistogram histogram = runOnce(producerType, waitStrategy);
+                System.out.printf(Locale.ROOT, "%-16s %-8s %12d %10.1f %10.1f %10.1f %10.1f%n",
+                        waitStrategy, producerType, histogram.getTotalCount(),
+                        histogram.getValueAtPercentile(50) / 1000.0,
+                        histogram.getValueAtPercentile(99) / 1000.0,
+                        histogram.getValueAtPercentile(99.9) / 1000.0,
+                        histogram.getMaxValue() / 1000.0);
+            }
+        }
+    }
+
+    private LogLinearHistogram runOnce(final ProducerType producerType, final WaitStrategyType waitStrategy)
+            throws InterruptedException, TimeoutException {
+        final Disruptor<LatencyEvent> disruptor = new Disruptor<>(LatencyEvent::new, bufferSize, Thread::new,
+                producerType, waitStrategy.newInstance());
+        final RecordingHandler handler = new RecordingHandler();
+        disruptor.handleEventsWith(handler);
+        final RingBuffer<LatencyEvent> ringBuffer = disruptor.start();
+
+        final int producerCount = producerCount(producerType);
+        final long intervalNanos = intervalNanos(producerCount);
+        final long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        final long warmupEnd = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        final long end = warmupEnd + TimeUnit.SECONDS.toNanos(seconds);
+
+        final Thread[] threads = new Thread[producerCount];
+        for (int p = 0; p < producerCount; p++) {
+            final long phase = intervalNanos * p / producerCount;
+            threads[p] = new Thread(() -> produce(ringBuffer, start + phase, intervalNanos, warmupEnd, end),
+                    "latency-producer-" + p);
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        disruptor.shutdown(30, TimeUnit.SECONDS);
+        return handler.histogram;
+    }
+
+    private int producerCount(final ProducerType producerType) {
+        return producerType == ProducerType.SINGLE ? 1 : producers;
+    }
+
+    /**
+     * 每个生产者的发送间隔，多个生产者错开相位，合起来保持目标速率
+     *
+     * @param producerCount 生产者个数
+     * @return 间隔纳秒数，速率超过每纳秒一个事件时为 0
+     */
+    private long intervalNanos(final int producerCount) {
+        return TimeUnit.SECONDS.toNanos(1) * producerCount / rate;
+    }
+
+    private static void produce(final RingBuffer<LatencyEvent> ringBuffer, final long firstSendTime,
+                                final long intervalNanos, final long warmupEnd, final long end) {
+        long intendedTime = firstSendTime;
+        while (intendedTime < end) {
+            // 落后于计划时不等待，直接发送，延迟从计划时间开始计算
+            while (System.nanoTime() < intendedTime) {
+                ThreadHints.onSpinWait();
+            }
+            final long sequence = ringBuffer.next();
+            final LatencyEvent event = ringBuffer.get(sequence);
+            event.intendedTime = intendedTime;
+            event.record = intendedTime >= warmupEnd;
+            ringBuffer.publish(sequence);
+
+            intendedTime += intervalNanos;
+        }
+    }
+
+    /**
+     * 延迟测试事件
+     */
+    static final class LatencyEvent {
+
+        /**
+         * 计划发送时间
+         */
+        long intendedTime;
+
+        /**
+         * 是否计入结果，预热阶段的事件不计入
+         */
+        boolean record;
+    }
+
+    /**
+     * 在消费者线程中记录端到端延迟
+     */
+    private static final class RecordingHandler implements EventHandler<LatencyEvent> {
+
+        private final LogLinearHistogram histogram = new LogLinearHistogram();
+
+        @Override
+        public void onEvent(final LatencyEvent event, final long sequence, final boolean endOfBatch) {
+            if (event.record) {
+                histogram.record(System.nanoTime() - event.intendedTime);
+            }
+        }
+    }
+
+}
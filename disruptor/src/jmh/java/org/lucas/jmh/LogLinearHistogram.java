@@ -0,0 +1,94 @@
+package org.lucas.jmh;
+
+/**
+ * HDR 风格的对数-线性直方图，用于记录纳秒级延迟。
+ * <p>
+ * 值按2的幂次方分段，每段再线性分为 {@link #SUB_BUCKETS} 个桶，
+ * 任意值的相对误差不超过 1 / {@link #SUB_BUCKETS}。只允许一个线程记录。
+ */
+public final class LogLinearHistogram {
+
+    /**
+     * 每段的线性桶个数，必须是2的幂次方
+     */
+    private static final int SUB_BUCKETS = 128;
+
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+    private final long[] counts = new long[(64 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+
+    private long totalCount;
+
+    private long maxValue;
+
+    /**
+     * @param value 非负值，负数记为 0
+     */
+    public void record(final long value) {
+        final long v = Math.max(0, value);
+        counts[indexFor(v)]++;
+        totalCount++;
+        if (v > maxValue) {
+            maxValue = v;
+        }
+    }
+
+    /**
+     * 合并另一个直方图的记录
+     */
+    public void add(final LogLinearHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * @param percentile 百分位，如 99.9
+     * @return 该百分位所在桶的上界，不超过记录的最大值
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (0 == totalCount) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(totalCount * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(maxValue, upperBound(i));
+            }
+        }
+        return maxValue;
+    }
+
+    private static int indexFor(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // 值所在的段：[2^(shift + SUB_BUCKET_BITS), 2^(shift + SUB_BUCKET_BITS + 1))
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift);
+        // subBucket 位于 [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        return shift * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBound(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKETS - 1;
+        final long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+}
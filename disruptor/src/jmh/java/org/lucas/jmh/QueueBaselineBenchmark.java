@@ -0,0 +1,117 @@
+package org.lucas.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDK 队列的对照组，与 {@link TopologyBenchmark} 的 P1C1 和 {@link ThreeToOneBenchmark} 对应。
+ * <p>
+ * {@link LinkedTransferQueue} 是无界队列，通过 {@link Semaphore} 限制在 BUFFER_SIZE 个元素内，
+ * 与 RingBuffer 一样在容量不足时等待；{@code size()} 需要遍历链表，不能用来判断容量。
+ * 每秒事件数见 {@link EventCounter}。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class QueueBaselineBenchmark {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public enum QueueType {
+        ARRAY_BLOCKING_QUEUE, LINKED_TRANSFER_QUEUE
+    }
+
+    @Param
+    public QueueType queueType;
+
+    @Param({"1", "10", "100"})
+    public int batchSize;
+
+    private BlockingQueue<ValueEvent> queue;
+
+    /**
+     * 无界队列的剩余容量，有界队列为 {@code null}
+     */
+    private Semaphore permits;
+
+    private Thread consumer;
+
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (queueType == QueueType.ARRAY_BLOCKING_QUEUE) {
+            queue = new ArrayBlockingQueue<>(BUFFER_SIZE);
+            permits = null;
+        } else {
+            queue = new LinkedTransferQueue<>();
+            permits = new Semaphore(BUFFER_SIZE);
+        }
+        running = true;
+        final BlockingQueue<ValueEvent> queue = this.queue;
+        final Semaphore permits = this.permits;
+        consumer = new Thread(() -> {
+            long sum = 0;
+            try {
+                while (running) {
+                    final ValueEvent event = queue.poll(1, TimeUnit.MILLISECONDS);
+                    if (null != event) {
+                        sum += event.value;
+                        if (null != permits) {
+                            permits.release();
+                        }
+                    }
+                }
+            } catch (final InterruptedException ignore) {
+            }
+        });
+        consumer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        consumer.join();
+    }
+
+    @Benchmark
+    public void oneProducer(final EventCounter counter) throws InterruptedException {
+        counter.events += batchSize;
+        publish();
+    }
+
+    @Benchmark
+    @Threads(3)
+    public void threeToOne(final EventCounter counter) throws InterruptedException {
+        counter.events += batchSize;
+        publish();
+    }
+
+    private void publish() throws InterruptedException {
+        for (int i = 0; i < batchSize; i++) {
+            final ValueEvent event = new ValueEvent();
+            event.value = i;
+            // 与 RingBuffer 一样在容量不足时等待
+            if (null != permits) {
+                permits.acquire();
+            }
+            queue.put(event);
+        }
+    }
+
+}
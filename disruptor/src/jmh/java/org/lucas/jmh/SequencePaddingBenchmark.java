@@ -0,0 +1,62 @@
+package org.lucas.jmh;
+
+import org.lucas.disruptor.Sequence;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 检查 {@link Sequence} 的缓存行填充。
+ * <p>
+ * 两个线程分别写入各自的计数器：padded 组使用两个 {@link Sequence}，
+ * unpadded 组使用同一个 {@link AtomicLongArray} 中相邻的两个元素（同一缓存行）。
+ * 在两个以上物理核上运行时，padded 组的吞吐量应明显高于 unpadded 组，否则说明填充失效。
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SequencePaddingBenchmark {
+
+    private final Sequence first = new Sequence();
+
+    private final Sequence second = new Sequence();
+
+    private final AtomicLongArray adjacent = new AtomicLongArray(2);
+
+    @Benchmark
+    @Group("padded")
+    @GroupThreads(1)
+    public void paddedFirst() {
+        first.set(first.get() + 1);
+    }
+
+    @Benchmark
+    @Group("padded")
+    @GroupThreads(1)
+    public void paddedSecond() {
+        second.set(second.get() + 1);
+    }
+
+    @Benchmark
+    @Group("unpadded")
+    @GroupThreads(1)
+    public void unpaddedFirst() {
+        adjacent.lazySet(0, adjacent.get(0) + 1);
+    }
+
+    @Benchmark
+    @Group("unpadded")
+    @GroupThreads(1)
+    public void unpaddedSecond() {
+        adjacent.lazySet(1, adjacent.get(1) + 1);
+    }
+
+}
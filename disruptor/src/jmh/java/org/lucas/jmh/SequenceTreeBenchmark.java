@@ -0,0 +1,111 @@
+package org.lucas.jmh;
+
+import org.lucas.disruptor.FixedSequenceGroup;
+import org.lucas.disruptor.Sequence;
+import org.lucas.disruptor.SequenceTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 比较 {@link SequenceTree} 与 {@link FixedSequenceGroup} 的门控开销。
+ * <p>
+ * 两个消费者线程各自轮流推进一半成员序列（同步推进，每个成员都会轮到做瓶颈），
+ * 一个读取线程不断读取最小值，相当于生产者检查剩余容量或下游屏障检查依赖。
+ * 关注读取线程的吞吐量：flat 组每次读取都要遍历全部成员，tree 组只读一次根节点；
+ * 同时观察消费者线程的吞吐量，tree 组的消费者要承担维护最小值的开销。
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SequenceTreeBenchmark {
+
+    @Param({"64", "256"})
+    public int consumers;
+
+    private Sequence[] flatMembers;
+
+    private Sequence flat;
+
+    private Sequence[] treeMembers;
+
+    private Sequence tree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Sequence cursor = new Sequence();
+        flatMembers = new Sequence[consumers];
+        for (int i = 0; i < consumers; i++) {
+            flatMembers[i] = new Sequence();
+        }
+        flat = new FixedSequenceGroup(flatMembers);
+
+        final SequenceTree sequenceTree = new SequenceTree(cursor::get, (int) Math.ceil(Math.sqrt(consumers)));
+        treeMembers = new Sequence[consumers];
+        for (int i = 0; i < consumers; i++) {
+            treeMembers[i] = sequenceTree.newSequence();
+        }
+        tree = sequenceTree;
+    }
+
+    @Benchmark
+    @Group("flat")
+    @GroupThreads(1)
+    public long flatRead() {
+        return flat.get();
+    }
+
+    @Benchmark
+    @Group("flat")
+    @GroupThreads(2)
+    public void flatAdvance(final ConsumerState consumer) {
+        consumer.advance(flatMembers);
+    }
+
+    @Benchmark
+    @Group("tree")
+    @GroupThreads(1)
+    public long treeRead() {
+        return tree.get();
+    }
+
+    @Benchmark
+    @Group("tree")
+    @GroupThreads(2)
+    public void treeAdvance(final ConsumerState consumer) {
+        consumer.advance(treeMembers);
+    }
+
+    /**
+     * 每个消费者线程负责一半成员，依次推进
+     */
+    @State(Scope.Thread)
+    public static class ConsumerState {
+
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        private final int half = THREADS.getAndIncrement() & 1;
+
+        private int index;
+
+        void advance(final Sequence[] members) {
+            final int count = members.length / 2;
+            final Sequence member = members[half * count + index];
+            member.set(member.get() + 1);
+            if (++index == count) {
+                index = 0;
+            }
+        }
+    }
+}
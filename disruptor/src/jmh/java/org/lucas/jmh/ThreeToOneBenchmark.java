@@ -0,0 +1,58 @@
+package org.lucas.jmh;
+
+import org.lucas.disruptor.Disruptor;
+import org.lucas.disruptor.ProducerType;
+import org.lucas.disruptor.RingBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 三个生产者、一个消费者的吞吐量，使用 {@link ProducerType#MULTI}，每秒事件数见 {@link EventCounter}。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ThreeToOneBenchmark {
+
+    @Param
+    public WaitStrategyType waitStrategy;
+
+    @Param({"1", "10", "100"})
+    public int batchSize;
+
+    private Disruptor<ValueEvent> disruptor;
+
+    private RingBuffer<ValueEvent> ringBuffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        disruptor = new Disruptor<>(ValueEvent::new, TopologyBenchmark.BUFFER_SIZE, Thread::new, ProducerType.MULTI,
+                waitStrategy.newInstance());
+        disruptor.handleEventsWith(new TopologyBenchmark.SumHandler());
+        ringBuffer = disruptor.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        disruptor.halt();
+    }
+
+    @Benchmark
+    @Threads(3)
+    public long publish(final EventCounter counter) {
+        counter.events += batchSize;
+        return TopologyBenchmark.publish(ringBuffer, batchSize);
+    }
+
+}
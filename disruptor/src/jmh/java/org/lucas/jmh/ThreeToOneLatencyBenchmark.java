@@ -0,0 +1,62 @@
+package org.lucas.jmh;
+
+import org.lucas.disruptor.Disruptor;
+import org.lucas.disruptor.ProducerType;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.Sequence;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 三个生产者、一个消费者的单向传递延迟，使用 {@link ProducerType#MULTI}。
+ * <p>
+ * 每个生产者发布一个事件后自旋等待消费者处理完，同一时刻最多三个事件在途，
+ * 结果包含生产者之间争用序号的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ThreeToOneLatencyBenchmark {
+
+    @Param
+    public WaitStrategyType waitStrategy;
+
+    private Disruptor<ValueEvent> disruptor;
+
+    private RingBuffer<ValueEvent> ringBuffer;
+
+    /**
+     * 消费者处理完的序号
+     */
+    private final Sequence processed = new Sequence();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        disruptor = LatencyBenchmark.newDisruptor(TopologyBenchmark.Topology.P1C1, ProducerType.MULTI,
+                waitStrategy.newInstance(), processed);
+        ringBuffer = disruptor.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        disruptor.halt();
+    }
+
+    @Benchmark
+    @Threads(3)
+    public long handOff() {
+        return LatencyBenchmark.handOff(ringBuffer, processed);
+    }
+
+}
@@ -0,0 +1,116 @@
+package org.lucas.jmh;
+
+import org.lucas.disruptor.Disruptor;
+import org.lucas.disruptor.EventHandler;
+import org.lucas.disruptor.ProducerType;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.WorkHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同消费者拓扑的吞吐量。
+ * <p>
+ * 每次调用发布 batchSize 个事件，缓冲区满时生产者等待消费者，
+ * 稳定状态下的发布速率等于整个拓扑的处理速率，每秒事件数见 {@link EventCounter}。
+ * <ul>
+ * <li>P1C1: 一个生产者，一个消费者</li>
+ * <li>P1C3_PIPELINE: 一个生产者，三个消费者依次处理</li>
+ * <li>P1C3_DIAMOND: 一个生产者，两个消费者并行处理后交给第三个</li>
+ * <li>P1_WORK_POOL: 一个生产者，三个竞争消费者</li>
+ * </ul>
+ * 三个生产者、一个消费者见 {@link ThreeToOneBenchmark}。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TopologyBenchmark {
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    public enum Topology {
+        P1C1, P1C3_PIPELINE, P1C3_DIAMOND, P1_WORK_POOL
+    }
+
+    @Param
+    public Topology topology;
+
+    @Param
+    public WaitStrategyType waitStrategy;
+
+    @Param({"1", "10", "100"})
+    public int batchSize;
+
+    private Disruptor<ValueEvent> disruptor;
+
+    private RingBuffer<ValueEvent> ringBuffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        disruptor = new Disruptor<>(ValueEvent::new, BUFFER_SIZE, Thread::new, ProducerType.SINGLE,
+                waitStrategy.newInstance());
+        final EventHandler<ValueEvent> a = new SumHandler();
+        final EventHandler<ValueEvent> b = new SumHandler();
+        final EventHandler<ValueEvent> c = new SumHandler();
+        switch (topology) {
+            case P1C1:
+                disruptor.handleEventsWith(a);
+                break;
+            case P1C3_PIPELINE:
+                disruptor.handleEventsWith(a).then(b).then(c);
+                break;
+            case P1C3_DIAMOND:
+                disruptor.handleEventsWith(a, b).then(c);
+                break;
+            case P1_WORK_POOL:
+                final WorkHandler<ValueEvent> worker = event -> event.value++;
+                disruptor.handleEventsWithWorkerPool(worker, worker, worker);
+                break;
+            default:
+                throw new IllegalStateException(topology.toString());
+        }
+        ringBuffer = disruptor.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        disruptor.halt();
+    }
+
+    @Benchmark
+    public long publish(final EventCounter counter) {
+        counter.events += batchSize;
+        return publish(ringBuffer, batchSize);
+    }
+
+    static long publish(final RingBuffer<ValueEvent> ringBuffer, final int batchSize) {
+        final long hi = ringBuffer.next(batchSize);
+        final long lo = hi - (batchSize - 1);
+        for (long sequence = lo; sequence <= hi; sequence++) {
+            ringBuffer.get(sequence).value = sequence;
+        }
+        ringBuffer.publish(lo, hi);
+        return hi;
+    }
+
+    static final class SumHandler implements EventHandler<ValueEvent> {
+
+        private long sum;
+
+        @Override
+        public void onEvent(final ValueEvent event, final long sequence, final boolean endOfBatch) {
+            sum += event.value;
+        }
+    }
+
+}
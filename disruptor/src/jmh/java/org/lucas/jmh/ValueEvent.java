@@ -0,0 +1,10 @@
+package org.lucas.jmh;
+
+/**
+ * 基准测试使用的事件
+ */
+public final class ValueEvent {
+
+    public long value;
+
+}
@@ -0,0 +1,64 @@
+package org.lucas.jmh;
+
+import org.lucas.disruptor.BlockingWaitStrategy;
+import org.lucas.disruptor.BusySpinWaitStrategy;
+import org.lucas.disruptor.LiteBlockingWaitStrategy;
+import org.lucas.disruptor.PhasedBackoffWaitStrategy;
+import org.lucas.disruptor.SleepingWaitStrategy;
+import org.lucas.disruptor.TimeoutBlockingWaitStrategy;
+import org.lucas.disruptor.WaitStrategy;
+import org.lucas.disruptor.YieldingWaitStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基准测试中使用的等待策略，作为 {@code @Param} 的取值
+ */
+public enum WaitStrategyType {
+
+    BLOCKING {
+        @Override
+        public WaitStrategy newInstance() {
+            return new BlockingWaitStrategy();
+        }
+    },
+    LITE_BLOCKING {
+        @Override
+        public WaitStrategy newInstance() {
+            return new LiteBlockingWaitStrategy();
+        }
+    },
+    SLEEPING {
+        @Override
+        public WaitStrategy newInstance() {
+            return new SleepingWaitStrategy();
+        }
+    },
+    YIELDING {
+        @Override
+        public WaitStrategy newInstance() {
+            return new YieldingWaitStrategy();
+        }
+    },
+    BUSY_SPIN {
+        @Override
+        public WaitStrategy newInstance() {
+            return new BusySpinWaitStrategy();
+        }
+    },
+    TIMEOUT_BLOCKING {
+        @Override
+        public WaitStrategy newInstance() {
+            return new TimeoutBlockingWaitStrategy(1, TimeUnit.MILLISECONDS);
+        }
+    },
+    PHASED_BACKOFF {
+        @Override
+        public WaitStrategy newInstance() {
+            return PhasedBackoffWaitStrategy.withLiteLock(1, 1, TimeUnit.MILLISECONDS);
+        }
+    };
+
+    public abstract WaitStrategy newInstance();
+
+}
@@ -0,0 +1,147 @@
+package org.lucas.disruptor;
+
+abstract class PrimitiveRingBufferPad {
+    /**
+     * 缓存行左填充.
+     */
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+/**
+ * 基本类型环形缓冲区的公共部分，复用 {@link Sequencer} 和 {@link SequenceBarrier} 完成序号申请、发布和等待。
+ * <p>
+ * 与 {@link RingBuffer} 不同，槽中直接保存基本类型的值，没有事件对象，
+ * 不需要解引用，也没有对象头，缓存行中可以容纳更多的值。
+ */
+abstract class AbstractPrimitiveRingBuffer extends PrimitiveRingBufferPad implements Cursored, Sequenced {
+
+    /**
+     * 数组前后各填充 128 字节，避免与其它对象共享缓存行
+     */
+    static final int PAD_BYTES = 128;
+
+    protected final int indexMask;
+
+    protected final int bufferSize;
+
+    protected final Sequencer sequencer;
+
+    AbstractPrimitiveRingBuffer(final Sequencer sequencer) {
+        this.sequencer = sequencer;
+        this.bufferSize = sequencer.getBufferSize();
+        this.indexMask = bufferSize - 1;
+    }
+
+    /**
+     * 创建序号屏障，消费者通过屏障等待数据发布。
+     *
+     * @param sequencesToTrack 依赖的上游消费者序列，为空时只依赖生产者游标
+     * @return 序号屏障
+     */
+    public SequenceBarrier newBarrier(Sequence... sequencesToTrack) {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+
+    /**
+     * 添加门控序列，生产者不会覆盖这些序列尚未消费的插槽。
+     *
+     * @param gatingSequences 消费者序列
+     */
+    public void addGatingSequences(Sequence... gatingSequences) {
+        sequencer.addGatingSequences(gatingSequences);
+    }
+
+    /**
+     * @param sequence 需要删除的门控序列
+     * @return {@code true} 删除成功
+     */
+    public boolean removeGatingSequence(Sequence sequence) {
+        return sequencer.removeGatingSequence(sequence);
+    }
+
+    @Override
+    public long getCursor() {
+        return sequencer.getCursor();
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(int requiredCapacity) {
+        return sequencer.hasAvailableCapacity(requiredCapacity);
+    }
+
+    @Override
+    public long remainingCapacity() {
+        return sequencer.remainingCapacity();
+    }
+
+    @Override
+    public long next() {
+        return sequencer.next();
+    }
+
+    @Override
+    public long next(int n) {
+        return sequencer.next(n);
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException {
+        return sequencer.tryNext();
+    }
+
+    @Override
+    public long tryNext(int n) throws InsufficientCapacityException {
+        return sequencer.tryNext(n);
+    }
+
+    @Override
+    public void publish(long sequence) {
+        sequencer.publish(sequence);
+    }
+
+    @Override
+    public void publish(long lo, long hi) {
+        sequencer.publish(lo, hi);
+    }
+
+    /**
+     * 非阻塞地获取 sequence 之后可以读取的最大序号。
+     *
+     * @param sequence 消费者序列
+     * @param maxCount 最多读取的个数
+     * @return 可读取的最大序号，小于 sequence + 1 时表示没有数据
+     */
+    protected final long availableSequence(final Sequence sequence, final int maxCount) {
+        final long nextSequence = sequence.get() + 1L;
+        final long available = sequencer.getHighestPublishedSequence(nextSequence, sequencer.getCursor());
+        return Math.min(available, nextSequence + maxCount - 1L);
+    }
+
+    /**
+     * 阻塞等待 sequence 之后至少一个数据可读。
+     *
+     * @param barrier  序号屏障
+     * @param sequence 消费者序列
+     * @param maxCount 最多读取的个数
+     * @return 可读取的最大序号
+     */
+    protected final long waitForSequence(final SequenceBarrier barrier, final Sequence sequence, final int maxCount)
+            throws AlertException, InterruptedException, TimeoutException {
+        final long nextSequence = sequence.get() + 1L;
+        final long available = barrier.waitFor(nextSequence);
+        return Math.min(available, nextSequence + maxCount - 1L);
+    }
+
+    protected static void checkBounds(final int arrayLength, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset + length > arrayLength) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length +
+                    ", array length: " + arrayLength);
+        }
+    }
+
+}
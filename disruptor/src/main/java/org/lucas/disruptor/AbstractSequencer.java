@@ -40,6 +40,11 @@ public abstract class AbstractSequencer implements Sequencer {
      */
     protected volatile Sequence[] gatingSequences = new Sequence[0];
 
+    /**
+     * 生产者运行指标，为 {@code null} 时不记录
+     */
+    protected volatile SequencerMetrics metrics;
+
     public AbstractSequencer(int bufferSize, WaitStrategy waitStrategy) {
         if (bufferSize < 1) {
             throw new IllegalArgumentException("bufferSize must not be less than 1");
@@ -113,6 +118,27 @@ public abstract class AbstractSequencer implements Sequencer {
         return EventPoller.newInstance(dataProvider, this, new Sequence(), cursor, gatingSequences);
     }
 
+    /**
+     * 启用生产者运行指标
+     *
+     * @param metrics 运行指标，{@code null} 表示关闭
+     */
+    public void setMetrics(SequencerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 记录一次缓冲区已满导致的等待，只在等待路径上调用。
+     *
+     * @param stallStart 开始等待时的 {@link System#nanoTime()}
+     */
+    protected final void recordStall(long stallStart) {
+        final SequencerMetrics metrics = this.metrics;
+        if (null != metrics) {
+            metrics.onStall(System.nanoTime() - stallStart);
+        }
+    }
+
     @Override
     public String toString() {
         return "AbstractSequencer{" +
@@ -0,0 +1,51 @@
+package org.lucas.disruptor;
+
+import org.lucas.disruptor.util.Util;
+import sun.misc.Unsafe;
+
+/**
+ * {@code int[]} 元素的有序写与 volatile 读。
+ * <p>
+ * Java 8 下基于 {@link Unsafe} 实现；Multi-Release jar 中
+ * {@code META-INF/versions/9} 下的同名类改用 {@code VarHandle}，
+ * 运行时由 JVM 自动选择，调用方无需感知。
+ */
+final class ArrayAccess {
+
+    private static final Unsafe UNSAFE = Util.getUnsafe();
+
+    /**
+     * 起始偏移量
+     */
+    private static final long BASE = UNSAFE.arrayBaseOffset(int[].class);
+
+    /**
+     * 增量偏移量
+     */
+    private static final long SCALE = UNSAFE.arrayIndexScale(int[].class);
+
+    private ArrayAccess() {
+    }
+
+    /**
+     * 有序写入（插入 Store/Store 内存屏障）。
+     *
+     * @param array 数组
+     * @param index 元素索引
+     * @param value 写入的值
+     */
+    static void putOrderedInt(final int[] array, final int index, final int value) {
+        UNSAFE.putOrderedInt(array, BASE + index * SCALE, value);
+    }
+
+    /**
+     * volatile 读，与 {@link #putOrderedInt(int[], int, int)} 配对。
+     *
+     * @param array 数组
+     * @param index 元素索引
+     * @return 元素的值
+     */
+    static int getIntVolatile(final int[] array, final int index) {
+        return UNSAFE.getIntVolatile(array, BASE + index * SCALE);
+    }
+}
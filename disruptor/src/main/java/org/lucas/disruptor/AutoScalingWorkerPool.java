@@ -0,0 +1,381 @@
+package org.lucas.disruptor;
+
+import org.lucas.disruptor.util.Util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 按积压自动伸缩的竞争消费者池。
+ * <p>
+ * 与 {@link WorkerPool} 一样，所有消费者共享一个工作序号，每个事件只会被其中一个 {@link WorkHandler} 处理；
+ * 区别是消费者个数不固定，由一个采样线程定期检查积压（生产者游标与工作序号之差）：
+ * <ul>
+ * <li>连续 stableSamples 次积压大于 scaleUpLag 时增加一个消费者，直到 maxWorkers；</li>
+ * <li>连续 stableSamples 次积压不大于 scaleDownLag 时退休一个消费者，直到 minWorkers；</li>
+ * <li>两个阈值之间的采样清零计数，每次伸缩后重新计数，避免在阈值附近反复伸缩。</li>
+ * </ul>
+ * 新消费者的序列通过 {@link RingBuffer#addGatingSequences} 加入门控序列后才开始抢占序号，
+ * 退休的消费者处理完已抢占的序号后自行通过 {@link RingBuffer#removeGatingSequence} 移除，
+ * 两者都是无锁的数组替换，不会暂停生产者。
+ * 空闲的消费者总是已经抢占了下一个序号，因此退休的消费者要等到该序号发布并处理完才会退出。
+ * <p>
+ * 每个消费者有独立的 {@link SequenceBarrier}，退休时的 alert 不会影响其它消费者。
+ *
+ * @param <T> 事件类型
+ */
+public final class AutoScalingWorkerPool<T> {
+
+    private static final int RUNNING = 0;
+    private static final int RETIRING = RUNNING + 1;
+    private static final int HALTED = RETIRING + 1;
+
+    /**
+     * 所有消费者共享的工作序号
+     */
+    private final Sequence workSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private final RingBuffer<T> ringBuffer;
+
+    private final Sequence[] sequencesToTrack;
+
+    private final Supplier<? extends WorkHandler<? super T>> handlerFactory;
+
+    private final ExceptionHandler<? super T> exceptionHandler;
+
+    private final int minWorkers;
+
+    private final int maxWorkers;
+
+    private long scaleUpLag;
+
+    private long scaleDownLag;
+
+    private long samplePeriodNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private int stableSamples = 5;
+
+    /**
+     * 正在运行的消费者，最后加入的最先退休
+     */
+    private final Deque<Worker> active = new ArrayDeque<>();
+
+    /**
+     * 所有尚未退出的消费者，包括正在退休的
+     */
+    private final Set<Worker> live = ConcurrentHashMap.newKeySet();
+
+    private Executor executor;
+
+    private Sampler sampler;
+
+    /**
+     * 创建消费者池，工作序号立即加入门控序列，消费者的序列在创建时加入。
+     *
+     * @param ringBuffer       事件数据源
+     * @param handlerFactory   工作处理器工厂，每个消费者线程创建一个
+     * @param exceptionHandler 异常处理器
+     * @param minWorkers       最少的消费者个数
+     * @param maxWorkers       最多的消费者个数
+     * @param sequencesToTrack 依赖的上游序列
+     */
+    public AutoScalingWorkerPool(final RingBuffer<T> ringBuffer,
+                                 final Supplier<? extends WorkHandler<? super T>> handlerFactory,
+                                 final ExceptionHandler<? super T> exceptionHandler,
+                                 final int minWorkers, final int maxWorkers, final Sequence... sequencesToTrack) {
+        if (minWorkers < 1 || maxWorkers < minWorkers) {
+            throw new IllegalArgumentException("require 0 < minWorkers <= maxWorkers");
+        }
+        this.ringBuffer = ringBuffer;
+        this.handlerFactory = handlerFactory;
+        this.exceptionHandler = exceptionHandler;
+        this.minWorkers = minWorkers;
+        this.maxWorkers = maxWorkers;
+        this.sequencesToTrack = sequencesToTrack.clone();
+        this.scaleUpLag = ringBuffer.getBufferSize() / 4;
+        this.scaleDownLag = 0;
+        ringBuffer.addGatingSequences(workSequence);
+    }
+
+    /**
+     * 设置伸缩阈值，需要在启动前调用，默认为缓冲区大小的 1/4 和 0。
+     *
+     * @param scaleUpLag   积压大于该值时扩容
+     * @param scaleDownLag 积压不大于该值时缩容，必须小于 scaleUpLag
+     */
+    public void setThresholds(final long scaleUpLag, final long scaleDownLag) {
+        if (scaleDownLag < 0 || scaleDownLag >= scaleUpLag) {
+            throw new IllegalArgumentException("require 0 <= scaleDownLag < scaleUpLag");
+        }
+        this.scaleUpLag = scaleUpLag;
+        this.scaleDownLag = scaleDownLag;
+    }
+
+    /**
+     * 设置采样方式，需要在启动前调用，默认每 100 毫秒采样一次，连续 5 次越过阈值才伸缩。
+     *
+     * @param period        采样间隔
+     * @param unit          采样间隔的时间单位
+     * @param stableSamples 伸缩前需要连续越过阈值的采样次数
+     */
+    public void setSampling(final long period, final TimeUnit unit, final int stableSamples) {
+        if (period <= 0 || stableSamples < 1) {
+            throw new IllegalArgumentException("period and stableSamples must be > 0");
+        }
+        this.samplePeriodNanos = unit.toNanos(period);
+        this.stableSamples = stableSamples;
+    }
+
+    /**
+     * 启动 minWorkers 个消费者和采样线程，从当前生产者游标之后开始消费。
+     *
+     * @param executor 消费者和采样线程的执行器，需要能为每个任务提供独立的线程，如 {@link BasicExecutor}
+     * @throws IllegalStateException 消费者池已启动
+     */
+    public synchronized void start(final Executor executor) {
+        if (null != sampler) {
+            throw new IllegalStateException("AutoScalingWorkerPool has already been started and cannot be restarted until halted.");
+        }
+        this.executor = executor;
+        workSequence.set(ringBuffer.getCursor());
+        for (int i = 0; i < minWorkers; i++) {
+            addWorker();
+        }
+        sampler = new Sampler();
+        executor.execute(sampler);
+    }
+
+    /**
+     * 等待所有已发布的事件处理完后停止消费者。
+     */
+    public void drainAndHalt() {
+        while (ringBuffer.getCursor() > getMinimumSequence()) {
+            Thread.yield();
+        }
+        halt();
+    }
+
+    /**
+     * 立即停止采样线程和所有消费者，已抢占但未处理的事件不再处理。
+     */
+    public synchronized void halt() {
+        if (null != sampler) {
+            sampler.stopped = true;
+            LockSupport.unpark(sampler.thread);
+            sampler = null;
+        }
+        active.clear();
+        for (Worker worker : live) {
+            worker.stop(HALTED);
+        }
+    }
+
+    /**
+     * @return {@code true} 消费者池正在运行
+     */
+    public synchronized boolean isRunning() {
+        return null != sampler;
+    }
+
+    /**
+     * @return 正在运行的消费者个数，不包括正在退休的
+     */
+    public synchronized int getWorkerCount() {
+        return active.size();
+    }
+
+    /**
+     * @return 已发布但尚未被抢占的事件数
+     */
+    public long getLag() {
+        return Math.max(0L, ringBuffer.getCursor() - workSequence.get());
+    }
+
+    /**
+     * 采样一次积压，必要时增加或退休一个消费者
+     */
+    private synchronized void sample(final Sampler current, final int[] counters) {
+        if (current != sampler) {
+            return;
+        }
+        final long lag = getLag();
+        if (lag > scaleUpLag) {
+            counters[1] = 0;
+            if (++counters[0] >= stableSamples) {
+                counters[0] = 0;
+                if (active.size() < maxWorkers) {
+                    addWorker();
+                }
+            }
+        } else if (lag <= scaleDownLag) {
+            counters[0] = 0;
+            if (++counters[1] >= stableSamples) {
+                counters[1] = 0;
+                if (active.size() > minWorkers) {
+                    active.pollLast().stop(RETIRING);
+                }
+            }
+        } else {
+            counters[0] = 0;
+            counters[1] = 0;
+        }
+    }
+
+    /**
+     * 创建消费者，先加入门控序列再启动线程
+     */
+    private void addWorker() {
+        final Worker worker = new Worker(handlerFactory.get());
+        ringBuffer.addGatingSequences(worker.sequence);
+        active.addLast(worker);
+        live.add(worker);
+        executor.execute(worker);
+    }
+
+    private long getMinimumSequence() {
+        long minimum = workSequence.get();
+        for (Worker worker : live) {
+            minimum = Math.min(minimum, worker.sequence.get());
+        }
+        return minimum;
+    }
+
+    @Override
+    public String toString() {
+        return "AutoScalingWorkerPool{" +
+                "workers=" + getWorkerCount() +
+                ", live=" + live.size() +
+                ", lag=" + getLag() +
+                ", workSequence=" + workSequence +
+                '}';
+    }
+
+    /**
+     * 采样线程
+     */
+    private final class Sampler implements Runnable {
+
+        private volatile boolean stopped;
+
+        private volatile Thread thread;
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            // 连续越过上、下阈值的次数
+            final int[] counters = new int[2];
+            while (!stopped) {
+                LockSupport.parkNanos(this, samplePeriodNanos);
+                if (!stopped) {
+                    sample(this, counters);
+                }
+            }
+        }
+    }
+
+    /**
+     * 消费者，与 {@link WorkProcessor} 的主循环相同，另外支持退休：
+     * 只在处理完已抢占的序号、抢占下一个序号之前退出，保证不遗漏事件。
+     */
+    private final class Worker implements Runnable {
+
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+        /**
+         * 消费者的消费进度
+         */
+        private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+        private final SequenceBarrier sequenceBarrier = ringBuffer.newBarrier(sequencesToTrack);
+
+        private final WorkHandler<? super T> workHandler;
+
+        private Worker(final WorkHandler<? super T> workHandler) {
+            this.workHandler = workHandler;
+        }
+
+        /**
+         * 先修改状态再 alert，消费者先清除 alert 再读取状态，不会错过停止信号
+         */
+        private void stop(final int newState) {
+            state.accumulateAndGet(newState, Math::max);
+            sequenceBarrier.alert();
+        }
+
+        @Override
+        public void run() {
+            notifyStart();
+
+            boolean processedSequence = true;
+            long cachedAvailableSequence = Long.MIN_VALUE;
+            long nextSequence = sequence.get();
+            T event = null;
+            while (true) {
+                try {
+                    if (processedSequence) {
+                        if (state.get() != RUNNING) {
+                            break;
+                        }
+                        processedSequence = false;
+                        do {
+                            nextSequence = workSequence.get() + 1L;
+                            sequence.set(nextSequence - 1L);
+                        }
+                        while (!workSequence.compareAndSet(nextSequence - 1L, nextSequence));
+                    }
+
+                    if (cachedAvailableSequence >= nextSequence) {
+                        event = ringBuffer.get(nextSequence);
+                        workHandler.onEvent(event);
+                        processedSequence = true;
+                    } else {
+                        cachedAvailableSequence = sequenceBarrier.waitFor(nextSequence);
+                    }
+                } catch (final TimeoutException e) {
+                    // 等待超时，继续等待下一个事件
+                } catch (final AlertException ex) {
+                    sequenceBarrier.clearAlert();
+                    if (state.get() == HALTED) {
+                        break;
+                    }
+                    // 退休中，继续等待已抢占的序号
+                } catch (final Throwable ex) {
+                    exceptionHandler.handleEventException(ex, nextSequence, event);
+                    processedSequence = true;
+                }
+            }
+
+            ringBuffer.removeGatingSequence(sequence);
+            live.remove(this);
+
+            notifyShutdown();
+        }
+
+        private void notifyStart() {
+            if (workHandler instanceof LifecycleAware) {
+                try {
+                    ((LifecycleAware) workHandler).onStart();
+                } catch (final Throwable ex) {
+                    exceptionHandler.handleOnStartException(ex);
+                }
+            }
+        }
+
+        private void notifyShutdown() {
+            if (workHandler instanceof LifecycleAware) {
+                try {
+                    ((LifecycleAware) workHandler).onShutdown();
+                } catch (final Throwable ex) {
+                    exceptionHandler.handleOnShutdownException(ex);
+                }
+            }
+        }
+    }
+}
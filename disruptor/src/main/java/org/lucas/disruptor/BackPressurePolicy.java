@@ -0,0 +1,27 @@
+package org.lucas.disruptor;
+
+/**
+ * 缓冲区已满时生产者的处理策略，见 {@link BackPressurePublisher}。
+ */
+public enum BackPressurePolicy {
+
+    /**
+     * 退避等待消费者让出插槽，超时后放弃本次发布。
+     */
+    BLOCK,
+
+    /**
+     * 直接丢弃当前发布的事件。
+     */
+    DROP_NEWEST,
+
+    /**
+     * 暂存到有界的溢出队列，队列已满时丢弃其中最早的事件。
+     */
+    DROP_OLDEST,
+
+    /**
+     * 暂存到有界的溢出队列，缓冲区有空闲时按顺序回灌，队列已满时丢弃当前事件。
+     */
+    SPILL
+}
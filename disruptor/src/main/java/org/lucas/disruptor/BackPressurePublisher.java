@@ -0,0 +1,307 @@
+package org.lucas.disruptor;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 按 {@link BackPressurePolicy} 处理缓冲区已满的发布器。
+ * <p>
+ * 缓冲区有空闲时与 {@link RingBuffer#tryPublishEvent(EventTranslatorOneArg, Object)} 相同，不加锁也不分配对象；
+ * 只有缓冲区已满时才进入各策略的处理路径，过载时按确定的方式丢弃或暂存事件，而不是让生产者空转占满一个核。
+ * <p>
+ * 已发布到缓冲区的事件可能已被消费者读取，无法安全撤回，因此 {@link BackPressurePolicy#DROP_OLDEST}
+ * 丢弃的是溢出队列中最早的事件。
+ * 溢出队列只在发布时顺带回灌，没有后台线程：生产者停止发布后，暂存的事件会一直留在溢出队列中，
+ * 停止前需要反复调用 {@link #drainOverflow()} 直到 {@link #getOverflowSize()} 为 0。
+ * <p>
+ * 回灌同样会申请序号。{@link ProducerType#SINGLE} 的缓冲区只允许一个线程申请序号，
+ * 此时 {@link #drainOverflow()} 只能在生产者线程中调用，不能交给其它线程定时执行。
+ *
+ * @param <E> 事件类型
+ */
+public final class BackPressurePublisher<E> {
+
+    /**
+     * 自旋次数，超过后让出 CPU
+     */
+    private static final int SPIN_TRIES = 100;
+
+    /**
+     * 让出 CPU 的次数，超过后休眠
+     */
+    private static final int YIELD_TRIES = 100;
+
+    /**
+     * 把无参转换器适配为单参数转换器，溢出队列只保存一种形式
+     */
+    private static final EventTranslatorOneArg<Object, EventTranslator<Object>> INVOKE_TRANSLATOR =
+            (event, sequence, translator) -> translator.translateTo(event, sequence);
+
+    private final RingBuffer<E> ringBuffer;
+
+    private final BackPressurePolicy policy;
+
+    private final long timeoutNanos;
+
+    private final int overflowCapacity;
+
+    /**
+     * 溢出队列，读写都在自身的锁内
+     */
+    private final ArrayDeque<Pending<E>> overflow;
+
+    /**
+     * 溢出队列长度，锁外快速判断是否需要走溢出路径
+     */
+    private volatile int overflowSize;
+
+    private final Sequence droppedNewest = new Sequence(0);
+
+    private final Sequence droppedOldest = new Sequence(0);
+
+    private final Sequence spilled = new Sequence(0);
+
+    private final Sequence timeouts = new Sequence(0);
+
+    private BackPressurePublisher(final RingBuffer<E> ringBuffer, final BackPressurePolicy policy,
+                                  final long timeoutNanos, final int overflowCapacity) {
+        this.ringBuffer = ringBuffer;
+        this.policy = policy;
+        this.timeoutNanos = timeoutNanos;
+        this.overflowCapacity = overflowCapacity;
+        this.overflow = overflowCapacity > 0 ? new ArrayDeque<>(overflowCapacity) : null;
+    }
+
+    /**
+     * 缓冲区已满时退避等待，超时后放弃发布
+     *
+     * @param ringBuffer 缓冲区
+     * @param timeout    超时时间
+     * @param unit       时间单位
+     * @param <E>        事件类型
+     * @return 发布器
+     */
+    public static <E> BackPressurePublisher<E> blocking(final RingBuffer<E> ringBuffer,
+                                                        final long timeout, final TimeUnit unit) {
+        return new BackPressurePublisher<>(ringBuffer, BackPressurePolicy.BLOCK, unit.toNanos(timeout), 0);
+    }
+
+    /**
+     * 缓冲区已满时丢弃当前事件
+     *
+     * @param ringBuffer 缓冲区
+     * @param <E>        事件类型
+     * @return 发布器
+     */
+    public static <E> BackPressurePublisher<E> droppingNewest(final RingBuffer<E> ringBuffer) {
+        return new BackPressurePublisher<>(ringBuffer, BackPressurePolicy.DROP_NEWEST, 0, 0);
+    }
+
+    /**
+     * 缓冲区已满时暂存，溢出队列已满时丢弃其中最早的事件
+     *
+     * @param ringBuffer       缓冲区
+     * @param overflowCapacity 溢出队列容量
+     * @param <E>              事件类型
+     * @return 发布器
+     */
+    public static <E> BackPressurePublisher<E> droppingOldest(final RingBuffer<E> ringBuffer,
+                                                              final int overflowCapacity) {
+        return new BackPressurePublisher<>(ringBuffer, BackPressurePolicy.DROP_OLDEST, 0,
+                checkCapacity(overflowCapacity));
+    }
+
+    /**
+     * 缓冲区已满时暂存，溢出队列已满时丢弃当前事件
+     *
+     * @param ringBuffer       缓冲区
+     * @param overflowCapacity 溢出队列容量
+     * @param <E>              事件类型
+     * @return 发布器
+     */
+    public static <E> BackPressurePublisher<E> spilling(final RingBuffer<E> ringBuffer,
+                                                        final int overflowCapacity) {
+        return new BackPressurePublisher<>(ringBuffer, BackPressurePolicy.SPILL, 0,
+                checkCapacity(overflowCapacity));
+    }
+
+    /**
+     * 发布事件
+     *
+     * @param translator 事件转换器
+     * @return {@code true} 已发布到缓冲区或暂存到溢出队列；{@code false} 被丢弃或等待超时
+     */
+    @SuppressWarnings("unchecked")
+    public boolean publishEvent(final EventTranslator<E> translator) {
+        return publishEvent((EventTranslatorOneArg<E, EventTranslator<E>>) (Object) INVOKE_TRANSLATOR, translator);
+    }
+
+    /**
+     * 发布事件
+     *
+     * @param translator 事件转换器
+     * @param arg0       转换参数
+     * @param <A>        参数类型
+     * @return {@code true} 已发布到缓冲区或暂存到溢出队列；{@code false} 被丢弃或等待超时
+     */
+    public <A> boolean publishEvent(final EventTranslatorOneArg<E, A> translator, final A arg0) {
+        if (0 == overflowSize && ringBuffer.tryPublishEvent(translator, arg0)) {
+            return true;
+        }
+
+        switch (policy) {
+            case BLOCK:
+                return publishBlocking(translator, arg0);
+            case DROP_NEWEST:
+                droppedNewest.incrementAndGet();
+                return false;
+            default:
+                return publishOverflow(translator, arg0);
+        }
+    }
+
+    /**
+     * 把溢出队列中的事件按顺序回灌到缓冲区，直到队列为空或缓冲区再次写满。
+     * <p>
+     * 会申请序号，{@link ProducerType#SINGLE} 的缓冲区只能在生产者线程中调用。
+     *
+     * @return 回灌的事件个数
+     */
+    public int drainOverflow() {
+        if (null == overflow || 0 == overflowSize) {
+            return 0;
+        }
+        synchronized (overflow) {
+            return drainLocked();
+        }
+    }
+
+    /**
+     * @return 缓冲区已满时被丢弃的新事件个数
+     */
+    public long getDroppedNewestCount() {
+        return droppedNewest.get();
+    }
+
+    /**
+     * @return 溢出队列已满时被挤出的旧事件个数
+     */
+    public long getDroppedOldestCount() {
+        return droppedOldest.get();
+    }
+
+    /**
+     * @return 暂存到溢出队列的事件个数
+     */
+    public long getSpilledCount() {
+        return spilled.get();
+    }
+
+    /**
+     * @return 等待超时的发布次数
+     */
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+
+    /**
+     * @return 溢出队列中尚未回灌的事件个数
+     */
+    public int getOverflowSize() {
+        return overflowSize;
+    }
+
+    public BackPressurePolicy getPolicy() {
+        return policy;
+    }
+
+    private <A> boolean publishBlocking(final EventTranslatorOneArg<E, A> translator, final A arg0) {
+        final long deadline = System.nanoTime() + timeoutNanos;
+        int counter = 0;
+        while (!ringBuffer.tryPublishEvent(translator, arg0)) {
+            if (System.nanoTime() - deadline >= 0) {
+                timeouts.incrementAndGet();
+                return false;
+            }
+            if (counter < SPIN_TRIES) {
+                counter++;
+            } else if (counter < SPIN_TRIES + YIELD_TRIES) {
+                counter++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(1000L);
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A> boolean publishOverflow(final EventTranslatorOneArg<E, A> translator, final A arg0) {
+        synchronized (overflow) {
+            drainLocked();
+            // 先回灌，队列为空时再尝试一次，保证同一生产者的事件不乱序
+            if (overflow.isEmpty() && ringBuffer.tryPublishEvent(translator, arg0)) {
+                return true;
+            }
+            if (overflow.size() == overflowCapacity) {
+                if (BackPressurePolicy.DROP_OLDEST != policy) {
+                    droppedNewest.incrementAndGet();
+                    return false;
+                }
+                overflow.pollFirst();
+                droppedOldest.incrementAndGet();
+            }
+            overflow.addLast(new Pending<>((EventTranslatorOneArg<E, Object>) translator, arg0));
+            overflowSize = overflow.size();
+            spilled.incrementAndGet();
+            return true;
+        }
+    }
+
+    private int drainLocked() {
+        int drained = 0;
+        Pending<E> pending;
+        while (null != (pending = overflow.peekFirst())
+                && ringBuffer.tryPublishEvent(pending.translator, pending.arg0)) {
+            overflow.pollFirst();
+            drained++;
+        }
+        overflowSize = overflow.size();
+        return drained;
+    }
+
+    private static int checkCapacity(final int overflowCapacity) {
+        if (overflowCapacity < 1) {
+            throw new IllegalArgumentException("overflowCapacity must be > 0");
+        }
+        return overflowCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return "BackPressurePublisher{" +
+                "policy=" + policy +
+                ", overflowSize=" + overflowSize +
+                ", droppedNewest=" + droppedNewest +
+                ", droppedOldest=" + droppedOldest +
+                ", spilled=" + spilled +
+                ", timeouts=" + timeouts +
+                '}';
+    }
+
+    /**
+     * 暂存的事件：转换器与参数
+     */
+    private static final class Pending<E> {
+
+        private final EventTranslatorOneArg<E, Object> translator;
+
+        private final Object arg0;
+
+        private Pending(final EventTranslatorOneArg<E, Object> translator, final Object arg0) {
+            this.translator = translator;
+            this.arg0 = arg0;
+        }
+    }
+}
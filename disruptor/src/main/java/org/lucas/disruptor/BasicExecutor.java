@@ -0,0 +1,55 @@
+package org.lucas.disruptor;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 每个任务创建一个新线程的执行器，用于运行事件处理器。
+ */
+public class BasicExecutor implements Executor {
+
+    private final ThreadFactory factory;
+
+    /**
+     * 已创建的线程
+     */
+    private final Queue<Thread> threads = new ConcurrentLinkedQueue<>();
+
+    public BasicExecutor(ThreadFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        final Thread thread = factory.newThread(command);
+        if (null == thread) {
+            throw new RuntimeException("Failed to create thread to run: " + command);
+        }
+
+        thread.start();
+
+        threads.add(thread);
+    }
+
+    @Override
+    public String toString() {
+        return "BasicExecutor{" +
+                "threads=" + dumpThreadInfo() +
+                '}';
+    }
+
+    private String dumpThreadInfo() {
+        final StringBuilder sb = new StringBuilder();
+        for (Thread t : threads) {
+            sb.append("{");
+            sb.append("name=").append(t.getName()).append(",");
+            sb.append("id=").append(t.getId()).append(",");
+            sb.append("state=").append(t.getState());
+            sb.append("}");
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,280 @@
+package org.lucas.disruptor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量事件处理器。
+ * <p>
+ * 每次通过 {@link SequenceBarrier#waitFor(long)} 获取当前可用的最大序号，
+ * 一次处理完该范围内的所有事件，并在批次的最后一个事件上设置 endOfBatch，
+ * 处理器的 {@link Sequence} 每个批次只更新一次。
+ * <p>
+ * 通过 {@link #setParallelism(ForkJoinPool, int)} 可以把较大的批次切片，在 {@link ForkJoinPool} 上并行处理，
+ * 所有切片完成后才更新 {@link Sequence}，下游看到的仍然是完整的批次。
+ *
+ * @param <T> 事件类型
+ */
+public final class BatchEventProcessor<T> implements EventProcessor {
+
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+
+    /**
+     * 处理器运行状态
+     */
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+
+    private ExceptionHandler<? super T> exceptionHandler = new FatalExceptionHandler();
+
+    private final DataProvider<T> dataProvider;
+
+    private final SequenceBarrier sequenceBarrier;
+
+    private final EventHandler<? super T> eventHandler;
+
+    /**
+     * 处理器的消费进度
+     */
+    private final Sequence sequence;
+
+    /**
+     * 消费者运行指标，为 {@code null} 时不记录
+     */
+    private ConsumerMetrics metrics;
+
+    /**
+     * 并行处理批次的线程池，为 {@code null} 时串行处理
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * 每个切片的最大事件数，批次不超过该值时串行处理
+     */
+    private int sliceSize;
+
+    /**
+     * @param dataProvider    事件数据源，通常是 {@link RingBuffer}
+     * @param sequenceBarrier 序号屏障
+     * @param eventHandler    事件处理器
+     */
+    public BatchEventProcessor(final DataProvider<T> dataProvider, final SequenceBarrier sequenceBarrier,
+                               final EventHandler<? super T> eventHandler) {
+        this(dataProvider, sequenceBarrier, eventHandler, new Sequence(Sequencer.INITIAL_CURSOR_VALUE));
+    }
+
+    /**
+     * @param sequence 处理器的消费进度，如 {@link SequenceTree#newSequence()} 创建的成员序列
+     */
+    BatchEventProcessor(final DataProvider<T> dataProvider, final SequenceBarrier sequenceBarrier,
+                        final EventHandler<? super T> eventHandler, final Sequence sequence) {
+        this.dataProvider = dataProvider;
+        this.sequenceBarrier = sequenceBarrier;
+        this.eventHandler = eventHandler;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void halt() {
+        running.set(HALTED);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get() != IDLE;
+    }
+
+    /**
+     * 设置异常处理器，默认为 {@link FatalExceptionHandler}
+     *
+     * @param exceptionHandler 异常处理器
+     */
+    public void setExceptionHandler(final ExceptionHandler<? super T> exceptionHandler) {
+        if (null == exceptionHandler) {
+            throw new NullPointerException();
+        }
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * 启用消费者运行指标，需要在处理器启动前调用。
+     *
+     * @param metrics 运行指标
+     */
+    public void setMetrics(final ConsumerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 启用批次内的并行处理，需要在处理器启动前调用。
+     * <p>
+     * 可用事件超过 sliceSize 个时，把批次递归对半切分到不超过 sliceSize 个，在 pool 上并行处理，
+     * 处理器线程等待所有切片完成后才更新 {@link Sequence}。
+     * 事件处理器必须是无状态的：{@link EventHandler#onEvent} 会被多个线程并发调用，
+     * 同一批次内的事件之间没有顺序保证，endOfBatch 表示切片的最后一个事件。
+     * 异常处理器同样会被并发调用；它抛出异常时与串行处理时一样终止处理器，批次不会被重新投递。
+     *
+     * @param pool      线程池，为 {@code null} 时关闭并行处理
+     * @param sliceSize 每个切片的最大事件数
+     */
+    public void setParallelism(final ForkJoinPool pool, final int sliceSize) {
+        if (null != pool && sliceSize < 1) {
+            throw new IllegalArgumentException("sliceSize must be > 0");
+        }
+        this.pool = pool;
+        this.sliceSize = sliceSize;
+    }
+
+    /**
+     * 处理器主循环，直到 {@link #halt()} 被调用。
+     *
+     * @throws IllegalStateException 处理器已经在运行
+     */
+    @Override
+    public void run() {
+        if (running.compareAndSet(IDLE, RUNNING)) {
+            sequenceBarrier.clearAlert();
+
+            notifyStart();
+            try {
+                if (running.get() == RUNNING) {
+                    processEvents();
+                }
+            } finally {
+                notifyShutdown();
+                running.set(IDLE);
+            }
+        } else {
+            // 已在运行时报错；在启动前被 halt 时不处理事件，只通知生命周期回调，状态保持为 HALTED
+            if (running.get() == RUNNING) {
+                throw new IllegalStateException("Thread is already running");
+            } else {
+                earlyExit();
+            }
+        }
+    }
+
+    private void processEvents() {
+        T event = null;
+        long nextSequence = sequence.get() + 1L;
+        final ConsumerMetrics metrics = this.metrics;
+        final ForkJoinPool pool = this.pool;
+
+        while (true) {
+            // 正在并行处理切片
+            boolean slicing = false;
+            try {
+                final long waitStart = null != metrics ? System.nanoTime() : 0L;
+                final long availableSequence = sequenceBarrier.waitFor(nextSequence);
+                if (null != metrics && availableSequence >= nextSequence) {
+                    metrics.onBatch(availableSequence - nextSequence + 1L, System.nanoTime() - waitStart);
+                }
+
+                if (null != pool && availableSequence - nextSequence >= sliceSize) {
+                    slicing = true;
+                    pool.invoke(new Slice(nextSequence, availableSequence));
+                    slicing = false;
+                    nextSequence = availableSequence + 1L;
+                }
+
+                while (nextSequence <= availableSequence) {
+                    event = dataProvider.get(nextSequence);
+                    eventHandler.onEvent(event, nextSequence, nextSequence == availableSequence);
+                    nextSequence++;
+                }
+
+                // 每个批次只写一次消费进度
+                sequence.set(availableSequence);
+            } catch (final TimeoutException e) {
+                // 等待超时，继续等待下一个事件
+            } catch (final AlertException ex) {
+                if (running.get() != RUNNING) {
+                    break;
+                }
+            } catch (final Throwable ex) {
+                if (slicing) {
+                    // 异常处理器已在切片内收到出错的序号和事件并抛出了异常，与串行处理时一样终止处理器；
+                    // 切片之间没有顺序，不能按序号跳过后重新投递批次中的其它事件。
+                    // ForkJoinPool#invoke 只会抛出非受检异常
+                    if (ex instanceof Error) {
+                        throw (Error) ex;
+                    }
+                    throw (RuntimeException) ex;
+                }
+                exceptionHandler.handleEventException(ex, nextSequence, event);
+                // 跳过出现异常的事件
+                sequence.set(nextSequence);
+                nextSequence++;
+            }
+        }
+    }
+
+    /**
+     * 批次中的一个切片，超过 sliceSize 时对半切分
+     */
+    private final class Slice extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long lo;
+
+        private final long hi;
+
+        private Slice(final long lo, final long hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo >= sliceSize) {
+                final long mid = (lo + hi) >>> 1;
+                invokeAll(new Slice(lo, mid), new Slice(mid + 1L, hi));
+                return;
+            }
+            for (long current = lo; current <= hi; current++) {
+                final T event = dataProvider.get(current);
+                try {
+                    eventHandler.onEvent(event, current, current == hi);
+                } catch (final Throwable ex) {
+                    // 跳过出现异常的事件，异常处理器抛出异常时整个批次失败
+                    exceptionHandler.handleEventException(ex, current, event);
+                }
+            }
+        }
+    }
+
+    private void earlyExit() {
+        notifyStart();
+        notifyShutdown();
+    }
+
+    private void notifyStart() {
+        if (eventHandler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) eventHandler).onStart();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnStartException(ex);
+            }
+        }
+    }
+
+    private void notifyShutdown() {
+        if (eventHandler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) eventHandler).onShutdown();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnShutdownException(ex);
+            }
+        }
+    }
+
+}
@@ -25,6 +25,25 @@ public class BlockingWaitStrategy implements WaitStrategy {
         return availableSequence;
     }
 
+    @Override
+    public long waitFor(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier,
+                        long timeoutNanos) throws AlertException, InterruptedException, TimeoutException {
+        final long deadline = System.nanoTime() + timeoutNanos;
+        if (cursorSequence.get() < sequence) {
+            synchronized (mutex) {
+                while (cursorSequence.get() < sequence) {
+                    barrier.checkAlert();
+                    if (timeoutNanos <= 0) {
+                        throw TimeoutException.INSTANCE;
+                    }
+                    timeoutNanos = TimeoutBlockingWaitStrategy.awaitNanos(mutex, timeoutNanos);
+                }
+            }
+        }
+        // 依赖的上游消费者落后时同样受超时约束
+        return TimeoutBlockingWaitStrategy.spinUntil(sequence, dependentSequence, barrier, deadline);
+    }
+
     @Override
     public void signalAllWhenBlocking() {
         synchronized (mutex) {
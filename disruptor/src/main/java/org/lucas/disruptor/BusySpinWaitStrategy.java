@@ -0,0 +1,32 @@
+package org.lucas.disruptor;
+
+import org.lucas.disruptor.util.ThreadHints;
+
+/**
+ * 忙等待策略。
+ * <p>
+ * 消费者线程一直自旋，延迟最低，但会一直占用 CPU，适用于消费者线程数小于物理核数并且绑核的场景。
+ */
+public final class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public long waitFor(final long sequence, Sequence cursor, final Sequence dependentSequence,
+                        final SequenceBarrier barrier) throws AlertException, InterruptedException {
+        long availableSequence;
+
+        while ((availableSequence = dependentSequence.get()) < sequence) {
+            barrier.checkAlert();
+            ThreadHints.onSpinWait();
+        }
+
+        return availableSequence;
+    }
+
+    /**
+     * 消费者不会阻塞，不需要唤醒。
+     */
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+
+}
@@ -0,0 +1,176 @@
+package org.lucas.disruptor;
+
+/**
+ * 可复用的序号申请句柄，配合 try-with-resources 使用，发布事件时不产生任何对象分配。
+ * <pre><code>
+ * final ClaimHandle&lt;LongEvent&gt; handle = ringBuffer.newClaimHandle();
+ * ...
+ * try (ClaimHandle&lt;LongEvent&gt; claim = handle.claim()) {
+ *     claim.event().set(value);
+ * }
+ * </code></pre>
+ * 句柄由发布线程通过 {@link RingBuffer#newClaimHandle()} 创建并复用，不能在线程之间共享。
+ * {@link #close()} 时发布已申请的序号，即使填充事件时抛出异常也会发布，避免阻塞消费者。
+ *
+ * @param <E> 事件类型
+ */
+public final class ClaimHandle<E> implements AutoCloseable {
+
+    private final RingBuffer<E> ringBuffer;
+
+    /**
+     * 已申请的第一个序号
+     */
+    private long lo;
+
+    /**
+     * 已申请的最后一个序号
+     */
+    private long hi;
+
+    /**
+     * 已申请的序号个数，0 表示当前没有申请序号
+     */
+    private int size;
+
+    ClaimHandle(final RingBuffer<E> ringBuffer) {
+        this.ringBuffer = ringBuffer;
+    }
+
+    /**
+     * @see #claim(int)
+     */
+    public ClaimHandle<E> claim() {
+        return claim(1);
+    }
+
+    /**
+     * 申请 n 个连续的序号，缓冲区已满时等待。
+     *
+     * @param n 申请个数
+     * @return 当前句柄
+     * @throws IllegalStateException 上一次申请尚未发布
+     */
+    public ClaimHandle<E> claim(final int n) {
+        checkNotClaimed();
+        claimed(ringBuffer.next(n), n);
+        return this;
+    }
+
+    /**
+     * 尝试申请 n 个连续的序号，缓冲区已满时不等待。
+     *
+     * @param n 申请个数
+     * @return 当前句柄
+     * @throws InsufficientCapacityException 缓冲区容量不足
+     * @throws IllegalStateException         上一次申请尚未发布
+     */
+    public ClaimHandle<E> tryClaim(final int n) throws InsufficientCapacityException {
+        checkNotClaimed();
+        claimed(ringBuffer.tryNext(n), n);
+        return this;
+    }
+
+    /**
+     * @return 第一个已申请序号对应的预分配事件
+     */
+    public E event() {
+        return event(0);
+    }
+
+    /**
+     * @param index 批次内的下标，从 0 开始
+     * @return 第 index 个已申请序号对应的预分配事件
+     */
+    public E event(final int index) {
+        return ringBuffer.get(sequence(index));
+    }
+
+    /**
+     * @return 第一个已申请的序号
+     */
+    public long sequence() {
+        return sequence(0);
+    }
+
+    /**
+     * @param index 批次内的下标，从 0 开始
+     * @return 第 index 个已申请的序号
+     * @throws IndexOutOfBoundsException 下标超出已申请的范围
+     */
+    public long sequence(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        return lo + index;
+    }
+
+    /**
+     * @return 已申请的序号个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 发布已申请的所有序号，整个批次只发布一次。
+     */
+    @Override
+    public void close() {
+        if (0 == size) {
+            return;
+        }
+        final long lo = this.lo;
+        final long hi = this.hi;
+        size = 0;
+        ringBuffer.publish(lo, hi);
+    }
+
+    /**
+     * 尝试申请至多 n 个连续的序号，缓冲区剩余多少就申请多少，申请到的个数见 {@link #size()}。
+     *
+     * @param n 最多申请的个数
+     * @return 当前句柄
+     * @throws InsufficientCapacityException 缓冲区已满，一个序号也没有申请到
+     * @throws IllegalStateException         上一次申请尚未发布
+     */
+    public ClaimHandle<E> tryClaimUpTo(final int n) throws InsufficientCapacityException {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        checkNotClaimed();
+        // 按剩余容量申请，与其它生产者竞争失败时按新的剩余容量重试，每次至少少申请一个
+        int count = (int) Math.min(n, ringBuffer.remainingCapacity());
+        while (count > 0) {
+            try {
+                claimed(ringBuffer.tryNext(count), count);
+                return this;
+            } catch (final InsufficientCapacityException e) {
+                count = (int) Math.min(count - 1, ringBuffer.remainingCapacity());
+            }
+        }
+        throw InsufficientCapacityException.INSTANCE;
+    }
+
+    private void claimed(final long hi, final int n) {
+        this.hi = hi;
+        this.lo = hi - (n - 1);
+        this.size = n;
+    }
+
+    private void checkNotClaimed() {
+        if (0 != size) {
+            throw new IllegalStateException("Sequences " + lo + ".." + hi + " have been claimed but not published");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ClaimHandle{" +
+                "lo=" + lo +
+                ", hi=" + hi +
+                ", size=" + size +
+                '}';
+    }
+
+}
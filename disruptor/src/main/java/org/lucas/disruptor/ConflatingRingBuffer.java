@@ -0,0 +1,306 @@
+package org.lucas.disruptor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 按键合并（后写覆盖）的环形缓冲区，适用于行情、状态等只关心每个键最新值的数据。
+ * <p>
+ * 某个键还有未消费的插槽时，生产者直接覆盖该插槽的值而不申请新序号；
+ * 消费者处理插槽时取走的总是最新值。消费者的工作量由不同键的个数决定，而不是更新频率，
+ * 慢消费者不会在过期数据上越积越多。
+ * <p>
+ * 每个插槽引用一个 {@link Entry}，未消费的键由 {@link #pending} 映射到它的 Entry。
+ * Entry 的值非 {@code null} 表示尚未消费：生产者通过 CAS 替换非空值来合并，
+ * 消费者通过 {@code getAndSet(null)} 取走最新值，两者的竞争由同一个原子引用决定，不会丢失更新。
+ * <p>
+ * 并发发布同一个键时，后申请到序号的生产者可能合并到已有的 Entry，留下一个空插槽。
+ * 消费者跳过空插槽，并把每个非空插槽推迟到下一个非空插槽或批次结束时再交给 {@link Handler}，
+ * 因此批次的最后一个插槽为空时，{@code endOfBatch} 落在最后一个非空插槽上。
+ * <p>
+ * 只支持一个消费者：合并后的值只能被取走一次。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public final class ConflatingRingBuffer<K, V> {
+
+    /**
+     * 合并后的事件处理回调
+     *
+     * @param <K> 键类型
+     * @param <V> 值类型
+     */
+    @FunctionalInterface
+    public interface Handler<K, V> {
+
+        /**
+         * @param key        键
+         * @param value      该键的最新值
+         * @param sequence   插槽序号
+         * @param endOfBatch {@code true} 当前批次的最后一个事件
+         * @throws Exception 交由 {@link ExceptionHandler} 处理
+         */
+        void onEvent(K key, V value, long sequence, boolean endOfBatch) throws Exception;
+    }
+
+    private final RingBuffer<Slot> ringBuffer;
+
+    /**
+     * 尚未消费的键
+     */
+    private final ConcurrentMap<K, Entry<K, V>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 合并（覆盖未消费值）的次数
+     */
+    private final Sequence conflated = new Sequence(0);
+
+    private volatile boolean processorCreated;
+
+    private ConflatingRingBuffer(final RingBuffer<Slot> ringBuffer) {
+        this.ringBuffer = ringBuffer;
+    }
+
+    /**
+     * @param producerType 生产者类型
+     * @param bufferSize   缓冲区大小，不小于同时未消费的键数即不会阻塞
+     * @param waitStrategy 消费者等待策略
+     * @param <K>          键类型
+     * @param <V>          值类型
+     * @return 合并缓冲区
+     */
+    public static <K, V> ConflatingRingBuffer<K, V> create(final ProducerType producerType, final int bufferSize,
+                                                           final WaitStrategy waitStrategy) {
+        return new ConflatingRingBuffer<>(RingBuffer.create(producerType, Slot::new, bufferSize, waitStrategy));
+    }
+
+    /**
+     * 发布键的最新值，键尚未消费时直接覆盖，否则申请新序号，缓冲区已满时等待。
+     *
+     * @param key   键
+     * @param value 值，不能为 {@code null}
+     */
+    public void publish(final K key, final V value) {
+        checkNotNull(value);
+        if (conflate(key, value)) {
+            return;
+        }
+        publishNew(ringBuffer.next(), key, value);
+    }
+
+    /**
+     * 发布键的最新值，缓冲区已满且无法合并时不等待。
+     *
+     * @param key   键
+     * @param value 值，不能为 {@code null}
+     * @return {@code false} 缓冲区已满
+     */
+    public boolean tryPublish(final K key, final V value) {
+        checkNotNull(value);
+        if (conflate(key, value)) {
+            return true;
+        }
+        final long sequence;
+        try {
+            sequence = ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+        publishNew(sequence, key, value);
+        return true;
+    }
+
+    /**
+     * 创建唯一的消费者，并把它的序列加入门控序列，调用方负责在线程中运行。
+     *
+     * @param handler 事件处理回调
+     * @return 事件处理器
+     * @throws IllegalStateException 已经创建过消费者
+     */
+    public synchronized EventProcessor createEventProcessor(final Handler<K, V> handler) {
+        if (processorCreated) {
+            throw new IllegalStateException("ConflatingRingBuffer supports a single consumer");
+        }
+        processorCreated = true;
+
+        final BatchEventProcessor<Slot> processor = new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(),
+                new SlotHandler(handler));
+        ringBuffer.addGatingSequences(processor.getSequence());
+        return processor;
+    }
+
+    /**
+     * @return 合并（覆盖未消费值）的次数
+     */
+    public long getConflatedCount() {
+        return conflated.get();
+    }
+
+    /**
+     * @return 尚未消费的键数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getCursor() {
+        return ringBuffer.getCursor();
+    }
+
+    public int getBufferSize() {
+        return ringBuffer.getBufferSize();
+    }
+
+    public long remainingCapacity() {
+        return ringBuffer.remainingCapacity();
+    }
+
+    /**
+     * 覆盖键尚未消费的值
+     *
+     * @return {@code true} 已合并
+     */
+    private boolean conflate(final K key, final V value) {
+        final Entry<K, V> entry = pending.get(key);
+        if (null != entry && entry.conflate(value)) {
+            conflated.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 在已申请的插槽上发布键的新 Entry。
+     * 申请序号期间其它生产者可能已为同一个键发布了 Entry，此时合并到该 Entry，插槽留空。
+     */
+    private void publishNew(final long sequence, final K key, final V value) {
+        final Slot slot = ringBuffer.get(sequence);
+        try {
+            for (; ; ) {
+                final Entry<K, V> created = new Entry<>(key, value);
+                final Entry<K, V> existing = pending.putIfAbsent(key, created);
+                if (null == existing) {
+                    slot.entry = created;
+                    return;
+                }
+                if (existing.conflate(value)) {
+                    conflated.incrementAndGet();
+                    slot.entry = null;
+                    return;
+                }
+                // 已被消费者取走，但映射尚未删除
+                pending.remove(key, existing);
+            }
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    private static void checkNotNull(final Object value) {
+        if (null == value) {
+            throw new NullPointerException("value");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConflatingRingBuffer{" +
+                "cursor=" + getCursor() +
+                ", pending=" + getPendingCount() +
+                ", conflated=" + conflated +
+                '}';
+    }
+
+    /**
+     * 消费者的事件处理器，跳过空插槽，保证每个批次的 {@code endOfBatch} 都能送达
+     */
+    private final class SlotHandler implements EventHandler<Slot> {
+
+        private final Handler<K, V> handler;
+
+        /**
+         * 推迟到下一个非空插槽或批次结束时交付的键值
+         */
+        private K heldKey;
+
+        private V heldValue;
+
+        private long heldSequence;
+
+        private SlotHandler(final Handler<K, V> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void onEvent(final Slot slot, final long sequence, final boolean endOfBatch) throws Exception {
+            @SuppressWarnings("unchecked") final Entry<K, V> entry = (Entry<K, V>) slot.entry;
+            slot.entry = null;
+            try {
+                if (null != entry) {
+                    final V value = entry.getAndSet(null);
+                    pending.remove(entry.key, entry);
+                    try {
+                        deliver(false);
+                    } finally {
+                        // 即使上一个值处理失败，当前值也已取走，必须保留
+                        heldKey = entry.key;
+                        heldValue = value;
+                        heldSequence = sequence;
+                    }
+                }
+            } finally {
+                if (endOfBatch) {
+                    deliver(true);
+                }
+            }
+        }
+
+        private void deliver(final boolean endOfBatch) throws Exception {
+            final V value = heldValue;
+            if (null == value) {
+                return;
+            }
+            final K key = heldKey;
+            heldKey = null;
+            heldValue = null;
+            handler.onEvent(key, value, heldSequence, endOfBatch);
+        }
+    }
+
+    /**
+     * 缓冲区中的插槽
+     */
+    static final class Slot {
+        Entry<?, ?> entry;
+    }
+
+    /**
+     * 键与它尚未消费的最新值，值为 {@code null} 表示已被消费
+     */
+    static final class Entry<K, V> extends AtomicReference<V> {
+
+        private static final long serialVersionUID = 1L;
+
+        final K key;
+
+        Entry(final K key, final V value) {
+            super(value);
+            this.key = key;
+        }
+
+        /**
+         * @return {@code true} 尚未消费，已替换为新值
+         */
+        boolean conflate(final V value) {
+            V current;
+            while (null != (current = get())) {
+                if (compareAndSet(current, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.lucas.disruptor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Disruptor 中的一个消费者（单个事件处理器或消费者池）
+ */
+interface ConsumerInfo {
+
+    /**
+     * @return 消费者的序列
+     */
+    Sequence[] getSequences();
+
+    /**
+     * @return 消费者使用的序号屏障
+     */
+    SequenceBarrier getBarrier();
+
+    /**
+     * @return {@code true} 消费者位于消费链末端，它的序列是生产者的门控序列
+     */
+    boolean isEndOfChain();
+
+    void start(Executor executor);
+
+    void halt();
+
+    /**
+     * 标记为非末端消费者，后面还有其它消费者依赖它。
+     */
+    void markAsUsedInBarrier();
+
+    boolean isRunning();
+
+    /**
+     * 消费者线程可能还没有开始运行，此时 {@link #isRunning()} 为 {@code false}，但已发布的事件仍会被处理。
+     *
+     * @return {@code true} 已调用 {@link #start(Executor)} 且尚未停止
+     */
+    boolean isStarted();
+
+}
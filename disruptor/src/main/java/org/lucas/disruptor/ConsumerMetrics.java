@@ -0,0 +1,83 @@
+package org.lucas.disruptor;
+
+/**
+ * 消费者端的运行指标。
+ * <p>
+ * 由事件处理器线程每个批次记录一次，所有计数器只有一个写线程，使用有序写更新。
+ */
+public final class ConsumerMetrics implements ConsumerMetricsMBean {
+
+    private final Cursored cursor;
+
+    private final Sequence sequence;
+
+    private final Sequence batchCount = new Sequence(0);
+
+    private final Sequence waitTimeNanos = new Sequence(0);
+
+    private final Histogram batchSizes = new Histogram();
+
+    private final Histogram waitTimes = new Histogram();
+
+    /**
+     * @param cursor   生产者游标
+     * @param sequence 消费者序列
+     */
+    public ConsumerMetrics(final Cursored cursor, final Sequence sequence) {
+        this.cursor = cursor;
+        this.sequence = sequence;
+    }
+
+    /**
+     * 记录一个批次，只能由消费者线程调用。
+     *
+     * @param batchSize 批次大小
+     * @param waitNanos 等待该批次的纳秒数
+     */
+    void onBatch(final long batchSize, final long waitNanos) {
+        batchSizes.record(batchSize);
+        waitTimes.record(waitNanos);
+        batchCount.set(batchCount.get() + 1);
+        waitTimeNanos.set(waitTimeNanos.get() + waitNanos);
+    }
+
+    @Override
+    public long getLag() {
+        return Math.max(0, cursor.getCursor() - sequence.get());
+    }
+
+    @Override
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    @Override
+    public long[] getBatchSizeHistogram() {
+        return batchSizes.getBuckets();
+    }
+
+    @Override
+    public long[] getWaitTimeHistogram() {
+        return waitTimes.getBuckets();
+    }
+
+    @Override
+    public long getWaitTimeP99Nanos() {
+        return waitTimes.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getWaitTimeNanos() {
+        return waitTimeNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ConsumerMetrics{" +
+                "lag=" + getLag() +
+                ", batchCount=" + batchCount +
+                ", waitTimeNanos=" + waitTimeNanos +
+                '}';
+    }
+
+}
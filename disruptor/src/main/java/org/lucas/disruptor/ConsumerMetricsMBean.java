@@ -0,0 +1,38 @@
+package org.lucas.disruptor;
+
+/**
+ * 消费者端的运行指标，通过 JMX 读取
+ */
+public interface ConsumerMetricsMBean {
+
+    /**
+     * @return 生产者游标与消费者序列之间的差值
+     */
+    long getLag();
+
+    /**
+     * @return 处理的批次数
+     */
+    long getBatchCount();
+
+    /**
+     * @return 批次大小直方图，第 i 个元素为 [2^(i-1), 2^i - 1] 范围内的批次数
+     */
+    long[] getBatchSizeHistogram();
+
+    /**
+     * @return 在 {@link WaitStrategy#waitFor} 中等待时间（纳秒）的直方图
+     */
+    long[] getWaitTimeHistogram();
+
+    /**
+     * @return 99 分位的等待纳秒数（桶上界）
+     */
+    long getWaitTimeP99Nanos();
+
+    /**
+     * @return 累计等待的纳秒数
+     */
+    long getWaitTimeNanos();
+
+}
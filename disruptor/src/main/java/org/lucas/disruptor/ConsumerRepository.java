@@ -0,0 +1,112 @@
+package org.lucas.disruptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 记录 Disruptor 中所有的消费者，以及事件处理器、序列和消费者之间的对应关系。
+ *
+ * @param <T> 事件类型
+ */
+class ConsumerRepository<T> implements Iterable<ConsumerInfo> {
+
+    private final Map<EventHandler<?>, EventProcessorInfo<T>> eventProcessorInfoByEventHandler =
+            new IdentityHashMap<>();
+
+    private final Map<Sequence, ConsumerInfo> eventProcessorInfoBySequence = new IdentityHashMap<>();
+
+    private final Collection<ConsumerInfo> consumerInfos = new ArrayList<>();
+
+    public void add(final EventProcessor eventprocessor, final EventHandler<? super T> handler,
+                    final SequenceBarrier barrier) {
+        final EventProcessorInfo<T> consumerInfo = new EventProcessorInfo<>(eventprocessor, handler, barrier);
+        eventProcessorInfoByEventHandler.put(handler, consumerInfo);
+        eventProcessorInfoBySequence.put(eventprocessor.getSequence(), consumerInfo);
+        consumerInfos.add(consumerInfo);
+    }
+
+    public void add(final EventProcessor processor) {
+        final EventProcessorInfo<T> consumerInfo = new EventProcessorInfo<>(processor, null, null);
+        eventProcessorInfoBySequence.put(processor.getSequence(), consumerInfo);
+        consumerInfos.add(consumerInfo);
+    }
+
+    public void add(final WorkerPool<T> workerPool, final SequenceBarrier sequenceBarrier) {
+        final WorkerPoolInfo<T> workerPoolInfo = new WorkerPoolInfo<>(workerPool, sequenceBarrier);
+        consumerInfos.add(workerPoolInfo);
+        for (Sequence sequence : workerPool.getWorkerSequences()) {
+            eventProcessorInfoBySequence.put(sequence, workerPoolInfo);
+        }
+    }
+
+    /**
+     * 已启动但线程尚未开始运行的消费者也计入积压，否则刚启动就停止会丢弃已发布的事件。
+     *
+     * @param cursor 生产者游标
+     * @return {@code true} 末端消费者还有未处理完的事件
+     */
+    public boolean hasBacklog(long cursor) {
+        for (ConsumerInfo consumerInfo : consumerInfos) {
+            if (consumerInfo.isStarted() && consumerInfo.isEndOfChain()) {
+                final Sequence[] sequences = consumerInfo.getSequences();
+                for (Sequence sequence : sequences) {
+                    if (cursor > sequence.get()) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param handler 事件处理器
+     * @return 处理该事件处理器的 EventProcessor
+     * @throws IllegalArgumentException 事件处理器未注册
+     */
+    public EventProcessor getEventProcessorFor(final EventHandler<T> handler) {
+        final EventProcessorInfo<T> eventprocessorInfo = getEventProcessorInfo(handler);
+        if (null == eventprocessorInfo) {
+            throw new IllegalArgumentException("The event handler " + handler + " is not processing events.");
+        }
+
+        return eventprocessorInfo.getEventProcessor();
+    }
+
+    public Sequence getSequenceFor(final EventHandler<T> handler) {
+        return getEventProcessorFor(handler).getSequence();
+    }
+
+    /**
+     * 这些消费者的序列被后续消费者的屏障依赖，不再是消费链末端。
+     *
+     * @param barrierEventProcessors 被依赖的消费者序列
+     */
+    public void unMarkEventProcessorsAsEndOfChain(final Sequence... barrierEventProcessors) {
+        for (Sequence barrierEventProcessor : barrierEventProcessors) {
+            getEventProcessorInfo(barrierEventProcessor).markAsUsedInBarrier();
+        }
+    }
+
+    @Override
+    public Iterator<ConsumerInfo> iterator() {
+        return consumerInfos.iterator();
+    }
+
+    public SequenceBarrier getBarrierFor(final EventHandler<T> handler) {
+        final ConsumerInfo consumerInfo = getEventProcessorInfo(handler);
+        return null != consumerInfo ? consumerInfo.getBarrier() : null;
+    }
+
+    private EventProcessorInfo<T> getEventProcessorInfo(final EventHandler<T> handler) {
+        return eventProcessorInfoByEventHandler.get(handler);
+    }
+
+    private ConsumerInfo getEventProcessorInfo(final Sequence barrierEventProcessor) {
+        return eventProcessorInfoBySequence.get(barrierEventProcessor);
+    }
+
+}
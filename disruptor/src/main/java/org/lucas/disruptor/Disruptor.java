@@ -1,15 +1,434 @@
 package org.lucas.disruptor;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
+ * 构建 {@link RingBuffer} 消费者依赖关系的 DSL。
+ * <p>
+ * 例如，A 和 B 并行处理事件，C 在 A、B 都处理完后再处理：
+ * <pre><code>
+ * disruptor.handleEventsWith(a, b).then(c);
+ * </code></pre>
+ * 只有消费链末端的消费者（C）会成为生产者的门控序列。
+ *
  * @Author: shaw
  * @Date: 2019/5/17 9:48
  */
 public class Disruptor<T> {
 
+    private final RingBuffer<T> ringBuffer;
+
+    private final Executor executor;
+
+    private final ConsumerRepository<T> consumerRepository = new ConsumerRepository<>();
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    private ExceptionHandler<? super T> exceptionHandler = new FatalExceptionHandler();
+
+    /**
+     * 已注册到 JMX 的运行指标
+     */
+    private final List<ObjectName> metricsNames = new ArrayList<>();
+
+    private SequencerMetrics sequencerMetrics;
+
     public Disruptor(final EventFactory<T> eventFactory, final int ringBufferSize, final ThreadFactory threadFactory) {
         this(RingBuffer.createMultiProducer(eventFactory, ringBufferSize), new BasicExecutor(threadFactory));
     }
 
+    /**
+     * @param eventFactory   事件工厂
+     * @param ringBufferSize 缓冲区大小，必须是2的幂次方
+     * @param threadFactory  消费者线程工厂
+     * @param producerType   生产者类型，只有一个发布线程时使用 {@link ProducerType#SINGLE}
+     * @param waitStrategy   消费者等待策略
+     */
+    public Disruptor(final EventFactory<T> eventFactory, final int ringBufferSize, final ThreadFactory threadFactory,
+                     final ProducerType producerType, final WaitStrategy waitStrategy) {
+        this(RingBuffer.create(producerType, eventFactory, ringBufferSize, waitStrategy), new BasicExecutor(threadFactory));
+    }
+
+    private Disruptor(final RingBuffer<T> ringBuffer, final Executor executor) {
+        this.ringBuffer = ringBuffer;
+        this.executor = executor;
+    }
+
+    /**
+     * 添加并行处理事件的事件处理器，它们直接依赖生产者游标。
+     *
+     * @param handlers 事件处理器
+     * @return 事件处理器组，可以通过 {@link EventHandlerGroup#then(EventHandler[])} 继续构建依赖关系
+     */
+    @SafeVarargs
+    // 数组只被读取，不会写入其它类型的元素
+    @SuppressWarnings("varargs")
+    public final EventHandlerGroup<T> handleEventsWith(final EventHandler<? super T>... handlers) {
+        return createEventProcessors(new Sequence[0], handlers);
+    }
+
+    /**
+     * 添加已创建的事件处理器，调用方负责处理它们的序号屏障。
+     *
+     * @param processors 事件处理器
+     * @return 事件处理器组
+     */
+    public EventHandlerGroup<T> handleEventsWith(final EventProcessor... processors) {
+        for (final EventProcessor processor : processors) {
+            consumerRepository.add(processor);
+        }
+
+        final Sequence[] sequences = new Sequence[processors.length];
+        for (int i = 0; i < processors.length; i++) {
+            sequences[i] = processors[i].getSequence();
+        }
+
+        ringBuffer.addGatingSequences(sequences);
+
+        return new EventHandlerGroup<>(this, consumerRepository, sequences);
+    }
+
+    /**
+     * 添加竞争消费者池，每个事件只会被其中一个工作处理器处理。
+     *
+     * @param workHandlers 工作处理器
+     * @return 消费者池
+     */
+    @SafeVarargs
+    // 数组只被读取，不会写入其它类型的元素
+    @SuppressWarnings("varargs")
+    public final EventHandlerGroup<T> handleEventsWithWorkerPool(final WorkHandler<T>... workHandlers) {
+        return createWorkerPool(new Sequence[0], workHandlers);
+    }
+
+    /**
+     * 设置之后创建的事件处理器使用的异常处理器
+     *
+     * @param exceptionHandler 异常处理器
+     */
+    public void handleExceptionsWith(final ExceptionHandler<? super T> exceptionHandler) {
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * 从已添加的事件处理器开始构建依赖关系，用于菱形依赖。
+     *
+     * @param handlers 已添加的事件处理器
+     * @return 事件处理器组
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> after(final EventHandler<T>... handlers) {
+        final Sequence[] sequences = new Sequence[handlers.length];
+        for (int i = 0, handlersLength = handlers.length; i < handlersLength; i++) {
+            sequences[i] = consumerRepository.getSequenceFor(handlers[i]);
+        }
+
+        return new EventHandlerGroup<>(this, consumerRepository, sequences);
+    }
+
+    /**
+     * 从已添加的事件处理器开始构建依赖关系
+     *
+     * @param processors 已添加的事件处理器
+     * @return 事件处理器组
+     */
+    public EventHandlerGroup<T> after(final EventProcessor... processors) {
+        for (final EventProcessor processor : processors) {
+            consumerRepository.add(processor);
+        }
+
+        final Sequence[] sequences = new Sequence[processors.length];
+        for (int i = 0; i < processors.length; i++) {
+            sequences[i] = processors[i].getSequence();
+        }
+        return new EventHandlerGroup<>(this, consumerRepository, sequences);
+    }
+
+    /**
+     * 启动所有消费者，只能调用一次。
+     *
+     * @return 已配置好门控序列的 RingBuffer
+     * @throws IllegalStateException Disruptor 已启动
+     */
+    public RingBuffer<T> start() {
+        checkOnlyStartedOnce();
+        for (final ConsumerInfo consumerInfo : consumerRepository) {
+            consumerInfo.start(executor);
+        }
+
+        return ringBuffer;
+    }
+
+    /**
+     * 立即停止所有消费者，未处理的事件不再处理。
+     */
+    public void halt() {
+        for (final ConsumerInfo consumerInfo : consumerRepository) {
+            consumerInfo.halt();
+        }
+        unregisterMetrics();
+    }
+
+    /**
+     * 启用运行指标并注册到 JMX，需要在添加完事件处理器之后、{@link #start()} 之前调用。
+     * <p>
+     * 生产者指标注册为 {@code org.lucas.disruptor:type=Sequencer,name=<name>}，
+     * 每个批量事件处理器注册为 {@code org.lucas.disruptor:type=Consumer,name=<name>,index=<i>}。
+     *
+     * @param name Disruptor 名称
+     * @return 生产者指标
+     * @throws IllegalStateException Disruptor 已启动或注册 JMX 失败
+     */
+    public SequencerMetrics enableMetrics(final String name) {
+        checkNotStarted();
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final String quotedName = ObjectName.quote(name);
+
+        final Sequencer sequencer = ringBuffer.sequencer;
+        sequencerMetrics = new SequencerMetrics(sequencer);
+        if (sequencer instanceof AbstractSequencer) {
+            ((AbstractSequencer) sequencer).setMetrics(sequencerMetrics);
+        }
+        registerMetrics(server, sequencerMetrics, "org.lucas.disruptor:type=Sequencer,name=" + quotedName);
+
+        int index = 0;
+        for (final ConsumerInfo consumerInfo : consumerRepository) {
+            if (consumerInfo instanceof EventProcessorInfo) {
+                final EventProcessor processor = ((EventProcessorInfo<?>) consumerInfo).getEventProcessor();
+                if (processor instanceof BatchEventProcessor) {
+                    final ConsumerMetrics consumerMetrics = new ConsumerMetrics(ringBuffer, processor.getSequence());
+                    ((BatchEventProcessor<?>) processor).setMetrics(consumerMetrics);
+                    registerMetrics(server, consumerMetrics,
+                            "org.lucas.disruptor:type=Consumer,name=" + quotedName + ",index=" + index++);
+                }
+            }
+        }
+        return sequencerMetrics;
+    }
+
+    /**
+     * @return 生产者指标，未调用 {@link #enableMetrics(String)} 时为 {@code null}
+     */
+    public SequencerMetrics getSequencerMetrics() {
+        return sequencerMetrics;
+    }
+
+    private void registerMetrics(final MBeanServer server, final Object metrics, final String name) {
+        try {
+            final ObjectName objectName = new ObjectName(name);
+            server.registerMBean(metrics, objectName);
+            metricsNames.add(objectName);
+        } catch (final JMException e) {
+            throw new IllegalStateException("Failed to register metrics: " + name, e);
+        }
+    }
+
+    private void unregisterMetrics() {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (final ObjectName objectName : metricsNames) {
+            try {
+                server.unregisterMBean(objectName);
+            } catch (final JMException ignore) {
+            }
+        }
+        metricsNames.clear();
+    }
+
+    /**
+     * 等待所有已发布的事件处理完后停止消费者，调用前需要停止发布事件。
+     */
+    public void shutdown() {
+        try {
+            shutdown(-1, TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            exceptionHandler.handleOnShutdownException(e);
+        }
+    }
+
+    /**
+     * 等待所有已发布的事件处理完后停止消费者，调用前需要停止发布事件。
+     *
+     * @param timeout 超时时间，小于0表示一直等待
+     * @param timeUnit 时间单位
+     * @throws TimeoutException 超时仍有未处理完的事件
+     */
+    public void shutdown(final long timeout, final TimeUnit timeUnit) throws TimeoutException {
+        final long timeOutAt = System.currentTimeMillis() + timeUnit.toMillis(timeout);
+        while (hasBacklog()) {
+            if (timeout >= 0 && System.currentTimeMillis() > timeOutAt) {
+                throw TimeoutException.INSTANCE;
+            }
+            // 等待末端消费者追上生产者
+            Thread.yield();
+        }
+        halt();
+    }
+
+    /**
+     * 发布事件
+     *
+     * @param eventTranslator 事件转换器
+     */
+    public void publishEvent(final EventTranslator<T> eventTranslator) {
+        ringBuffer.publishEvent(eventTranslator);
+    }
+
+    /**
+     * 发布事件
+     *
+     * @param eventTranslator 事件转换器
+     * @param arg             事件参数
+     */
+    public <A> void publishEvent(final EventTranslatorOneArg<T, A> eventTranslator, final A arg) {
+        ringBuffer.publishEvent(eventTranslator, arg);
+    }
+
+    public RingBuffer<T> getRingBuffer() {
+        return ringBuffer;
+    }
+
+    /**
+     * @return 生产者游标
+     */
+    public long getCursor() {
+        return ringBuffer.getCursor();
+    }
+
+    public long getBufferSize() {
+        return ringBuffer.getBufferSize();
+    }
+
+    /**
+     * @param handler 事件处理器
+     * @return 事件处理器使用的序号屏障
+     */
+    public SequenceBarrier getBarrierFor(final EventHandler<T> handler) {
+        return consumerRepository.getBarrierFor(handler);
+    }
+
+    /**
+     * @param handler 事件处理器
+     * @return 事件处理器的消费进度
+     */
+    public long getSequenceValueFor(final EventHandler<T> handler) {
+        return consumerRepository.getSequenceFor(handler).get();
+    }
+
+    /**
+     * 创建依赖 barrierSequences 的批量事件处理器，并更新生产者的门控序列。
+     *
+     * @param barrierSequences 依赖的上游消费者序列
+     * @param eventHandlers    事件处理器
+     * @return 新添加的事件处理器组
+     */
+    EventHandlerGroup<T> createEventProcessors(final Sequence[] barrierSequences,
+                                               final EventHandler<? super T>[] eventHandlers) {
+        checkNotStarted();
+
+        final Sequence[] processorSequences = new Sequence[eventHandlers.length];
+        final SequenceBarrier barrier = ringBuffer.newBarrier(barrierSequences);
+        // 事件处理器很多时由一棵树维护它们的最小值，生产者和后续消费者只读取树
+        final SequenceTree tree = eventHandlers.length > SequenceTree.FAN_OUT_THRESHOLD
+                ? new SequenceTree(ringBuffer, (int) Math.ceil(Math.sqrt(eventHandlers.length))) : null;
+
+        for (int i = 0, eventHandlersLength = eventHandlers.length; i < eventHandlersLength; i++) {
+            final EventHandler<? super T> eventHandler = eventHandlers[i];
+
+            final Sequence sequence = null == tree ? new Sequence(Sequencer.INITIAL_CURSOR_VALUE) : tree.newSequence();
+            final BatchEventProcessor<T> batchEventProcessor =
+                    new BatchEventProcessor<>(ringBuffer, barrier, eventHandler, sequence);
+            batchEventProcessor.setExceptionHandler(exceptionHandler);
+
+            consumerRepository.add(batchEventProcessor, eventHandler, barrier);
+            processorSequences[i] = batchEventProcessor.getSequence();
+        }
+
+        updateGatingSequencesForNextInChain(barrierSequences,
+                null == tree ? processorSequences : new Sequence[]{tree});
+
+        return new EventHandlerGroup<>(this, consumerRepository, processorSequences);
+    }
+
+    /**
+     * 创建依赖 barrierSequences 的消费者池，并更新生产者的门控序列。
+     *
+     * @param barrierSequences 依赖的上游消费者序列
+     * @param workHandlers     工作处理器
+     * @return 新添加的消费者池
+     */
+    EventHandlerGroup<T> createWorkerPool(final Sequence[] barrierSequences,
+                                          final WorkHandler<? super T>[] workHandlers) {
+        checkNotStarted();
+
+        final SequenceBarrier sequenceBarrier = ringBuffer.newBarrier(barrierSequences);
+        final WorkerPool<T> workerPool = new WorkerPool<>(ringBuffer, sequenceBarrier, exceptionHandler, workHandlers);
+
+        consumerRepository.add(workerPool, sequenceBarrier);
+
+        final Sequence[] workerSequences = workerPool.getWorkerSequences();
+
+        updateGatingSequencesForNextInChain(barrierSequences, workerSequences);
+
+        return new EventHandlerGroup<>(this, consumerRepository, workerSequences);
+    }
+
+    /**
+     * 新的消费者成为生产者的门控序列，它依赖的上游消费者不再是门控序列。
+     *
+     * 上游是一棵树的全部成员时移除这棵树；只依赖其中一部分成员时树仍是门控序列。
+     *
+     * @param barrierSequences   上游消费者序列
+     * @param processorSequences 新的消费者序列，或管理它们的 {@link SequenceTree}
+     */
+    private void updateGatingSequencesForNextInChain(final Sequence[] barrierSequences,
+                                                     final Sequence[] processorSequences) {
+        if (processorSequences.length > 0) {
+            ringBuffer.addGatingSequences(processorSequences);
+            for (final Sequence barrierSequence : barrierSequences) {
+                ringBuffer.removeGatingSequence(barrierSequence);
+            }
+            final SequenceTree barrierTree = SequenceTree.of(barrierSequences);
+            if (null != barrierTree) {
+                ringBuffer.removeGatingSequence(barrierTree);
+            }
+            consumerRepository.unMarkEventProcessorsAsEndOfChain(barrierSequences);
+        }
+    }
+
+    private boolean hasBacklog() {
+        final long cursor = ringBuffer.getCursor();
+
+        return consumerRepository.hasBacklog(cursor);
+    }
+
+    private void checkNotStarted() {
+        if (started.get()) {
+            throw new IllegalStateException("All event handlers must be added before calling starts.");
+        }
+    }
+
+    private void checkOnlyStartedOnce() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Disruptor.start() must only be called once.");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Disruptor{" +
+                "ringBuffer=" + ringBuffer +
+                ", started=" + started +
+                ", executor=" + executor +
+                '}';
+    }
+
 }
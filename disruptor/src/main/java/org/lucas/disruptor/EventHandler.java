@@ -0,0 +1,21 @@
+package org.lucas.disruptor;
+
+/**
+ * 事件处理器，由 {@link BatchEventProcessor} 回调。
+ *
+ * @param <T> 事件类型
+ */
+@FunctionalInterface
+public interface EventHandler<T> {
+
+    /**
+     * 处理一个已发布的事件。
+     *
+     * @param event      事件
+     * @param sequence   事件序号
+     * @param endOfBatch {@code true} 当前批次的最后一个事件，可以在此刷新缓冲（如 socket flush、数据库提交）
+     * @throws Exception 交由 {@link ExceptionHandler} 处理
+     */
+    void onEvent(T event, long sequence, boolean endOfBatch) throws Exception;
+
+}
@@ -0,0 +1,117 @@
+package org.lucas.disruptor;
+
+import java.util.Arrays;
+
+/**
+ * 一组事件处理器，用于在 {@link Disruptor} 中构建消费者依赖关系。
+ *
+ * @param <T> 事件类型
+ */
+public class EventHandlerGroup<T> {
+
+    private final Disruptor<T> disruptor;
+
+    private final ConsumerRepository<T> consumerRepository;
+
+    /**
+     * 组内所有消费者的序列
+     */
+    private final Sequence[] sequences;
+
+    EventHandlerGroup(final Disruptor<T> disruptor, final ConsumerRepository<T> consumerRepository,
+                      final Sequence[] sequences) {
+        this.disruptor = disruptor;
+        this.consumerRepository = consumerRepository;
+        this.sequences = Arrays.copyOf(sequences, sequences.length);
+    }
+
+    /**
+     * 合并两组事件处理器
+     *
+     * @param otherHandlerGroup 另一组事件处理器
+     * @return 合并后的事件处理器组
+     */
+    public EventHandlerGroup<T> and(final EventHandlerGroup<T> otherHandlerGroup) {
+        final Sequence[] combinedSequences = new Sequence[this.sequences.length + otherHandlerGroup.sequences.length];
+        System.arraycopy(this.sequences, 0, combinedSequences, 0, this.sequences.length);
+        System.arraycopy(otherHandlerGroup.sequences, 0, combinedSequences, this.sequences.length,
+                otherHandlerGroup.sequences.length);
+        return new EventHandlerGroup<>(disruptor, consumerRepository, combinedSequences);
+    }
+
+    /**
+     * 合并已创建的事件处理器
+     *
+     * @param processors 事件处理器
+     * @return 合并后的事件处理器组
+     */
+    public EventHandlerGroup<T> and(final EventProcessor... processors) {
+        Sequence[] combinedSequences = new Sequence[sequences.length + processors.length];
+
+        for (int i = 0; i < processors.length; i++) {
+            consumerRepository.add(processors[i]);
+            combinedSequences[i] = processors[i].getSequence();
+        }
+        System.arraycopy(sequences, 0, combinedSequences, processors.length, sequences.length);
+
+        return new EventHandlerGroup<>(disruptor, consumerRepository, combinedSequences);
+    }
+
+    /**
+     * 添加依赖当前组的事件处理器，当前组处理完的事件才会交给它们处理。
+     *
+     * @param handlers 事件处理器
+     * @return 新添加的事件处理器组
+     * @see #handleEventsWith(EventHandler[])
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> then(final EventHandler<? super T>... handlers) {
+        return handleEventsWith(handlers);
+    }
+
+    /**
+     * 添加依赖当前组的竞争消费者池。
+     *
+     * @param handlers 工作处理器
+     * @return 新添加的消费者池
+     * @see #handleEventsWithWorkerPool(WorkHandler[])
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> thenHandleEventsWithWorkerPool(final WorkHandler<? super T>... handlers) {
+        return handleEventsWithWorkerPool(handlers);
+    }
+
+    /**
+     * 添加依赖当前组的事件处理器。
+     *
+     * @param handlers 事件处理器
+     * @return 新添加的事件处理器组
+     */
+    @SafeVarargs
+    // 数组只被读取，不会写入其它类型的元素
+    @SuppressWarnings("varargs")
+    public final EventHandlerGroup<T> handleEventsWith(final EventHandler<? super T>... handlers) {
+        return disruptor.createEventProcessors(sequences, handlers);
+    }
+
+    /**
+     * 添加依赖当前组的竞争消费者池。
+     *
+     * @param handlers 工作处理器
+     * @return 新添加的消费者池
+     */
+    @SafeVarargs
+    // 数组只被读取，不会写入其它类型的元素
+    @SuppressWarnings("varargs")
+    public final EventHandlerGroup<T> handleEventsWithWorkerPool(final WorkHandler<? super T>... handlers) {
+        return disruptor.createWorkerPool(sequences, handlers);
+    }
+
+    /**
+     * @return 依赖当前组的序号屏障
+     */
+    public SequenceBarrier asSequenceBarrier() {
+        return disruptor.getRingBuffer().newBarrier(sequences);
+    }
+
+}
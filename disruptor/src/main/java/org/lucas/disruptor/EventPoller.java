@@ -6,6 +6,42 @@ package org.lucas.disruptor;
  */
 public class EventPoller<T> {
 
+    /**
+     * 事件处理回调
+     *
+     * @param <T> 事件类型
+     */
+    @FunctionalInterface
+    public interface Handler<T> {
+
+        /**
+         * @param event      事件
+         * @param sequence   事件序号
+         * @param endOfBatch {@code true} 本次轮询的最后一个事件
+         * @return {@code true} 继续处理下一个事件，{@code false} 本次轮询到此结束
+         * @throws Exception 异常会抛给 {@link #poll(Handler)} 的调用者，已处理的序号仍会提交
+         */
+        boolean onEvent(T event, long sequence, boolean endOfBatch) throws Exception;
+    }
+
+    /**
+     * 轮询结果
+     */
+    public enum PollState {
+        /**
+         * 处理了至少一个事件
+         */
+        PROCESSING,
+        /**
+         * 生产者已发布新事件，但依赖的上游消费者尚未处理完
+         */
+        GATING,
+        /**
+         * 没有新事件
+         */
+        IDLE
+    }
+
     private final DataProvider<T> dataProvider;
 
     private final Sequencer sequencer;
@@ -22,6 +58,52 @@ public class EventPoller<T> {
         this.gatingSequence = gatingSequence;
     }
 
+    /**
+     * 处理 sequence + 1 到当前可用的最大序号之间的所有事件，处理完后只提交一次序号。
+     * <p>
+     * 不会阻塞，适合在已有的事件循环线程（如 Netty EventLoop）中调用。
+     *
+     * @param eventHandler 事件处理回调
+     * @return 轮询结果
+     * @throws Exception eventHandler 抛出的异常
+     */
+    public PollState poll(final Handler<T> eventHandler) throws Exception {
+        final long currentSequence = sequence.get();
+        long nextSequence = currentSequence + 1;
+        final long availableSequence = sequencer.getHighestPublishedSequence(nextSequence, gatingSequence.get());
+
+        if (nextSequence <= availableSequence) {
+            boolean processNextEvent;
+            long processedSequence = currentSequence;
+
+            try {
+                do {
+                    final T event = dataProvider.get(nextSequence);
+                    processNextEvent = eventHandler.onEvent(event, nextSequence, nextSequence == availableSequence);
+                    processedSequence = nextSequence;
+                    nextSequence++;
+                }
+                while (nextSequence <= availableSequence && processNextEvent);
+            } finally {
+                // 整个批次只写一次消费进度
+                sequence.set(processedSequence);
+            }
+
+            return PollState.PROCESSING;
+        } else if (sequencer.getCursor() >= nextSequence) {
+            return PollState.GATING;
+        } else {
+            return PollState.IDLE;
+        }
+    }
+
+    /**
+     * @return 轮询器的消费进度，需要添加到 {@link RingBuffer} 的门控序列中
+     */
+    public Sequence getSequence() {
+        return sequence;
+    }
+
     /**
      * 创建新的事件轮询器
      *
@@ -29,7 +111,7 @@ public class EventPoller<T> {
      * @param sequencer       序列器
      * @param sequence        序列
      * @param cursorSequence  游标序列
-     * @param gatingSequences
+     * @param gatingSequences 依赖的上游消费者序列，为空时只依赖生产者游标
      * @return 事件轮询器
      */
     public static <T> EventPoller<T> newInstance(final DataProvider<T> dataProvider, final Sequencer sequencer,
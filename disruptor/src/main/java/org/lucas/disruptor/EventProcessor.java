@@ -0,0 +1,23 @@
+package org.lucas.disruptor;
+
+/**
+ * 事件处理器，在独立线程中运行，从 {@link RingBuffer} 中消费事件。
+ */
+public interface EventProcessor extends Runnable {
+
+    /**
+     * @return 处理器的消费进度，生产者和下游消费者以此作为门控序列
+     */
+    Sequence getSequence();
+
+    /**
+     * 通知处理器在处理完当前批次后停止。
+     */
+    void halt();
+
+    /**
+     * @return {@code true} 处理器正在运行
+     */
+    boolean isRunning();
+
+}
@@ -0,0 +1,82 @@
+package org.lucas.disruptor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 单个事件处理器的消费者信息
+ *
+ * @param <T> 事件类型
+ */
+class EventProcessorInfo<T> implements ConsumerInfo {
+
+    private final EventProcessor eventProcessor;
+
+    private final EventHandler<? super T> handler;
+
+    private final SequenceBarrier barrier;
+
+    private boolean endOfChain = true;
+
+    /**
+     * 由启动线程设置，在停止线程中读取
+     */
+    private volatile boolean started;
+
+    EventProcessorInfo(final EventProcessor eventProcessor, final EventHandler<? super T> handler,
+                       final SequenceBarrier barrier) {
+        this.eventProcessor = eventProcessor;
+        this.handler = handler;
+        this.barrier = barrier;
+    }
+
+    public EventProcessor getEventProcessor() {
+        return eventProcessor;
+    }
+
+    @Override
+    public Sequence[] getSequences() {
+        return new Sequence[]{eventProcessor.getSequence()};
+    }
+
+    public EventHandler<? super T> getHandler() {
+        return handler;
+    }
+
+    @Override
+    public SequenceBarrier getBarrier() {
+        return barrier;
+    }
+
+    @Override
+    public boolean isEndOfChain() {
+        return endOfChain;
+    }
+
+    @Override
+    public void start(final Executor executor) {
+        started = true;
+        executor.execute(eventProcessor);
+    }
+
+    @Override
+    public void halt() {
+        started = false;
+        eventProcessor.halt();
+    }
+
+    @Override
+    public void markAsUsedInBarrier() {
+        endOfChain = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return eventProcessor.isRunning();
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+}
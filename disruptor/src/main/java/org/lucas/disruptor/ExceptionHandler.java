@@ -0,0 +1,29 @@
+package org.lucas.disruptor;
+
+/**
+ * 事件处理过程中的异常回调
+ *
+ * @param <T> 事件类型
+ */
+public interface ExceptionHandler<T> {
+
+    /**
+     * 处理事件时出现异常。如果需要停止处理器，可以抛出运行时异常。
+     *
+     * @param ex       异常
+     * @param sequence 出现异常的事件序号
+     * @param event    出现异常的事件
+     */
+    void handleEventException(Throwable ex, long sequence, T event);
+
+    /**
+     * @param ex 处理器启动时出现的异常
+     */
+    void handleOnStartException(Throwable ex);
+
+    /**
+     * @param ex 处理器停止时出现的异常
+     */
+    void handleOnShutdownException(Throwable ex);
+
+}
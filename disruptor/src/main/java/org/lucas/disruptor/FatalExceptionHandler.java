@@ -0,0 +1,23 @@
+package org.lucas.disruptor;
+
+/**
+ * 默认异常处理器，将异常包装成 {@link RuntimeException} 抛出，停止事件处理器。
+ */
+public final class FatalExceptionHandler implements ExceptionHandler<Object> {
+
+    @Override
+    public void handleEventException(final Throwable ex, final long sequence, final Object event) {
+        throw new RuntimeException("处理事件异常, sequence: " + sequence + ", event: " + event, ex);
+    }
+
+    @Override
+    public void handleOnStartException(final Throwable ex) {
+        throw new RuntimeException("处理器启动异常", ex);
+    }
+
+    @Override
+    public void handleOnShutdownException(final Throwable ex) {
+        throw new RuntimeException("处理器停止异常", ex);
+    }
+
+}
@@ -0,0 +1,186 @@
+package org.lucas.disruptor;
+
+/**
+ * 按需增长的环形缓冲区，适用于突发流量远大于平均流量的场景。
+ * <p>
+ * 固定大小的 {@link RingBuffer} 按最大突发量分配会浪费内存，按平均流量分配又会让生产者在突发时阻塞。
+ * 本类由若干个2的幂次方大小的段组成，生产者只在需要时分配新段，直到 segmentSize * maxSegments 的内存上限；
+ * 段内数据被所有门控序列消费后释放，流量回落后内存随之回收。
+ * <p>
+ * 序号、{@link Sequence}、{@link SequenceBarrier} 的语义与 {@link RingBuffer} 相同，
+ * {@link BatchEventProcessor} 等消费者无需修改；固定大小的 {@link RingBuffer} 不受影响。
+ * 读取事件时多一次段表的 volatile 读，对延迟敏感且流量平稳时仍应使用 {@link RingBuffer}。
+ *
+ * @param <E> 事件类型
+ */
+public final class GrowableRingBuffer<E> implements Cursored, EventSequencer<E> {
+
+    private final GrowableSequencer sequencer;
+
+    private GrowableRingBuffer(final GrowableSequencer sequencer) {
+        this.sequencer = sequencer;
+    }
+
+    /**
+     * 创建多生产者的可增长缓冲区
+     *
+     * @param factory      事件工厂
+     * @param segmentSize  每段的插槽数，必须是2的幂次方
+     * @param maxSegments  最多的段数，必须是2的幂次方，决定内存上限
+     * @param waitStrategy 消费者等待策略
+     * @param <E>          事件类型
+     * @return 可增长缓冲区
+     */
+    public static <E> GrowableRingBuffer<E> create(final EventFactory<E> factory, final int segmentSize,
+                                                   final int maxSegments, final WaitStrategy waitStrategy) {
+        return new GrowableRingBuffer<>(new GrowableSequencer(factory, segmentSize, maxSegments, waitStrategy));
+    }
+
+    public static <E> GrowableRingBuffer<E> create(final EventFactory<E> factory, final int segmentSize,
+                                                   final int maxSegments) {
+        return create(factory, segmentSize, maxSegments, new BlockingWaitStrategy());
+    }
+
+    /**
+     * @see RingBuffer#newBarrier(Sequence...)
+     */
+    public SequenceBarrier newBarrier(Sequence... sequencesToTrack) {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+
+    /**
+     * @see RingBuffer#newPoller(Sequence...)
+     */
+    public EventPoller<E> newPoller(Sequence... gatingSequences) {
+        return sequencer.newPoller(this, gatingSequences);
+    }
+
+    /**
+     * 添加门控序列，段内数据被所有门控序列消费后才会释放。
+     *
+     * @param gatingSequences 消费者序列
+     */
+    public void addGatingSequences(Sequence... gatingSequences) {
+        sequencer.addGatingSequences(gatingSequences);
+    }
+
+    public boolean removeGatingSequence(Sequence sequence) {
+        return sequencer.removeGatingSequence(sequence);
+    }
+
+    @Override
+    public long getCursor() {
+        return sequencer.getCursor();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) sequencer.elementAt(sequence);
+    }
+
+    @Override
+    public long next() {
+        return sequencer.next();
+    }
+
+    @Override
+    public long next(int n) {
+        return sequencer.next(n);
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException {
+        return sequencer.tryNext();
+    }
+
+    @Override
+    public long tryNext(int n) throws InsufficientCapacityException {
+        return sequencer.tryNext(n);
+    }
+
+    @Override
+    public void publish(long sequence) {
+        sequencer.publish(sequence);
+    }
+
+    @Override
+    public void publish(long lo, long hi) {
+        sequencer.publish(lo, hi);
+    }
+
+    /**
+     * 申请序号、转换事件并发布
+     *
+     * @param translator 事件转换器
+     */
+    public void publishEvent(EventTranslator<E> translator) {
+        final long sequence = sequencer.next();
+        try {
+            translator.translateTo(get(sequence), sequence);
+        } finally {
+            sequencer.publish(sequence);
+        }
+    }
+
+    /**
+     * 申请序号、转换事件并发布
+     *
+     * @param translator 事件转换器
+     * @param arg0       转换参数
+     * @param <A>        参数类型
+     */
+    public <A> void publishEvent(EventTranslatorOneArg<E, A> translator, A arg0) {
+        final long sequence = sequencer.next();
+        try {
+            translator.translateTo(get(sequence), sequence, arg0);
+        } finally {
+            sequencer.publish(sequence);
+        }
+    }
+
+    /**
+     * @return 最大容量，即内存上限对应的插槽数
+     */
+    @Override
+    public int getBufferSize() {
+        return sequencer.getBufferSize();
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(int requiredCapacity) {
+        return sequencer.hasAvailableCapacity(requiredCapacity);
+    }
+
+    @Override
+    public long remainingCapacity() {
+        return sequencer.remainingCapacity();
+    }
+
+    /**
+     * 立即释放已消费的段。生产者进入新段时会自动释放，流量停止后可以由外部定时调用。
+     *
+     * @return 释放的段数
+     */
+    public int releaseConsumedSegments() {
+        return sequencer.releaseConsumedSegments();
+    }
+
+    /**
+     * @return 当前已分配的段数
+     */
+    public int getSegmentCount() {
+        return sequencer.getSegmentCount();
+    }
+
+    public int getSegmentSize() {
+        return sequencer.getSegmentSize();
+    }
+
+    @Override
+    public String toString() {
+        return "GrowableRingBuffer{" +
+                "sequencer=" + sequencer +
+                '}';
+    }
+}
@@ -0,0 +1,384 @@
+package org.lucas.disruptor;
+
+import org.lucas.disruptor.util.Util;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link GrowableRingBuffer} 的序号生成器，支持多个生产者。
+ * <p>
+ * 逻辑容量为 segmentSize * maxSegments，与 {@link MultiProducerSequencer} 一样通过 CAS 申请序号、
+ * 通过门控序列保证不覆盖未消费的插槽；区别是插槽分成若干段，只有段内有未消费的数据时才占用内存：
+ * <ul>
+ * <li>生产者申请到的序号落在尚未分配的段时才分配该段，容量上限就是内存上限；</li>
+ * <li>段内最新一圈的数据被所有门控序列消费后即可释放，释放在生产者进入新段时顺带进行；</li>
+ * <li>保留一个释放的段作为备用，流量平稳时在两三个段之间轮转，不会反复分配。</li>
+ * </ul>
+ * 每个段记录最近一次写入的段序号（sequence / segmentSize），段序号决定了段所在的槽位，
+ * 生产者与释放线程对它 CAS，避免把正在写入的段释放掉。
+ */
+final class GrowableSequencer extends AbstractSequencer {
+
+    /**
+     * 已释放的段的段序号
+     */
+    private static final long RELEASED = Long.MIN_VALUE;
+
+    private final EventFactory<?> eventFactory;
+
+    private final int segmentSize;
+
+    private final int segmentShift;
+
+    private final int segmentMask;
+
+    private final int indexMask;
+
+    /**
+     * 段表，按段序号取模定位，未分配或已释放时为 {@code null}
+     */
+    private final AtomicReferenceArray<Segment> segments;
+
+    /**
+     * 备用段
+     */
+    private final AtomicReference<Segment> spare = new AtomicReference<>();
+
+    /**
+     * 已分配的段数
+     */
+    private final Sequence segmentCount = new Sequence(0);
+
+    /**
+     * 最慢的门控序列缓存
+     */
+    private final Sequence gatingSequenceCache = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    /**
+     * @param eventFactory 事件工厂，分配新段时调用
+     * @param segmentSize  每段的插槽数，必须是2的幂次方
+     * @param maxSegments  最多的段数，必须是2的幂次方
+     * @param waitStrategy 消费者等待策略
+     */
+    GrowableSequencer(final EventFactory<?> eventFactory, final int segmentSize, final int maxSegments,
+                      final WaitStrategy waitStrategy) {
+        super(checkPowerOfTwo(segmentSize, "segmentSize") * checkPowerOfTwo(maxSegments, "maxSegments"),
+                waitStrategy);
+        this.eventFactory = eventFactory;
+        this.segmentSize = segmentSize;
+        this.segmentShift = Util.log2(segmentSize);
+        this.segmentMask = maxSegments - 1;
+        this.indexMask = segmentSize - 1;
+        this.segments = new AtomicReferenceArray<>(maxSegments);
+        // 第一段预先分配
+        segments.set(0, new Segment(eventFactory, segmentSize, 0L));
+        segmentCount.set(1);
+    }
+
+    /**
+     * @param sequence 序号
+     * @return 序号对应的事件
+     */
+    Object elementAt(final long sequence) {
+        return segments.get((int) (sequence >>> segmentShift) & segmentMask).entries[(int) sequence & indexMask];
+    }
+
+    @Override
+    public void claim(long sequence) {
+        cursor.set(sequence);
+    }
+
+    @Override
+    public boolean isAvailable(long sequence) {
+        final long lap = sequence >>> segmentShift;
+        final Segment segment = segments.get((int) lap & segmentMask);
+        return null != segment
+                && ArrayAccess.getIntVolatile(segment.available, (int) sequence & indexMask) == (int) lap;
+    }
+
+    @Override
+    public long getHighestPublishedSequence(long lowerBound, long availableSequence) {
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+            if (!isAvailable(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return availableSequence;
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(int requiredCapacity) {
+        return hasAvailableCapacity(requiredCapacity, cursor.get());
+    }
+
+    @Override
+    public long remainingCapacity() {
+        long produced = cursor.get();
+        long consumed = Util.getMinimumSequence(gatingSequences, produced);
+        return getBufferSize() - (produced - consumed);
+    }
+
+    @Override
+    public long next() {
+        return next(1);
+    }
+
+    /**
+     * 与 {@link MultiProducerSequencer#next(int)} 相同，申请成功后确保序号所在的段已分配。
+     *
+     * @param n 申请个数
+     * @return 申请到的最大序号
+     */
+    @Override
+    public long next(int n) {
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException("n must be > 0 and < bufferSize");
+        }
+        long current;
+        long next;
+        boolean stalled = false;
+        long stallStart = 0;
+        do {
+            current = cursor.get();
+            next = current + n;
+
+            long wrapPoint = next - bufferSize;
+            long cachedGatingSequence = gatingSequenceCache.get();
+
+            if (wrapPoint > cachedGatingSequence || cachedGatingSequence > current) {
+                long gatingSequence = Util.getMinimumSequence(gatingSequences, current);
+
+                if (wrapPoint > gatingSequence) {
+                    if (!stalled) {
+                        stalled = true;
+                        stallStart = System.nanoTime();
+                    }
+                    // 已达到内存上限，等待消费者释放插槽
+                    LockSupport.parkNanos(1);
+                    continue;
+                }
+                gatingSequenceCache.set(gatingSequence);
+            } else if (cursor.compareAndSet(current, next)) {
+                break;
+            }
+        }
+        while (true);
+
+        if (stalled) {
+            recordStall(stallStart);
+        }
+
+        acquireSegments(current + 1, next);
+        return next;
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException {
+        return tryNext(1);
+    }
+
+    /**
+     * 与 {@link MultiProducerSequencer#tryNext(int)} 相同，申请成功后确保序号所在的段已分配。
+     * <p>
+     * 容量不足时整批失败。需要部分申请时，调用者按 {@link #remainingCapacity()} 缩小 n 后重试，
+     * 与 {@link ClaimHandle#tryClaimUpTo(int)} 的做法一致。
+     *
+     * @param n 申请个数
+     * @return 申请到的最大序号
+     * @throws InsufficientCapacityException 剩余容量不足 n 个
+     */
+    @Override
+    public long tryNext(int n) throws InsufficientCapacityException {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        long current;
+        long next;
+
+        do {
+            current = cursor.get();
+            next = current + n;
+            if (!hasAvailableCapacity(n, current)) {
+                throw InsufficientCapacityException.INSTANCE;
+            }
+        } while (!cursor.compareAndSet(current, next));
+
+        acquireSegments(current + 1, next);
+        return next;
+    }
+
+    @Override
+    public void publish(long sequence) {
+        setAvailable(sequence);
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    @Override
+    public void publish(long lo, long hi) {
+        for (long l = lo; l <= hi; l++) {
+            setAvailable(l);
+        }
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    /**
+     * 释放最新一圈数据已被所有门控序列消费的段
+     *
+     * @return 释放的段数
+     */
+    int releaseConsumedSegments() {
+        final long minimum = Util.getMinimumSequence(gatingSequences, cursor.get());
+        int released = 0;
+        for (int slot = 0, n = segments.length(); slot < n; slot++) {
+            final Segment segment = segments.get(slot);
+            if (null == segment) {
+                continue;
+            }
+            final long lap = segment.lap.get();
+            if (RELEASED == lap || ((lap + 1) << segmentShift) - 1 > minimum) {
+                continue;
+            }
+            if (segment.lap.compareAndSet(lap, RELEASED)) {
+                segments.compareAndSet(slot, segment, null);
+                segmentCount.addAndGet(-1L);
+                spare.compareAndSet(null, segment);
+                released++;
+            }
+        }
+        return released;
+    }
+
+    /**
+     * @return 已分配的段数
+     */
+    int getSegmentCount() {
+        return (int) segmentCount.get();
+    }
+
+    int getSegmentSize() {
+        return segmentSize;
+    }
+
+    private boolean hasAvailableCapacity(final int requiredCapacity, final long cursorValue) {
+        long wrapPoint = (cursorValue + requiredCapacity) - bufferSize;
+        long cachedGatingSequence = gatingSequenceCache.get();
+
+        if (wrapPoint > cachedGatingSequence || cachedGatingSequence > cursorValue) {
+            long minSequence = Util.getMinimumSequence(gatingSequences, cursorValue);
+            gatingSequenceCache.set(minSequence);
+            return wrapPoint <= minSequence;
+        }
+        return true;
+    }
+
+    private void setAvailable(final long sequence) {
+        final long lap = sequence >>> segmentShift;
+        final Segment segment = segments.get((int) lap & segmentMask);
+        ArrayAccess.putOrderedInt(segment.available, (int) sequence & indexMask, (int) lap);
+    }
+
+    /**
+     * 确保 [lo, hi] 所在的段都已分配
+     */
+    private void acquireSegments(final long lo, final long hi) {
+        for (long lap = lo >>> segmentShift, last = hi >>> segmentShift; lap <= last; lap++) {
+            acquire(lap);
+        }
+    }
+
+    /**
+     * 把槽位上的段推进到指定段序号，槽位为空时分配新段。
+     * <p>
+     * 段被释放后可能作为备用段挪到其它槽位，因此推进后需要确认段仍在原槽位上。
+     * 无论是分配新段还是推进已有的段，生产者进入新的一圈时都会释放已消费的段。
+     *
+     * @param lap 段序号
+     */
+    private void acquire(final long lap) {
+        final int slot = (int) lap & segmentMask;
+        for (; ; ) {
+            final Segment segment = segments.get(slot);
+            if (null == segment) {
+                final Segment created = newSegment(lap);
+                if (segments.compareAndSet(slot, null, created)) {
+                    segmentCount.incrementAndGet();
+                    releaseConsumedSegments();
+                    return;
+                }
+                created.lap.set(RELEASED);
+                spare.compareAndSet(null, created);
+                continue;
+            }
+
+            final long current = segment.lap.get();
+            if (RELEASED == current) {
+                segments.compareAndSet(slot, segment, null);
+                continue;
+            }
+            if (((int) current & segmentMask) != slot) {
+                continue;
+            }
+            if (current >= lap) {
+                if (segments.get(slot) == segment) {
+                    return;
+                }
+                continue;
+            }
+            if (segment.lap.compareAndSet(current, lap) && segments.get(slot) == segment) {
+                // 复用已有的段进入新的一圈，同样顺带释放其它已消费的段，否则突发后段数停留在上限
+                releaseConsumedSegments();
+                return;
+            }
+        }
+    }
+
+    private Segment newSegment(final long lap) {
+        final Segment segment = spare.getAndSet(null);
+        if (null == segment) {
+            return new Segment(eventFactory, segmentSize, lap);
+        }
+        segment.lap.set(lap);
+        return segment;
+    }
+
+    private static int checkPowerOfTwo(final int value, final String name) {
+        if (value < 1 || Integer.bitCount(value) != 1) {
+            throw new IllegalArgumentException(name + " must be a power of 2");
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "GrowableSequencer{" +
+                "segmentSize=" + segmentSize +
+                ", maxSegments=" + segments.length() +
+                ", segmentCount=" + segmentCount +
+                ", cursor=" + cursor +
+                '}';
+    }
+
+    /**
+     * 段：事件、每个插槽发布时的段序号，以及最近一次写入的段序号
+     */
+    private static final class Segment {
+
+        private final Object[] entries;
+
+        private final int[] available;
+
+        private final Sequence lap;
+
+        private Segment(final EventFactory<?> eventFactory, final int size, final long lap) {
+            this.entries = new Object[size];
+            this.available = new int[size];
+            for (int i = 0; i < size; i++) {
+                entries[i] = eventFactory.newInstance();
+                available[i] = -1;
+            }
+            this.lap = new Sequence(lap);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.lucas.disruptor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 以2的幂次方为桶边界的直方图，只允许一个线程写入，任意线程读取。
+ * <p>
+ * 第 i 个桶记录 [2^(i-1), 2^i - 1] 范围内的值，第 0 个桶记录 0。
+ * 写入只有一次有序写，不需要锁和 CAS，数组前后填充避免与其它直方图共享缓存行。
+ */
+public final class Histogram {
+
+    /**
+     * 桶的个数，覆盖所有非负的 long 值
+     */
+    public static final int BUCKETS = 64;
+
+    /**
+     * 数组前后填充的个数（128 字节）
+     */
+    private static final int PAD = 16;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS + 2 * PAD);
+
+    /**
+     * 记录一个值，只能由一个线程调用。
+     *
+     * @param value 非负值，负数记为 0
+     */
+    public void record(final long value) {
+        final int index = PAD + bucketFor(value);
+        // 单线程写入，有序写即可
+        buckets.lazySet(index, buckets.get(index) + 1);
+    }
+
+    /**
+     * @return 每个桶的计数快照
+     */
+    public long[] getBuckets() {
+        final long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(PAD + i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return 记录的值的个数
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += buckets.get(PAD + i);
+        }
+        return count;
+    }
+
+    /**
+     * @param percentile 百分位，如 99.9
+     * @return 该百分位所在桶的上界，没有记录时返回 0
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long[] snapshot = getBuckets();
+        long count = 0;
+        for (long bucket : snapshot) {
+            count += bucket;
+        }
+        if (0 == count) {
+            return 0;
+        }
+
+        final long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return upperBound(i);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * @param value 值
+     * @return 值所在的桶
+     */
+    static int bucketFor(final long value) {
+        return value <= 0 ? 0 : Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(value));
+    }
+
+    /**
+     * @param bucket 桶下标
+     * @return 桶的上界
+     */
+    static long upperBound(final int bucket) {
+        return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+}
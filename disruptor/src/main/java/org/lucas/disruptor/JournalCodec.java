@@ -0,0 +1,28 @@
+package org.lucas.disruptor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 事件与日志二进制格式之间的转换
+ *
+ * @param <T> 事件类型
+ */
+public interface JournalCodec<T> {
+
+    /**
+     * 将事件写入 dst，从 dst 当前位置开始写。
+     *
+     * @param event 事件
+     * @param dst   目标缓冲区，剩余空间为单条记录的最大长度
+     */
+    void encode(T event, ByteBuffer dst);
+
+    /**
+     * 从 src 的 position 到 limit 之间读取事件内容，写入预分配的事件。
+     *
+     * @param src   日志中的记录内容
+     * @param event 预分配的事件
+     */
+    void decode(ByteBuffer src, T event);
+
+}
@@ -0,0 +1,287 @@
+package org.lucas.disruptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 将事件追加到预分配的内存映射日志段中的事件处理器。
+ * <p>
+ * 每个批次结束（endOfBatch）时调用一次 {@link MappedByteBuffer#force()}，
+ * 该处理器的 {@link Sequence} 在批次处理完后才更新，
+ * 所以依赖它的业务处理器只会看到已持久化的事件：
+ * <pre><code>
+ * disruptor.handleEventsWith(journalHandler).then(businessHandler);
+ * </code></pre>
+ * 记录格式为 {@code [int length + 1][long journalSequence][payload]}，长度字段为 0 表示段中后续没有数据，
+ * 因此内容可以为空。段写满后创建新段（roll）。
+ * <p>
+ * journalSequence 是日志序号而不是 {@link RingBuffer} 的序号：重启后 RingBuffer 从 0 开始，
+ * 日志序号则在 {@link #onStart()} 时从已有日志段中恢复，接着上一次的最大值递增，
+ * 日志段文件名为段中第一条记录的日志序号，因此重启前后的日志段不会重名，已有的日志段也不会被截断。
+ * {@link JournalReplayer} 按日志序号重放。
+ *
+ * @param <T> 事件类型
+ */
+public final class JournalEventHandler<T> implements EventHandler<T>, LifecycleAware {
+
+    /**
+     * 日志段文件后缀
+     */
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * 记录头长度：length + sequence
+     */
+    static final int RECORD_HEADER_LENGTH = 12;
+
+    private final File directory;
+
+    private final int segmentSize;
+
+    private final JournalCodec<T> codec;
+
+    /**
+     * 编码用的缓冲区，编码完成后再复制到日志段中
+     */
+    private final ByteBuffer scratch;
+
+    private RandomAccessFile segmentFile;
+
+    private MappedByteBuffer segment;
+
+    /**
+     * 下一条记录的日志序号
+     */
+    private long nextJournalSequence;
+
+    /**
+     * 当前批次中是否有未 force 的数据
+     */
+    private boolean dirty;
+
+    private long pendingWriteTimeNanos;
+    private long pendingBytes;
+    private long pendingEvents;
+
+    private volatile long writeTimeNanos;
+    private volatile long bytesWritten;
+    private volatile long eventsWritten;
+    private volatile long segmentRolls;
+    private volatile long forces;
+
+    /**
+     * @param directory       日志目录
+     * @param segmentSize     每个日志段的字节数，创建时预分配
+     * @param maxRecordLength 单条记录内容的最大字节数
+     * @param codec           事件编码
+     */
+    public JournalEventHandler(final File directory, final int segmentSize, final int maxRecordLength,
+                               final JournalCodec<T> codec) {
+        if (maxRecordLength + RECORD_HEADER_LENGTH * 2 > segmentSize) {
+            throw new IllegalArgumentException("segmentSize " + segmentSize + " cannot hold a record of " +
+                    maxRecordLength + " bytes");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.codec = codec;
+        this.scratch = ByteBuffer.allocate(maxRecordLength);
+    }
+
+    /**
+     * 创建日志目录，并从最后一个日志段恢复下一条记录的日志序号
+     */
+    @Override
+    public void onStart() {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new UncheckedIOException(new IOException("Failed to create journal directory: " + directory));
+        }
+        try {
+            nextJournalSequence = recoverNextJournalSequence(directory);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onEvent(final T event, final long sequence, final boolean endOfBatch) throws IOException {
+        final long start = System.nanoTime();
+
+        scratch.clear();
+        codec.encode(event, scratch);
+        scratch.flip();
+        final int length = scratch.remaining();
+
+        // 保留一个记录头的空间写入结束标记
+        if (null == segment || segment.remaining() < length + RECORD_HEADER_LENGTH * 2) {
+            roll(nextJournalSequence);
+        }
+
+        segment.putInt(length + 1);
+        segment.putLong(nextJournalSequence++);
+        segment.put(scratch);
+        dirty = true;
+
+        pendingBytes += length + RECORD_HEADER_LENGTH;
+        pendingEvents++;
+
+        if (endOfBatch) {
+            force();
+        }
+        pendingWriteTimeNanos += System.nanoTime() - start;
+
+        if (endOfBatch) {
+            publishMetrics();
+        }
+    }
+
+    @Override
+    public void onShutdown() {
+        try {
+            force();
+            publishMetrics();
+            closeSegment();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 关闭当前日志段，创建以 firstJournalSequence 命名的新日志段。
+     * <p>
+     * 同名文件只可能是上次创建后还没写入任何记录的日志段，直接沿用，不截断。
+     *
+     * @param firstJournalSequence 新日志段的第一条记录的日志序号
+     */
+    private void roll(final long firstJournalSequence) throws IOException {
+        if (null != segment) {
+            force();
+            closeSegment();
+            segmentRolls = segmentRolls + 1;
+        }
+
+        final File file = new File(directory, segmentName(firstJournalSequence));
+        segmentFile = new RandomAccessFile(file, "rw");
+        // 预分配整个日志段，未写入的部分为 0
+        if (segmentFile.length() < segmentSize) {
+            segmentFile.setLength(segmentSize);
+        }
+        segment = segmentFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private void force() {
+        if (dirty) {
+            segment.force();
+            dirty = false;
+            forces = forces + 1;
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (null != segmentFile) {
+            segmentFile.close();
+            segmentFile = null;
+            segment = null;
+        }
+    }
+
+    /**
+     * 每个批次发布一次统计数据，避免每个事件都做 volatile 写。
+     */
+    private void publishMetrics() {
+        writeTimeNanos = writeTimeNanos + pendingWriteTimeNanos;
+        bytesWritten = bytesWritten + pendingBytes;
+        eventsWritten = eventsWritten + pendingEvents;
+        pendingWriteTimeNanos = 0;
+        pendingBytes = 0;
+        pendingEvents = 0;
+    }
+
+    static String segmentName(final long firstJournalSequence) {
+        return String.format("%020d", firstJournalSequence) + SEGMENT_SUFFIX;
+    }
+
+    /**
+     * @param directory 日志目录
+     * @return 最后一个日志段中最后一条记录的下一个日志序号，没有日志段时为 0
+     */
+    static long recoverNextJournalSequence(final File directory) throws IOException {
+        final File[] segments = JournalReplayer.segments(directory);
+        if (0 == segments.length) {
+            return 0L;
+        }
+        final File last = segments[segments.length - 1];
+        long next = JournalReplayer.firstSequence(last);
+        try (RandomAccessFile segmentFile = new RandomAccessFile(last, "r")) {
+            final MappedByteBuffer segment =
+                    segmentFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, segmentFile.length());
+            while (segment.remaining() >= RECORD_HEADER_LENGTH) {
+                final int length = segment.getInt() - 1;
+                if (length < 0 || length > segment.remaining() - 8) {
+                    break;
+                }
+                next = segment.getLong() + 1L;
+                segment.position(segment.position() + length);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * @return 下一条记录的日志序号
+     */
+    public long getNextJournalSequence() {
+        return nextJournalSequence;
+    }
+
+    /**
+     * @return 写入日志（包含 force）累计耗时的纳秒数
+     */
+    public long getWriteTimeNanos() {
+        return writeTimeNanos;
+    }
+
+    /**
+     * @return 累计写入的字节数，包含记录头
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return 累计写入的事件数
+     */
+    public long getEventsWritten() {
+        return eventsWritten;
+    }
+
+    /**
+     * @return 日志段写满后创建新段的次数
+     */
+    public long getSegmentRolls() {
+        return segmentRolls;
+    }
+
+    /**
+     * @return 调用 force 的次数
+     */
+    public long getForces() {
+        return forces;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalEventHandler{" +
+                "directory=" + directory +
+                ", segmentSize=" + segmentSize +
+                ", eventsWritten=" + eventsWritten +
+                ", bytesWritten=" + bytesWritten +
+                ", segmentRolls=" + segmentRolls +
+                '}';
+    }
+
+}
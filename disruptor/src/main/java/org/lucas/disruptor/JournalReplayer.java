@@ -0,0 +1,119 @@
+package org.lucas.disruptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * 重放 {@link JournalEventHandler} 写入的日志，将指定日志序号范围内的事件重新发布到 {@link RingBuffer}。
+ * <p>
+ * 日志序号在重启前后连续递增，与 RingBuffer 的序号无关。
+ * 重放时 JournalEventHandler 如果也在处理链上，重放的事件会作为新记录再次写入日志。
+ *
+ * @param <T> 事件类型
+ */
+public final class JournalReplayer<T> {
+
+    private final File directory;
+
+    private final JournalCodec<T> codec;
+
+    /**
+     * 解码事件的转换器，参数为定位好 position 和 limit 的记录内容
+     */
+    private final EventTranslatorOneArg<T, ByteBuffer> translator;
+
+    /**
+     * @param directory 日志目录
+     * @param codec     事件编码，与写入时相同
+     */
+    public JournalReplayer(final File directory, final JournalCodec<T> codec) {
+        this.directory = directory;
+        this.codec = codec;
+        this.translator = (event, sequence, record) -> this.codec.decode(record, event);
+    }
+
+    /**
+     * 按日志序号顺序重放 [fromSequence, toSequence] 范围内的事件。
+     *
+     * @param fromSequence 起始日志序号（包含）
+     * @param toSequence   结束日志序号（包含）
+     * @param ringBuffer   重新发布的目标
+     * @return 重放的事件数
+     * @throws IOException 读取日志失败
+     */
+    public long replay(final long fromSequence, final long toSequence, final RingBuffer<T> ringBuffer)
+            throws IOException {
+        final File[] segments = segments(directory);
+        long replayed = 0;
+
+        for (int i = 0; i < segments.length; i++) {
+            // 下一个段的第一个序号不大于 fromSequence 时，当前段中没有需要重放的事件
+            if (i + 1 < segments.length && firstSequence(segments[i + 1]) <= fromSequence) {
+                continue;
+            }
+            if (firstSequence(segments[i]) > toSequence) {
+                break;
+            }
+            replayed += replaySegment(segments[i], fromSequence, toSequence, ringBuffer);
+        }
+
+        return replayed;
+    }
+
+    private long replaySegment(final File file, final long fromSequence, final long toSequence,
+                               final RingBuffer<T> ringBuffer) throws IOException {
+        long replayed = 0;
+        try (RandomAccessFile segmentFile = new RandomAccessFile(file, "r")) {
+            final MappedByteBuffer segment =
+                    segmentFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, segmentFile.length());
+            final ByteBuffer record = segment.duplicate();
+
+            while (segment.remaining() >= JournalEventHandler.RECORD_HEADER_LENGTH) {
+                // 长度字段为内容长度 + 1，0 表示段中后续没有数据
+                final int length = segment.getInt() - 1;
+                if (length < 0) {
+                    break;
+                }
+                final long sequence = segment.getLong();
+                final int position = segment.position();
+                segment.position(position + length);
+
+                if (sequence < fromSequence) {
+                    continue;
+                }
+                if (sequence > toSequence) {
+                    break;
+                }
+
+                record.limit(position + length).position(position);
+                ringBuffer.publishEvent(translator, record);
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * @param directory 日志目录
+     * @return 按第一个日志序号排序的日志段
+     */
+    static File[] segments(final File directory) {
+        final File[] segments = directory.listFiles((dir, name) -> name.endsWith(JournalEventHandler.SEGMENT_SUFFIX));
+        if (null == segments) {
+            return new File[0];
+        }
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    static long firstSequence(final File segment) {
+        final String name = segment.getName();
+        return Long.parseLong(name.substring(0, name.length() - JournalEventHandler.SEGMENT_SUFFIX.length()));
+    }
+
+}
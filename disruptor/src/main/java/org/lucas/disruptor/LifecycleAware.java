@@ -0,0 +1,18 @@
+package org.lucas.disruptor;
+
+/**
+ * {@link EventHandler} 实现该接口后，可以在处理器线程启动和停止时收到通知。
+ */
+public interface LifecycleAware {
+
+    /**
+     * 处理器线程处理第一个事件之前调用。
+     */
+    void onStart();
+
+    /**
+     * 处理器线程停止之前调用。
+     */
+    void onShutdown();
+
+}
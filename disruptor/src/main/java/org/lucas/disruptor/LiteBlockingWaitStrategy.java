@@ -0,0 +1,95 @@
+package org.lucas.disruptor;
+
+import org.lucas.disruptor.util.ThreadHints;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 轻量级阻塞等待策略。
+ * <p>
+ * 与 {@link BlockingWaitStrategy} 相同，但通过 {@link #signalNeeded} 记录是否有消费者在等待，
+ * 没有消费者等待时，生产者发布事件不需要获取锁。
+ */
+public final class LiteBlockingWaitStrategy implements WaitStrategy {
+
+    private final Object mutex = new Object();
+
+    /**
+     * 是否有消费者需要唤醒
+     */
+    private final AtomicBoolean signalNeeded = new AtomicBoolean(false);
+
+    @Override
+    public long waitFor(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier)
+            throws AlertException, InterruptedException {
+        long availableSequence;
+        if (cursorSequence.get() < sequence) {
+            synchronized (mutex) {
+                do {
+                    // 先设置标记再检查游标，避免错过生产者的唤醒
+                    signalNeeded.getAndSet(true);
+
+                    if (cursorSequence.get() >= sequence) {
+                        break;
+                    }
+
+                    barrier.checkAlert();
+                    mutex.wait();
+                }
+                while (cursorSequence.get() < sequence);
+            }
+        }
+
+        while ((availableSequence = dependentSequence.get()) < sequence) {
+            barrier.checkAlert();
+            ThreadHints.onSpinWait();
+        }
+
+        return availableSequence;
+    }
+
+    @Override
+    public long waitFor(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier,
+                        long timeoutNanos) throws AlertException, InterruptedException, TimeoutException {
+        final long deadline = System.nanoTime() + timeoutNanos;
+        if (cursorSequence.get() < sequence) {
+            synchronized (mutex) {
+                do {
+                    signalNeeded.getAndSet(true);
+
+                    if (cursorSequence.get() >= sequence) {
+                        break;
+                    }
+
+                    barrier.checkAlert();
+                    if (timeoutNanos <= 0) {
+                        throw TimeoutException.INSTANCE;
+                    }
+                    timeoutNanos = TimeoutBlockingWaitStrategy.awaitNanos(mutex, timeoutNanos);
+                }
+                while (cursorSequence.get() < sequence);
+            }
+        }
+
+        // 依赖的上游消费者落后时同样受超时约束
+        return TimeoutBlockingWaitStrategy.spinUntil(sequence, dependentSequence, barrier, deadline);
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        if (signalNeeded.getAndSet(false)) {
+            synchronized (mutex) {
+                mutex.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LiteBlockingWaitStrategy{" +
+                "mutex=" + mutex +
+                ", signalNeeded=" + signalNeeded +
+                '}';
+    }
+
+}
@@ -0,0 +1,190 @@
+package org.lucas.disruptor;
+
+/**
+ * 保存 {@code long} 值的环形缓冲区，适用于计数、ID、时间戳等数据。
+ * <p>
+ * 值保存在前后填充过的 {@code long[]} 中，发布和读取没有装箱和对象分配。
+ * 写入值之后通过 {@link Sequencer#publish(long, long)} 的有序写保证消费者可见。
+ */
+public final class LongRingBuffer extends AbstractPrimitiveRingBuffer {
+
+    private static final int BUFFER_PAD = PAD_BYTES / Long.BYTES;
+
+    private final long[] values;
+
+    /**
+     * 缓存行右填充.
+     */
+    protected long p1, p2, p3, p4, p5, p6, p7;
+
+    LongRingBuffer(final Sequencer sequencer) {
+        super(sequencer);
+        this.values = new long[bufferSize + 2 * BUFFER_PAD];
+    }
+
+    public static LongRingBuffer createSingleProducer(int bufferSize, WaitStrategy waitStrategy) {
+        return new LongRingBuffer(new SingleProducerSequencer(bufferSize, waitStrategy));
+    }
+
+    public static LongRingBuffer createSingleProducer(int bufferSize) {
+        return createSingleProducer(bufferSize, new BlockingWaitStrategy());
+    }
+
+    public static LongRingBuffer createMultiProducer(int bufferSize, WaitStrategy waitStrategy) {
+        return new LongRingBuffer(new MultiProducerSequencer(bufferSize, waitStrategy));
+    }
+
+    public static LongRingBuffer createMultiProducer(int bufferSize) {
+        return createMultiProducer(bufferSize, new BlockingWaitStrategy());
+    }
+
+    /**
+     * @param sequence 序号
+     * @return 序号对应槽中的值
+     */
+    public long get(long sequence) {
+        return values[BUFFER_PAD + ((int) sequence & indexMask)];
+    }
+
+    /**
+     * 写入已申请序号对应的槽，调用 {@link #publish(long)} 后消费者可见。
+     *
+     * @param sequence 已申请的序号
+     * @param value    值
+     */
+    public void set(long sequence, long value) {
+        values[BUFFER_PAD + ((int) sequence & indexMask)] = value;
+    }
+
+    /**
+     * 发布一个值，缓冲区已满时等待。
+     *
+     * @param value 值
+     */
+    public void publishValue(long value) {
+        final long sequence = sequencer.next();
+        set(sequence, value);
+        sequencer.publish(sequence);
+    }
+
+    /**
+     * 发布一个值，缓冲区已满时不等待。
+     *
+     * @param value 值
+     * @return {@code true} 发布成功
+     */
+    public boolean tryPublishValue(long value) {
+        try {
+            final long sequence = sequencer.tryNext();
+            set(sequence, value);
+            sequencer.publish(sequence);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 一次申请 length 个序号，复制数组后一次发布整个范围。
+     *
+     * @param src    源数组
+     * @param offset 起始下标
+     * @param length 发布个数，不能超过缓冲区大小
+     */
+    public void publishValues(long[] src, int offset, int length) {
+        checkBounds(src.length, offset, length);
+        final long hi = sequencer.next(length);
+        copyAndPublish(src, offset, length, hi);
+    }
+
+    /**
+     * 一次申请 length 个序号，缓冲区容量不足时不等待。
+     *
+     * @param src    源数组
+     * @param offset 起始下标
+     * @param length 发布个数
+     * @return {@code true} 发布成功
+     */
+    public boolean tryPublishValues(long[] src, int offset, int length) {
+        checkBounds(src.length, offset, length);
+        try {
+            final long hi = sequencer.tryNext(length);
+            copyAndPublish(src, offset, length, hi);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 非阻塞地读取 sequence 之后已发布的值，读取完后只更新一次 sequence。
+     *
+     * @param sequence 消费者序列，需要添加到门控序列中
+     * @param dst      目标数组
+     * @param offset   起始下标
+     * @param maxCount 最多读取的个数
+     * @return 读取的个数
+     */
+    public int drainTo(Sequence sequence, long[] dst, int offset, int maxCount) {
+        checkBounds(dst.length, offset, maxCount);
+        return copyTo(sequence, availableSequence(sequence, maxCount), dst, offset);
+    }
+
+    /**
+     * 阻塞等待 sequence 之后至少一个值可读，读取完后只更新一次 sequence。
+     *
+     * @param barrier  序号屏障
+     * @param sequence 消费者序列，需要添加到门控序列中
+     * @param dst      目标数组
+     * @param offset   起始下标
+     * @param maxCount 最多读取的个数
+     * @return 读取的个数
+     */
+    public int drainTo(SequenceBarrier barrier, Sequence sequence, long[] dst, int offset, int maxCount)
+            throws AlertException, InterruptedException, TimeoutException {
+        checkBounds(dst.length, offset, maxCount);
+        return copyTo(sequence, waitForSequence(barrier, sequence, maxCount), dst, offset);
+    }
+
+    private void copyAndPublish(long[] src, int offset, int length, long hi) {
+        final long lo = hi - (length - 1);
+        try {
+            copyIn(src, offset, length, lo);
+        } finally {
+            sequencer.publish(lo, hi);
+        }
+    }
+
+    /**
+     * 按环形分两段复制，每段一次 {@link System#arraycopy}
+     */
+    private void copyIn(long[] src, int offset, int length, long lo) {
+        final int index = (int) lo & indexMask;
+        final int first = Math.min(length, bufferSize - index);
+        System.arraycopy(src, offset, values, BUFFER_PAD + index, first);
+        System.arraycopy(src, offset + first, values, BUFFER_PAD, length - first);
+    }
+
+    private int copyTo(Sequence sequence, long available, long[] dst, int offset) {
+        final long lo = sequence.get() + 1L;
+        if (available < lo) {
+            return 0;
+        }
+        final int length = (int) (available - lo + 1L);
+        final int index = (int) lo & indexMask;
+        final int first = Math.min(length, bufferSize - index);
+        System.arraycopy(values, BUFFER_PAD + index, dst, offset, first);
+        System.arraycopy(values, BUFFER_PAD, dst, offset + first, length - first);
+        sequence.set(available);
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return "LongRingBuffer{" +
+                "bufferSize=" + bufferSize +
+                ", sequencer=" + sequencer +
+                '}';
+    }
+
+}
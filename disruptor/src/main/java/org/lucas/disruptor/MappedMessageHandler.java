@@ -0,0 +1,21 @@
+package org.lucas.disruptor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link MappedRingBuffer} 的消息回调
+ */
+@FunctionalInterface
+public interface MappedMessageHandler {
+
+    /**
+     * 处理一条消息。buffer 在回调返回后会被清零复用，需要保留的数据必须在回调中复制出来。
+     *
+     * @param msgTypeId 消息类型，由生产者指定
+     * @param buffer    映射内存的只读视图，使用绝对下标读取
+     * @param index     消息内容在 buffer 中的起始下标
+     * @param length    消息内容的字节数
+     */
+    void onMessage(int msgTypeId, ByteBuffer buffer, int index, int length);
+
+}
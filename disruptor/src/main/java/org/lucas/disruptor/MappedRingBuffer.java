@@ -0,0 +1,384 @@
+package org.lucas.disruptor;
+
+import org.lucas.disruptor.util.Util;
+import sun.misc.Unsafe;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 基于内存映射文件的多生产者、单消费者环形缓冲区，用于进程间传递变长的二进制消息。
+ * <p>
+ * 文件放在 {@code /dev/shm} 等内存文件系统中时，生产者进程和消费者进程通过共享内存交换数据，
+ * 不需要 socket 和序列化。文件布局（所有计数器各占一个 128 字节的区域，避免伪共享）：
+ * <pre>
+ *   0: int  魔数
+ *   4: int  数据区容量（2的幂次方）
+ * 128: long tail，生产者通过 CAS 申请空间
+ * 256: long headCache，生产者缓存的 head
+ * 384: long head，消费者的读取位置
+ * 512: 数据区
+ * </pre>
+ * 每条记录按 8 字节对齐，格式为 {@code [int length][int msgTypeId][payload]}。
+ * 生产者先以负数写入 length 占位，写完内容后以有序写入正数的 length 提交；
+ * 消费者读到正数的 length 才处理该记录，处理完后将内存清零并以有序写更新 head。
+ * 数据区末尾不足以容纳一条记录时，写入一条 {@link #PADDING_MSG_TYPE_ID} 记录跳到开头。
+ */
+public final class MappedRingBuffer implements Closeable {
+
+    private static final Unsafe UNSAFE = Util.getUnsafe();
+
+    private static final long BYTE_ARRAY_BASE = UNSAFE.arrayBaseOffset(byte[].class);
+
+    /**
+     * {@link Buffer} 中 address 字段的偏移量，用于获取映射内存的起始地址
+     */
+    private static final long BUFFER_ADDRESS_OFFSET;
+
+    static {
+        try {
+            BUFFER_ADDRESS_OFFSET = UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (final Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final int MAGIC = 0x4C524231;
+
+    /**
+     * 计数器之间的间隔，与 {@link Sequence} 的填充大小一致
+     */
+    private static final int PAD = 128;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int TAIL_OFFSET = PAD;
+    private static final int HEAD_CACHE_OFFSET = TAIL_OFFSET + PAD;
+    private static final int HEAD_OFFSET = HEAD_CACHE_OFFSET + PAD;
+
+    /**
+     * 文件头长度，数据区从此处开始
+     */
+    public static final int HEADER_LENGTH = HEAD_OFFSET + PAD;
+
+    /**
+     * 记录头长度：length + msgTypeId
+     */
+    public static final int RECORD_HEADER_LENGTH = 8;
+
+    /**
+     * 记录对齐的字节数
+     */
+    public static final int ALIGNMENT = 8;
+
+    /**
+     * 填充记录的消息类型，不会交给 {@link MappedMessageHandler}
+     */
+    public static final int PADDING_MSG_TYPE_ID = -1;
+
+    private final RandomAccessFile file;
+
+    private final MappedByteBuffer mappedBuffer;
+
+    /**
+     * 交给消息回调的只读视图
+     */
+    private final ByteBuffer readView;
+
+    /**
+     * 映射内存的起始地址
+     */
+    private final long address;
+
+    private final long dataAddress;
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final int maxMessageLength;
+
+    private MappedRingBuffer(final RandomAccessFile file, final MappedByteBuffer mappedBuffer, final int capacity) {
+        this.file = file;
+        this.mappedBuffer = mappedBuffer;
+        this.mappedBuffer.order(ByteOrder.nativeOrder());
+        this.readView = mappedBuffer.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+        this.address = UNSAFE.getLong(mappedBuffer, BUFFER_ADDRESS_OFFSET);
+        this.dataAddress = address + HEADER_LENGTH;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.maxMessageLength = capacity / 8;
+    }
+
+    /**
+     * 创建（或覆盖）映射文件并初始化文件头，通常由消费者进程调用。
+     *
+     * @param path     文件路径，如 {@code /dev/shm/sidecar.ring}
+     * @param capacity 数据区容量，必须是2的幂次方
+     * @return 环形缓冲区
+     * @throws IOException 文件创建或映射失败
+     */
+    public static MappedRingBuffer create(final File path, final int capacity) throws IOException {
+        if (capacity < PAD || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of 2 and not less than " + PAD);
+        }
+        final RandomAccessFile file = new RandomAccessFile(path, "rw");
+        try {
+            file.setLength(0);
+            file.setLength((long) HEADER_LENGTH + capacity);
+            final MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_LENGTH + capacity);
+            final MappedRingBuffer ringBuffer = new MappedRingBuffer(file, buffer, capacity);
+            ringBuffer.initialise();
+            return ringBuffer;
+        } catch (final IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 映射已创建的文件，通常由生产者进程调用。
+     *
+     * @param path 文件路径
+     * @return 环形缓冲区
+     * @throws IOException 文件不存在、格式不正确或映射失败
+     */
+    public static MappedRingBuffer open(final File path) throws IOException {
+        final RandomAccessFile file = new RandomAccessFile(path, "rw");
+        try {
+            final long length = file.length();
+            if (length <= HEADER_LENGTH) {
+                throw new IOException("Not a mapped ring buffer: " + path);
+            }
+            final MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.order(ByteOrder.nativeOrder());
+            final int capacity = buffer.getInt(CAPACITY_OFFSET);
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC || (long) HEADER_LENGTH + capacity != length) {
+                throw new IOException("Not a mapped ring buffer: " + path);
+            }
+            return new MappedRingBuffer(file, buffer, capacity);
+        } catch (final IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private void initialise() {
+        UNSAFE.setMemory(address, HEADER_LENGTH + (long) capacity, (byte) 0);
+        UNSAFE.putInt(address + CAPACITY_OFFSET, capacity);
+        // 最后写入魔数，其它进程看到魔数时文件头已初始化
+        UNSAFE.putOrderedInt(null, address + MAGIC_OFFSET, MAGIC);
+    }
+
+    /**
+     * 写入一条消息，容量不足时不等待。
+     *
+     * @param msgTypeId 消息类型，必须大于等于 0
+     * @param src       消息内容
+     * @param offset    起始下标
+     * @param length    消息长度，不能超过 {@link #maxMessageLength()}
+     * @return {@code true} 写入成功，{@code false} 容量不足
+     */
+    public boolean write(final int msgTypeId, final byte[] src, final int offset, final int length) {
+        if (msgTypeId < 0) {
+            throw new IllegalArgumentException("msgTypeId must be >= 0: " + msgTypeId);
+        }
+        if (offset < 0 || length < 0 || offset + length > src.length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length);
+        }
+        if (length > maxMessageLength) {
+            throw new IllegalArgumentException("message length " + length + " exceeds " + maxMessageLength);
+        }
+
+        final int recordLength = length + RECORD_HEADER_LENGTH;
+        final int recordIndex = claimCapacity(align(recordLength));
+        if (recordIndex < 0) {
+            return false;
+        }
+
+        final long recordAddress = dataAddress + recordIndex;
+        UNSAFE.putOrderedInt(null, recordAddress, -recordLength);
+        UNSAFE.putInt(recordAddress + 4, msgTypeId);
+        UNSAFE.copyMemory(src, BYTE_ARRAY_BASE + offset, null, recordAddress + RECORD_HEADER_LENGTH, length);
+        // 有序写入正数的长度，提交该记录
+        UNSAFE.putOrderedInt(null, recordAddress, recordLength);
+
+        return true;
+    }
+
+    /**
+     * 通过 CAS 修改 tail 申请空间，必要时先写入填充记录。
+     *
+     * @param required 对齐后的记录长度
+     * @return 记录在数据区中的下标，-1 表示容量不足
+     */
+    private int claimCapacity(final int required) {
+        final long tailAddress = address + TAIL_OFFSET;
+        final long headCacheAddress = address + HEAD_CACHE_OFFSET;
+        final long headAddress = address + HEAD_OFFSET;
+
+        long head = UNSAFE.getLongVolatile(null, headCacheAddress);
+        long tail;
+        int tailIndex;
+        int padding;
+
+        do {
+            tail = UNSAFE.getLongVolatile(null, tailAddress);
+            final int available = capacity - (int) (tail - head);
+
+            if (required > available) {
+                head = UNSAFE.getLongVolatile(null, headAddress);
+                if (required > capacity - (int) (tail - head)) {
+                    return -1;
+                }
+                UNSAFE.putOrderedLong(null, headCacheAddress, head);
+            }
+
+            padding = 0;
+            tailIndex = (int) tail & mask;
+            final int toBufferEnd = capacity - tailIndex;
+
+            if (required > toBufferEnd) {
+                // 末尾放不下，需要填充到末尾后从开头写入
+                int headIndex = (int) head & mask;
+                if (required > headIndex) {
+                    head = UNSAFE.getLongVolatile(null, headAddress);
+                    headIndex = (int) head & mask;
+                    if (required > headIndex) {
+                        return -1;
+                    }
+                    UNSAFE.putOrderedLong(null, headCacheAddress, head);
+                }
+                padding = toBufferEnd;
+            }
+        }
+        while (!UNSAFE.compareAndSwapLong(null, tailAddress, tail, tail + required + padding));
+
+        if (0 != padding) {
+            final long paddingAddress = dataAddress + tailIndex;
+            UNSAFE.putOrderedInt(null, paddingAddress, -padding);
+            UNSAFE.putInt(paddingAddress + 4, PADDING_MSG_TYPE_ID);
+            UNSAFE.putOrderedInt(null, paddingAddress, padding);
+            tailIndex = 0;
+        }
+
+        return tailIndex;
+    }
+
+    /**
+     * @see #read(MappedMessageHandler, int)
+     */
+    public int read(final MappedMessageHandler handler) {
+        return read(handler, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 读取已提交的消息，只能由一个消费者线程调用。
+     * <p>
+     * 一次最多读取到数据区末尾，读取完后将已读内存清零，并以一次有序写更新 head。
+     *
+     * @param handler      消息回调
+     * @param messageLimit 最多读取的消息条数
+     * @return 读取的消息条数
+     */
+    public int read(final MappedMessageHandler handler, final int messageLimit) {
+        final long headAddress = address + HEAD_OFFSET;
+        final long head = UNSAFE.getLong(null, headAddress);
+        final int headIndex = (int) head & mask;
+        final int contiguousBlockLength = capacity - headIndex;
+
+        int messagesRead = 0;
+        int bytesRead = 0;
+
+        try {
+            while (bytesRead < contiguousBlockLength && messagesRead < messageLimit) {
+                final long recordAddress = dataAddress + headIndex + bytesRead;
+                final int recordLength = UNSAFE.getIntVolatile(null, recordAddress);
+                if (recordLength <= 0) {
+                    break;
+                }
+
+                bytesRead += align(recordLength);
+
+                final int msgTypeId = UNSAFE.getInt(recordAddress + 4);
+                if (PADDING_MSG_TYPE_ID == msgTypeId) {
+                    continue;
+                }
+
+                ++messagesRead;
+                final int recordIndex = HEADER_LENGTH + (int) (recordAddress - dataAddress);
+                handler.onMessage(msgTypeId, readView, recordIndex + RECORD_HEADER_LENGTH,
+                        recordLength - RECORD_HEADER_LENGTH);
+            }
+        } finally {
+            if (bytesRead != 0) {
+                // 清零后生产者可以直接以负数长度占位
+                UNSAFE.setMemory(dataAddress + headIndex, bytesRead, (byte) 0);
+                UNSAFE.putOrderedLong(null, headAddress, head + bytesRead);
+            }
+        }
+
+        return messagesRead;
+    }
+
+    /**
+     * @return 数据区容量
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return 单条消息的最大长度
+     */
+    public int maxMessageLength() {
+        return maxMessageLength;
+    }
+
+    /**
+     * @return 已申请但未被消费的字节数，包含记录头和对齐填充
+     */
+    public int size() {
+        long headBefore;
+        long tail;
+        long headAfter = UNSAFE.getLongVolatile(null, address + HEAD_OFFSET);
+
+        do {
+            headBefore = headAfter;
+            tail = UNSAFE.getLongVolatile(null, address + TAIL_OFFSET);
+            headAfter = UNSAFE.getLongVolatile(null, address + HEAD_OFFSET);
+        }
+        while (headAfter != headBefore);
+
+        return (int) (tail - headAfter);
+    }
+
+    /**
+     * 关闭文件。映射的内存在 {@link MappedByteBuffer} 被回收后才会释放，关闭后不能再读写。
+     */
+    @Override
+    public void close() throws IOException {
+        mappedBuffer.force();
+        file.close();
+    }
+
+    private static int align(final int length) {
+        return (length + (ALIGNMENT - 1)) & ~(ALIGNMENT - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedRingBuffer{" +
+                "capacity=" + capacity +
+                ", size=" + size() +
+                '}';
+    }
+
+}
@@ -1,7 +1,6 @@
 package org.lucas.disruptor;
 
 import org.lucas.disruptor.util.Util;
-import sun.misc.Unsafe;
 
 import java.util.concurrent.locks.LockSupport;
 
@@ -11,18 +10,6 @@ import java.util.concurrent.locks.LockSupport;
  */
 public final class MultiProducerSequencer extends AbstractSequencer {
 
-    private static final Unsafe UNSAFE = Util.getUnsafe();
-
-    /**
-     * 起始偏移量
-     */
-    private static final long BASE = UNSAFE.arrayBaseOffset(int[].class);
-
-    /**
-     * 增量偏移量
-     */
-    private static final long SCALE = UNSAFE.arrayIndexScale(int[].class);
-
     /**
      * 序列游标
      */
@@ -70,14 +57,35 @@ public final class MultiProducerSequencer extends AbstractSequencer {
         cursor.set(sequence);
     }
 
+    /**
+     * 通过 {@link #availableBuffer} 中记录的圈数判断序号是否已发布。
+     *
+     * @param sequence 序列值
+     * @return {@code true} 已发布
+     */
     @Override
     public boolean isAvailable(long sequence) {
-        return false;
+        int index = calculateIndex(sequence);
+        int flag = calculateAvailabilityFlag(sequence);
+        // volatile 读，与 publish 中的有序写配对
+        return ArrayAccess.getIntVolatile(availableBuffer, index) == flag;
     }
 
+    /**
+     * 从 nextSequence 开始扫描，找出连续已发布的最大序号，无锁。
+     *
+     * @param lowerBound        开始扫描的序号
+     * @param availableSequence 已申请的最大序号
+     * @return 连续已发布的最大序号，如果 lowerBound 未发布则返回 lowerBound - 1
+     */
     @Override
-    public long getHighestPublishedSequence(long nextSequence, long availableSequence) {
-
+    public long getHighestPublishedSequence(long lowerBound, long availableSequence) {
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+            if (!isAvailable(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return availableSequence;
     }
 
     /**
@@ -88,9 +96,14 @@ public final class MultiProducerSequencer extends AbstractSequencer {
         return hasAvailableCapacity(gatingSequences, requiredCapacity, cursor.get());
     }
 
+    /**
+     * @return 剩余容量 = 缓冲区大小 - (已申请的序号 - 最慢的消费者序号)
+     */
     @Override
     public long remainingCapacity() {
-
+        long produced = cursor.get();
+        long consumed = Util.getMinimumSequence(gatingSequences, produced);
+        return getBufferSize() - (produced - consumed);
     }
 
     /**
@@ -114,6 +127,8 @@ public final class MultiProducerSequencer extends AbstractSequencer {
         }
         long current;
         long next;
+        boolean stalled = false;
+        long stallStart = 0;
         do {
             // 当前游标值
             current = cursor.get();
@@ -126,6 +141,10 @@ public final class MultiProducerSequencer extends AbstractSequencer {
                 long gatingSequence = Util.getMinimumSequence(gatingSequences, current);
 
                 if (wrapPoint > gatingSequence) {
+                    if (!stalled) {
+                        stalled = true;
+                        stallStart = System.nanoTime();
+                    }
                     // 添加休眠，控制高频率时 CAS 操作空转，浪费CPU资源（或使用等待策略）
                     LockSupport.parkNanos(1);
                     continue;
@@ -138,6 +157,10 @@ public final class MultiProducerSequencer extends AbstractSequencer {
         }
         while (true);
 
+        if (stalled) {
+            recordStall(stallStart);
+        }
+
         return next;
     }
 
@@ -164,14 +187,29 @@ public final class MultiProducerSequencer extends AbstractSequencer {
         return next;
     }
 
+    /**
+     * 标记序号对应的槽为可用，并唤醒等待的消费者。
+     *
+     * @param sequence 已填充完数据的序号
+     */
     @Override
-    public void publish(long sequence) {
-
+    public void publish(final long sequence) {
+        setAvailable(sequence);
+        waitStrategy.signalAllWhenBlocking();
     }
 
+    /**
+     * 批量标记 [lo, hi] 的槽为可用，每个槽一次有序写，最后只唤醒一次消费者。
+     *
+     * @param lo 起始序号
+     * @param hi 结束序号
+     */
     @Override
     public void publish(long lo, long hi) {
-
+        for (long l = lo; l <= hi; l++) {
+            setAvailable(l);
+        }
+        waitStrategy.signalAllWhenBlocking();
     }
 
     /**
@@ -196,6 +234,34 @@ public final class MultiProducerSequencer extends AbstractSequencer {
         return true;
     }
 
+    /**
+     * 在 {@link #availableBuffer} 中记录该序号所在的圈数。
+     * <p>
+     * 多个生产者可以乱序发布，消费者通过圈数判断某个槽是否属于当前这一圈，
+     * 而不需要额外的锁或者回收标记。
+     *
+     * @param sequence 序号
+     */
+    private void setAvailable(final long sequence) {
+        setAvailableBufferValue(calculateIndex(sequence), calculateAvailabilityFlag(sequence));
+    }
+
+    /**
+     * @param sequence 序号
+     * @return 序号所在的圈数（sequence / bufferSize）
+     */
+    private int calculateAvailabilityFlag(final long sequence) {
+        return (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * @param sequence 序号
+     * @return 序号对应的槽位置
+     */
+    private int calculateIndex(final long sequence) {
+        return ((int) sequence) & indexMask;
+    }
+
     /**
      * 修改 index 元素的值。
      *
@@ -203,10 +269,8 @@ public final class MultiProducerSequencer extends AbstractSequencer {
      * @param flag  修改的值
      */
     private void setAvailableBufferValue(int index, int flag) {
-        // 第 index 的地址
-        long bufferAddress = (index * SCALE) + BASE;
         // 修改 index 元素的值（插入Store/Store内存屏障）
-        UNSAFE.putOrderedInt(availableBuffer, bufferAddress, flag);
+        ArrayAccess.putOrderedInt(availableBuffer, index, flag);
     }
 
 
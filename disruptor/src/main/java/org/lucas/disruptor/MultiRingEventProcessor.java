@@ -0,0 +1,289 @@
+package org.lucas.disruptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 在一个线程中消费多个 {@link RingBuffer} 的事件处理器。
+ * <p>
+ * 每个缓冲区称为一条通道，通道 0 是控制通道，具有严格优先级：
+ * 每轮先处理完控制通道，处理其它通道时每个事件前都检查控制通道，有新事件就结束当前批次转去处理控制通道。
+ * 其它通道按配额轮转，每轮最多处理配额个事件，配额即权重。
+ * 每条通道的 {@link Sequence} 每个批次只更新一次。
+ * <p>
+ * 通过 {@link SequenceBarrier#getCursor()} 判断通道是否有新事件，不会阻塞在某一条通道的等待策略上；
+ * 多生产者的游标是已申请的序号，游标越过后再通过屏障确认事件已经发布。
+ * 所有通道都没有事件时自旋、让出 CPU，最后短暂休眠。
+ * <p>
+ * 处理器每条通道各有一个序列，因此不是 {@link EventProcessor}，
+ * 需要通过 {@link #getSequences()} 分别加入各缓冲区的门控序列，在独立的线程中运行。
+ *
+ * @param <T> 事件类型
+ */
+public final class MultiRingEventProcessor<T> implements Runnable {
+
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+
+    /**
+     * 控制通道
+     */
+    private static final int CONTROL_LANE = 0;
+
+    /**
+     * 空闲时的自旋次数，超过后让出 CPU
+     */
+    private static final int SPIN_TRIES = 100;
+
+    /**
+     * 空闲时让出 CPU 的次数，超过后休眠
+     */
+    private static final int YIELD_TRIES = 100;
+
+    /**
+     * 空闲时每次休眠的纳秒数
+     */
+    private static final long PARK_NANOS = 1000L;
+
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+
+    private ExceptionHandler<? super T> exceptionHandler = new FatalExceptionHandler();
+
+    private final List<DataProvider<T>> providers;
+
+    private final SequenceBarrier[] barriers;
+
+    private final int[] quotas;
+
+    private final Sequence[] sequences;
+
+    private final EventHandler<? super T> eventHandler;
+
+    /**
+     * 控制通道已发布的最大序号，只在处理器线程中访问
+     */
+    private long controlAvailableSequence = Sequencer.INITIAL_CURSOR_VALUE;
+
+    /**
+     * @param providers    各通道的数据源，下标 0 为控制通道
+     * @param barriers     各通道的序号屏障
+     * @param quotas       各通道每轮最多处理的事件数
+     * @param eventHandler 事件处理器
+     */
+    public MultiRingEventProcessor(final List<? extends DataProvider<T>> providers, final SequenceBarrier[] barriers,
+                                   final int[] quotas, final EventHandler<? super T> eventHandler) {
+        if (providers.isEmpty() || providers.size() != barriers.length || providers.size() != quotas.length) {
+            throw new IllegalArgumentException("providers, barriers and quotas must have the same non-zero length");
+        }
+        for (int quota : quotas) {
+            if (quota < 1) {
+                throw new IllegalArgumentException("quota must be > 0");
+            }
+        }
+        this.providers = new ArrayList<>(providers);
+        this.barriers = barriers.clone();
+        this.quotas = quotas.clone();
+        this.eventHandler = eventHandler;
+        this.sequences = new Sequence[quotas.length];
+        for (int i = 0; i < sequences.length; i++) {
+            sequences[i] = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+        }
+    }
+
+    /**
+     * @return 各通道的消费进度，与构造参数的下标一一对应
+     */
+    public Sequence[] getSequences() {
+        return sequences.clone();
+    }
+
+    /**
+     * 通知处理器在处理完当前事件后停止
+     */
+    public void halt() {
+        running.set(HALTED);
+        for (SequenceBarrier barrier : barriers) {
+            barrier.alert();
+        }
+    }
+
+    /**
+     * @return {@code true} 处理器正在运行或已被通知停止但尚未退出
+     */
+    public boolean isRunning() {
+        return running.get() != IDLE;
+    }
+
+    /**
+     * 设置异常处理器，默认为 {@link FatalExceptionHandler}
+     *
+     * @param exceptionHandler 异常处理器
+     */
+    public void setExceptionHandler(final ExceptionHandler<? super T> exceptionHandler) {
+        if (null == exceptionHandler) {
+            throw new NullPointerException();
+        }
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * 处理器主循环，直到 {@link #halt()} 被调用。
+     *
+     * @throws IllegalStateException 处理器已经在运行
+     */
+    @Override
+    public void run() {
+        if (running.compareAndSet(IDLE, RUNNING)) {
+            for (SequenceBarrier barrier : barriers) {
+                barrier.clearAlert();
+            }
+
+            notifyStart();
+            try {
+                processEvents();
+            } finally {
+                notifyShutdown();
+                running.set(IDLE);
+            }
+        } else {
+            if (running.get() == RUNNING) {
+                throw new IllegalStateException("Thread is already running");
+            } else {
+                notifyStart();
+                notifyShutdown();
+            }
+        }
+    }
+
+    private void processEvents() {
+        int idleCounter = 0;
+        while (running.get() == RUNNING) {
+            long processed = drainControlLane();
+            for (int lane = CONTROL_LANE + 1; lane < sequences.length; lane++) {
+                processed += processLane(lane, true);
+                if (controlLaneReady()) {
+                    processed += drainControlLane();
+                }
+            }
+
+            if (0 != processed) {
+                idleCounter = 0;
+            } else if (idleCounter < SPIN_TRIES) {
+                idleCounter++;
+            } else if (idleCounter < SPIN_TRIES + YIELD_TRIES) {
+                idleCounter++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * 处理控制通道直到没有新事件
+     *
+     * @return 处理的事件数
+     */
+    private long drainControlLane() {
+        long total = 0;
+        long processed;
+        while (0 != (processed = processLane(CONTROL_LANE, false))) {
+            total += processed;
+        }
+        return total;
+    }
+
+    /**
+     * 游标只说明序号已被申请，游标越过后再通过屏障取已发布的最大序号并缓存，
+     * 慢的控制通道生产者申请了序号但尚未发布时不会抢占其它通道。
+     *
+     * @return 控制通道是否有已发布但未处理的事件
+     */
+    private boolean controlLaneReady() {
+        final long nextSequence = sequences[CONTROL_LANE].get() + 1L;
+        if (controlAvailableSequence >= nextSequence) {
+            return true;
+        }
+        final SequenceBarrier barrier = barriers[CONTROL_LANE];
+        if (barrier.getCursor() < nextSequence) {
+            return false;
+        }
+        try {
+            // 游标已越过，不会阻塞在等待策略上
+            controlAvailableSequence = barrier.waitFor(nextSequence);
+        } catch (final AlertException | TimeoutException e) {
+            // halt 或等待超时，由主循环处理
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return controlAvailableSequence >= nextSequence;
+    }
+
+    /**
+     * 处理一条通道的一个批次，最多配额个事件，处理完只更新一次序列。
+     *
+     * @param lane        通道下标
+     * @param preemptible 是否允许被控制通道抢占
+     * @return 处理的事件数
+     */
+    private long processLane(final int lane, final boolean preemptible) {
+        final SequenceBarrier barrier = barriers[lane];
+        final Sequence sequence = sequences[lane];
+        final long nextSequence = sequence.get() + 1L;
+        if (barrier.getCursor() < nextSequence) {
+            return 0;
+        }
+
+        final DataProvider<T> provider = providers.get(lane);
+        long processedSequence = nextSequence - 1L;
+        T event = null;
+        try {
+            final long availableSequence = Math.min(barrier.waitFor(nextSequence), nextSequence + quotas[lane] - 1L);
+            for (long current = nextSequence; current <= availableSequence; current++) {
+                // 控制通道有新事件时，当前事件即为本批次的最后一个
+                final boolean endOfBatch = current == availableSequence || (preemptible && controlLaneReady());
+                event = provider.get(current);
+                eventHandler.onEvent(event, current, endOfBatch);
+                processedSequence = current;
+                if (endOfBatch) {
+                    break;
+                }
+            }
+            sequence.set(processedSequence);
+        } catch (final AlertException | TimeoutException e) {
+            // halt 或等待超时，由主循环处理
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Throwable ex) {
+            exceptionHandler.handleEventException(ex, processedSequence + 1L, event);
+            // 跳过出现异常的事件
+            processedSequence++;
+            sequence.set(processedSequence);
+        }
+        return processedSequence - nextSequence + 1L;
+    }
+
+    private void notifyStart() {
+        if (eventHandler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) eventHandler).onStart();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnStartException(ex);
+            }
+        }
+    }
+
+    private void notifyShutdown() {
+        if (eventHandler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) eventHandler).onShutdown();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnShutdownException(ex);
+            }
+        }
+    }
+
+}
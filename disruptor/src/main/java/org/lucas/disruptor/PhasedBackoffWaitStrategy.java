@@ -0,0 +1,93 @@
+package org.lucas.disruptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分阶段退避等待策略。
+ * <p>
+ * 先自旋 {@code spinTimeoutNanos}，再调用 {@link Thread#yield()} 直到 {@code yieldTimeoutNanos}，
+ * 最后交给 {@code fallbackStrategy}。
+ * 在突发流量时保持低延迟，空闲时退化为低 CPU 占用的策略。
+ */
+public final class PhasedBackoffWaitStrategy implements WaitStrategy {
+
+    /**
+     * 每隔多少次循环检查一次时间，减少 {@link System#nanoTime()} 的调用
+     */
+    private static final int SPIN_TRIES = 10000;
+
+    private final long spinTimeoutNanos;
+
+    private final long yieldTimeoutNanos;
+
+    private final WaitStrategy fallbackStrategy;
+
+    /**
+     * @param spinTimeout      自旋时间
+     * @param yieldTimeout     让出 CPU 的时间（从自旋结束开始计算）
+     * @param units            时间单位
+     * @param fallbackStrategy 超过自旋和让出时间后使用的等待策略
+     */
+    public PhasedBackoffWaitStrategy(long spinTimeout, long yieldTimeout, TimeUnit units,
+                                     WaitStrategy fallbackStrategy) {
+        this.spinTimeoutNanos = units.toNanos(spinTimeout);
+        this.yieldTimeoutNanos = spinTimeoutNanos + units.toNanos(yieldTimeout);
+        this.fallbackStrategy = fallbackStrategy;
+    }
+
+    /**
+     * 自旋、让出 CPU 后阻塞等待
+     */
+    public static PhasedBackoffWaitStrategy withLock(long spinTimeout, long yieldTimeout, TimeUnit units) {
+        return new PhasedBackoffWaitStrategy(spinTimeout, yieldTimeout, units, new BlockingWaitStrategy());
+    }
+
+    /**
+     * 自旋、让出 CPU 后阻塞等待，生产者只在有消费者等待时才加锁唤醒
+     */
+    public static PhasedBackoffWaitStrategy withLiteLock(long spinTimeout, long yieldTimeout, TimeUnit units) {
+        return new PhasedBackoffWaitStrategy(spinTimeout, yieldTimeout, units, new LiteBlockingWaitStrategy());
+    }
+
+    /**
+     * 自旋、让出 CPU 后休眠等待
+     */
+    public static PhasedBackoffWaitStrategy withSleep(long spinTimeout, long yieldTimeout, TimeUnit units) {
+        return new PhasedBackoffWaitStrategy(spinTimeout, yieldTimeout, units, new SleepingWaitStrategy(0));
+    }
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, Sequence dependentSequence, SequenceBarrier barrier)
+            throws AlertException, InterruptedException, TimeoutException {
+        long availableSequence;
+        long startTime = 0;
+        int counter = SPIN_TRIES;
+
+        do {
+            if ((availableSequence = dependentSequence.get()) >= sequence) {
+                return availableSequence;
+            }
+
+            if (0 == --counter) {
+                if (0 == startTime) {
+                    startTime = System.nanoTime();
+                } else {
+                    long timeDelta = System.nanoTime() - startTime;
+                    if (timeDelta > yieldTimeoutNanos) {
+                        return fallbackStrategy.waitFor(sequence, cursor, dependentSequence, barrier);
+                    } else if (timeDelta > spinTimeoutNanos) {
+                        Thread.yield();
+                    }
+                }
+                counter = SPIN_TRIES;
+            }
+        }
+        while (true);
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        fallbackStrategy.signalAllWhenBlocking();
+    }
+
+}
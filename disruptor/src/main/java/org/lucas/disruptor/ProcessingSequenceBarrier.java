@@ -1,5 +1,7 @@
 package org.lucas.disruptor;
 
+import java.util.concurrent.TimeUnit;
+
 final class ProcessingSequenceBarrier implements SequenceBarrier {
 
     private final WaitStrategy waitStrategy;
@@ -13,8 +15,12 @@ final class ProcessingSequenceBarrier implements SequenceBarrier {
         this.sequencer = sequencer;
         this.waitStrategy = waitStrategy;
         this.cursorSequence = cursorSequence;
+        final SequenceTree tree = SequenceTree.of(dependentSequences);
         if (0 == dependentSequences.length) {
             dependentSequence = cursorSequence;
+        } else if (null != tree) {
+            // 依赖的是一棵树的全部成员，只需读取树的最小值
+            dependentSequence = tree;
         } else {
             dependentSequence = new FixedSequenceGroup(dependentSequences);
         }
@@ -31,6 +37,18 @@ final class ProcessingSequenceBarrier implements SequenceBarrier {
         return sequencer.getHighestPublishedSequence(sequence, availableSequence);
     }
 
+    @Override
+    public long waitFor(long sequence, long timeout, TimeUnit unit)
+            throws AlertException, InterruptedException, TimeoutException {
+        checkAlert();
+        long availableSequence = waitStrategy.waitFor(sequence, cursorSequence, dependentSequence, this,
+                unit.toNanos(timeout));
+        if (availableSequence < sequence) {
+            return availableSequence;
+        }
+        return sequencer.getHighestPublishedSequence(sequence, availableSequence);
+    }
+
     @Override
     public long getCursor() {
         return dependentSequence.get();
@@ -38,7 +56,7 @@ final class ProcessingSequenceBarrier implements SequenceBarrier {
 
     @Override
     public boolean isAlerted() {
-        return false;
+        return alerted;
     }
 
     @Override
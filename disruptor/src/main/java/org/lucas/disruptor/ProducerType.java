@@ -0,0 +1,17 @@
+package org.lucas.disruptor;
+
+/**
+ * 生产者类型，决定 {@link RingBuffer} 使用的序号生成器。
+ */
+public enum ProducerType {
+
+    /**
+     * 只有一个线程发布事件，使用 {@link SingleProducerSequencer}。
+     */
+    SINGLE,
+
+    /**
+     * 多个线程发布事件，使用 {@link MultiProducerSequencer}。
+     */
+    MULTI
+}
@@ -1,150 +1,620 @@
 package org.lucas.disruptor;
 
-import org.lucas.disruptor.util.Util;
-import sun.misc.Unsafe;
-
 /**
  * @Author: shaw
  * @Date: 2019/5/17 10:04
  */
+public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored, EventSequencer<E>, EventSink<E> {
+
+    /**
+     * 初始游标
+     */
+    public static final long INITIAL_CURSOR_VALUE = Sequence.INITIAL_VALUE;
 
-abstract class RingBufferPad {
     /**
-     * 缓存行左填充.
+     * 右填充
      */
     protected long p1, p2, p3, p4, p5, p6, p7;
-}
 
-/**
- * 字段填充
- */
-abstract class RingBufferFields<E> extends RingBufferPad {
+    RingBuffer(EventFactory<E> eventFactory, Sequencer sequencer) {
+        super(eventFactory, sequencer);
+    }
 
-    private static final Unsafe UNSAFE = Util.getUnsafe();
+    public static <E> RingBuffer<E> createMultiProducer(EventFactory<E> factory, int bufferSize, WaitStrategy waitStrategy) {
+        MultiProducerSequencer sequencer = new MultiProducerSequencer(bufferSize, waitStrategy);
+        return new RingBuffer<E>(factory, sequencer);
+    }
+
+    public static <E> RingBuffer<E> createMultiProducer(EventFactory<E> factory, int bufferSize) {
+        return createMultiProducer(factory, bufferSize, new BlockingWaitStrategy());
+    }
 
     /**
-     * 一个引用占用的字节数的幂次方
+     * 创建单生产者 RingBuffer，只能由一个线程发布事件。
+     *
+     * @param factory      事件工厂
+     * @param bufferSize   缓冲区大小，必须是2的幂次方
+     * @param waitStrategy 消费者等待策略
+     * @return RingBuffer
+     */
+    public static <E> RingBuffer<E> createSingleProducer(EventFactory<E> factory, int bufferSize, WaitStrategy waitStrategy) {
+        SingleProducerSequencer sequencer = new SingleProducerSequencer(bufferSize, waitStrategy);
+        return new RingBuffer<E>(factory, sequencer);
+    }
+
+    public static <E> RingBuffer<E> createSingleProducer(EventFactory<E> factory, int bufferSize) {
+        return createSingleProducer(factory, bufferSize, new BlockingWaitStrategy());
+    }
+
+    /**
+     * 根据生产者类型创建 RingBuffer
+     *
+     * @param producerType 生产者类型
+     * @param factory      事件工厂
+     * @param bufferSize   缓冲区大小，必须是2的幂次方
+     * @param waitStrategy 消费者等待策略
+     * @return RingBuffer
      */
-    private static final int REF_ELEMENT_SHIFT;
+    public static <E> RingBuffer<E> create(ProducerType producerType, EventFactory<E> factory, int bufferSize,
+                                           WaitStrategy waitStrategy) {
+        switch (producerType) {
+            case SINGLE:
+                return createSingleProducer(factory, bufferSize, waitStrategy);
+            case MULTI:
+                return createMultiProducer(factory, bufferSize, waitStrategy);
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
+    /**
+     * 创建序号屏障，消费者通过屏障等待事件发布。
+     *
+     * @param sequencesToTrack 依赖的上游消费者序列，为空时只依赖生产者游标
+     * @return 序号屏障
+     */
+    public SequenceBarrier newBarrier(Sequence... sequencesToTrack) {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+
+    /**
+     * 创建事件轮询器，调用方需要将 {@link EventPoller#getSequence()} 添加到门控序列中。
+     *
+     * @param gatingSequences 依赖的上游消费者序列
+     * @return 事件轮询器
+     */
+    public EventPoller<E> newPoller(Sequence... gatingSequences) {
+        return sequencer.newPoller(this, gatingSequences);
+    }
+
+    /**
+     * 添加门控序列，生产者不会覆盖这些序列尚未消费的插槽。
+     *
+     * @param gatingSequences 消费者序列
+     */
+    public void addGatingSequences(Sequence... gatingSequences) {
+        sequencer.addGatingSequences(gatingSequences);
+    }
+
+    /**
+     * @param sequence 需要删除的门控序列
+     * @return {@code true} 删除成功
+     */
+    public boolean removeGatingSequence(Sequence sequence) {
+        return sequencer.removeGatingSequence(sequence);
+    }
+
+    /**
+     * @return 生产者游标
+     */
+    @Override
+    public long getCursor() {
+        return sequencer.getCursor();
+    }
+
+    @Override
+    public E get(long sequence) {
+        return elementAt(sequence);
+    }
+
+    @Override
+    public long next() {
+        return sequencer.next();
+    }
+
+    @Override
+    public long next(int n) {
+        return sequencer.next(n);
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException {
+        return sequencer.tryNext();
+    }
+
+    @Override
+    public long tryNext(int n) throws InsufficientCapacityException {
+        return sequencer.tryNext(n);
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(int requiredCapacity) {
+        return sequencer.hasAvailableCapacity(requiredCapacity);
+    }
+
+    @Override
+    public long remainingCapacity() {
+        return sequencer.remainingCapacity();
+    }
+
+    @Override
+    public void publish(long sequence) {
+        sequencer.publish(sequence);
+    }
+
+    @Override
+    public void publish(long lo, long hi) {
+        sequencer.publish(lo, hi);
+    }
 
     /**
-     * 数组的开始地址，这里其实是数组中真正有效数据的开始地址，
-     * 是整个数组开始地址+BUFFER_PAD个引用的偏移量
+     * 创建序号申请句柄，由发布线程创建一次后反复使用，{@link ClaimHandle#close()} 时发布。
+     * 与 {@link EventTranslatorVararg} 和捕获参数的 lambda 不同，发布过程不产生对象分配。
+     * <p>
+     * 句柄只引用当前 RingBuffer，不与线程绑定，不再使用时直接丢弃即可。
+     *
+     * @return 新的申请句柄
      */
-    private static final long REF_ARRAY_BASE;
+    public ClaimHandle<E> newClaimHandle() {
+        return new ClaimHandle<>(this);
+    }
 
     /**
-     * 数组中一共需要填充的个数
+     * 申请一个序号，转换事件后发布。
+     *
+     * @param translator 事件转换器
      */
-    private static final int BUFFER_PAD;
+    @Override
+    public void publishEvent(EventTranslator<E> translator) {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence);
+    }
 
-    static {
-        // 获取对象的增量长度.
-        // 访问该类型为 Object[] 的第N个元素的话,偏移量offset应该是：arrayOffset(数组起始偏移量) + N * arrayScale（元素增量数值）。
-        final int scale = UNSAFE.arrayIndexScale(Object[].class);
-        if (4 == scale) {
-            // 2的2次幂
-            REF_ELEMENT_SHIFT = 2;
-        } else if (8 == scale) {
-            // 2的3次幂
-            REF_ELEMENT_SHIFT = 3;
-        } else {
-            throw new IllegalStateException("未确定指针大小.");
+    /**
+     * 缓冲区已满时不等待，直接返回 {@code false}。
+     *
+     * @param translator 事件转换器
+     * @return {@code true} 发布成功
+     */
+    @Override
+    public boolean tryPublishEvent(EventTranslator<E> translator) {
+        try {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
         }
-        BUFFER_PAD = 128 / scale;
+    }
+
+    @Override
+    public <A> void publishEvent(EventTranslatorOneArg<E, A> translator, A arg0) {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence, arg0);
+    }
 
+    @Override
+    public <A> boolean tryPublishEvent(EventTranslatorOneArg<E, A> translator, A arg0) {
+        try {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence, arg0);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+    }
 
-        //  对象头的基本偏移量
-        //  等于 UNSAFE.arrayBaseOffset(Object[].class) + (BUFFER_PAD << REF_ELEMENT_SHIFT);
-        //
-        //  REF_ARRAY_BASE是整个数组的起始地址+用于缓存行填充的那些空位的偏移量
-        //  BUFFER_PAD << REF_ELEMENT_SHIFT表示BUFFER_PAD个引用的占用字节数
-        //  比如一个引用占用字节数是4，那么REF_ELEMENT_SHIFT是2，
-        //  BUFFER_PAD << REF_ELEMENT_SHIFT 就相当于 BUFFER_PAD * 4
-        REF_ARRAY_BASE = UNSAFE.arrayBaseOffset(Object[].class) + 128;
+    @Override
+    public <A, B> void publishEvent(EventTranslatorTwoArg<E, A, B> translator, A arg0, B arg1) {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence, arg0, arg1);
     }
 
-    private final long indexMask;
-    private final Object[] entries;
-    protected final int bufferSize;
-    protected final Sequencer sequencer;
+    @Override
+    public <A, B> boolean tryPublishEvent(EventTranslatorTwoArg<E, A, B> translator, A arg0, B arg1) {
+        try {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence, arg0, arg1);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+    }
 
-    RingBufferFields(EventFactory<E> eventFactory, Sequencer sequencer) {
-        this.sequencer = sequencer;
-        this.bufferSize = sequencer.getBufferSize();
+    @Override
+    public <A, B, C> void publishEvent(EventTranslatorThreeArg<E, A, B, C> translator, A arg0, B arg1, C arg2) {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence, arg0, arg1, arg2);
+    }
 
-        if (bufferSize < 1) {
-            throw new IllegalArgumentException("RingBuffer.bufferSize 不能小于1");
+    @Override
+    public <A, B, C> boolean tryPublishEvent(EventTranslatorThreeArg<E, A, B, C> translator, A arg0, B arg1, C arg2) {
+        try {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence, arg0, arg1, arg2);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
         }
-        if (Integer.bitCount(bufferSize) != 1) {
-            throw new IllegalArgumentException("RingBuffer.bufferSize 必须是2的幂次方");
+    }
+
+    @Override
+    public void publishEvent(EventTranslatorVararg<E> translator, Object... args) {
+        final long sequence = sequencer.next();
+        translateAndPublishVararg(translator, sequence, args);
+    }
+
+    @Override
+    public boolean tryPublishEvent(EventTranslatorVararg<E> translator, Object... args) {
+        try {
+            final long sequence = sequencer.tryNext();
+            translateAndPublishVararg(translator, sequence, args);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
         }
-        this.indexMask = bufferSize - 1;
-        this.entries = new Object[sequencer.getBufferSize() + 2 * BUFFER_PAD];
-        fill(eventFactory);
+    }
+
+    @Override
+    public void publishEvents(EventTranslator<E>[] translators) {
+        publishEvents(translators, 0, translators.length);
     }
 
     /**
-     * 填充事件
+     * 一次申请 batchSize 个序号，转换后一次发布整个范围。
+     * <p>
+     * 参数在申请序号之前校验，避免出现已申请但未发布的序号阻塞消费者。
      *
-     * @param eventFactory 事件工厂
+     * @param translators   事件转换器
+     * @param batchStartsAt 起始下标
+     * @param batchSize     发布个数
      */
-    private void fill(EventFactory<E> eventFactory) {
-        for (int i = 0; i < bufferSize; i++) {
-            entries[BUFFER_PAD + i] = eventFactory.newInstance();
+    @Override
+    public void publishEvents(EventTranslator<E>[] translators, int batchStartsAt, int batchSize) {
+        checkBounds(translators, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translators, batchStartsAt, batchSize, finalSequence);
+    }
+
+    @Override
+    public boolean tryPublishEvents(EventTranslator<E>[] translators) {
+        return tryPublishEvents(translators, 0, translators.length);
+    }
+
+    @Override
+    public boolean tryPublishEvents(EventTranslator<E>[] translators, int batchStartsAt, int batchSize) {
+        checkBounds(translators, batchStartsAt, batchSize);
+        try {
+            final long finalSequence = sequencer.tryNext(batchSize);
+            translateAndPublishBatch(translators, batchStartsAt, batchSize, finalSequence);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
         }
     }
 
-    protected final E elementAt(long sequence) {
-        return (E) UNSAFE.getObject(entries, REF_ARRAY_BASE + ((sequence & indexMask) << REF_ELEMENT_SHIFT));
+    @Override
+    public <A> void publishEvents(EventTranslatorOneArg<E, A> translator, A[] arg0) {
+        publishEvents(translator, 0, arg0.length, arg0);
     }
-}
 
-public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored, EventSequencer<E>, EventSink<E> {
+    @Override
+    public <A> void publishEvents(EventTranslatorOneArg<E, A> translator, int batchStartsAt, int batchSize, A[] arg0) {
+        checkBounds(arg0, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translator, arg0, batchStartsAt, batchSize, finalSequence);
+    }
 
-    /**
-     * 初始游标
-     */
-    public static final long INITIAL_CURSOR_VALUE = Sequence.INITIAL_VALUE;
+    @Override
+    public <A> boolean tryPublishEvents(EventTranslatorOneArg<E, A> translator, A[] arg0) {
+        return tryPublishEvents(translator, 0, arg0.length, arg0);
+    }
 
-    /**
-     * 右填充
-     */
-    protected long p1, p2, p3, p4, p5, p6, p7;
+    @Override
+    public <A> boolean tryPublishEvents(EventTranslatorOneArg<E, A> translator, int batchStartsAt, int batchSize,
+                                        A[] arg0) {
+        checkBounds(arg0, batchStartsAt, batchSize);
+        try {
+            final long finalSequence = sequencer.tryNext(batchSize);
+            translateAndPublishBatch(translator, arg0, batchStartsAt, batchSize, finalSequence);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+    }
 
-    RingBuffer(EventFactory<E> eventFactory, Sequencer sequencer) {
-        super(eventFactory, sequencer);
+    @Override
+    public <A, B> void publishEvents(EventTranslatorTwoArg<E, A, B> translator, A[] arg0, B[] arg1) {
+        publishEvents(translator, 0, arg0.length, arg0, arg1);
     }
 
-    public static <E> RingBuffer<E> createMultiProducer(EventFactory<E> factory, int bufferSize, WaitStrategy waitStrategy) {
-        MultiProducerSequencer sequencer = new MultiProducerSequencer(bufferSize, waitStrategy);
-        return new RingBuffer<E>(factory, sequencer);
+    @Override
+    public <A, B> void publishEvents(EventTranslatorTwoArg<E, A, B> translator, int batchStartsAt, int batchSize,
+                                     A[] arg0, B[] arg1) {
+        checkBounds(arg0, arg1, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translator, arg0, arg1, batchStartsAt, batchSize, finalSequence);
     }
 
-    public static <E> RingBuffer<E> createMultiProducer(EventFactory<E> factory, int bufferSize) {
-        return createMultiProducer(factory, bufferSize, new BlockingWaitStrategy());
+    @Override
+    public <A, B> boolean tryPublishEvents(EventTranslatorTwoArg<E, A, B> translator, A[] arg0, B[] arg1) {
+        return tryPublishEvents(translator, 0, arg0.length, arg0, arg1);
     }
 
     @Override
-    public E get(long sequence) {
-        return elementAt(sequence);
+    public <A, B> boolean tryPublishEvents(EventTranslatorTwoArg<E, A, B> translator, int batchStartsAt,
+                                           int batchSize, A[] arg0, B[] arg1) {
+        checkBounds(arg0, arg1, batchStartsAt, batchSize);
+        try {
+            final long finalSequence = sequencer.tryNext(batchSize);
+            translateAndPublishBatch(translator, arg0, arg1, batchStartsAt, batchSize, finalSequence);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
     }
 
     @Override
-    public long next() {
-        return sequencer.next();
+    public <A, B, C> void publishEvents(EventTranslatorThreeArg<E, A, B, C> translator, A[] arg0, B[] arg1,
+                                        C[] arg2) {
+        publishEvents(translator, 0, arg0.length, arg0, arg1, arg2);
     }
 
     @Override
-    public long next(int n) {
-        return sequencer.next(n);
+    public <A, B, C> void publishEvents(EventTranslatorThreeArg<E, A, B, C> translator, int batchStartsAt,
+                                        int batchSize, A[] arg0, B[] arg1, C[] arg2) {
+        checkBounds(arg0, arg1, arg2, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translator, arg0, arg1, arg2, batchStartsAt, batchSize, finalSequence);
     }
 
     @Override
-    public long tryNext() throws InsufficientCapacityException {
-        return sequencer.tryNext();
+    public <A, B, C> boolean tryPublishEvents(EventTranslatorThreeArg<E, A, B, C> translator, A[] arg0, B[] arg1,
+                                              C[] arg2) {
+        return tryPublishEvents(translator, 0, arg0.length, arg0, arg1, arg2);
     }
 
-}
+    @Override
+    public <A, B, C> boolean tryPublishEvents(EventTranslatorThreeArg<E, A, B, C> translator, int batchStartsAt,
+                                              int batchSize, A[] arg0, B[] arg1, C[] arg2) {
+        checkBounds(arg0, arg1, arg2, batchStartsAt, batchSize);
+        try {
+            final long finalSequence = sequencer.tryNext(batchSize);
+            translateAndPublishBatch(translator, arg0, arg1, arg2, batchStartsAt, batchSize, finalSequence);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void publishEvents(EventTranslatorVararg<E> translator, Object[]... args) {
+        publishEvents(translator, 0, args.length, args);
+    }
+
+    @Override
+    public void publishEvents(EventTranslatorVararg<E> translator, int batchStartsAt, int batchSize,
+                              Object[]... args) {
+        checkBounds(batchStartsAt, batchSize, args);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translator, batchStartsAt, batchSize, finalSequence, args);
+    }
+
+    @Override
+    public boolean tryPublishEvents(EventTranslatorVararg<E> translator, Object[]... args) {
+        return tryPublishEvents(translator, 0, args.length, args);
+    }
+
+    @Override
+    public boolean tryPublishEvents(EventTranslatorVararg<E> translator, int batchStartsAt, int batchSize,
+                                    Object[]... args) {
+        checkBounds(batchStartsAt, batchSize, args);
+        try {
+            final long finalSequence = sequencer.tryNext(batchSize);
+            translateAndPublishBatch(translator, batchStartsAt, batchSize, finalSequence, args);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+    }
+
+    private void checkBounds(final EventTranslator<E>[] translators, final int batchStartsAt, final int batchSize) {
+        checkBatchSizing(batchStartsAt, batchSize);
+        batchOverRuns(translators, batchStartsAt, batchSize);
+    }
+
+    private <A> void checkBounds(final A[] arg0, final int batchStartsAt, final int batchSize) {
+        checkBatchSizing(batchStartsAt, batchSize);
+        batchOverRuns(arg0, batchStartsAt, batchSize);
+    }
+
+    private <A, B> void checkBounds(final A[] arg0, final B[] arg1, final int batchStartsAt, final int batchSize) {
+        checkBatchSizing(batchStartsAt, batchSize);
+        batchOverRuns(arg0, batchStartsAt, batchSize);
+        batchOverRuns(arg1, batchStartsAt, batchSize);
+    }
+
+    private <A, B, C> void checkBounds(final A[] arg0, final B[] arg1, final C[] arg2, final int batchStartsAt,
+                                       final int batchSize) {
+        checkBatchSizing(batchStartsAt, batchSize);
+        batchOverRuns(arg0, batchStartsAt, batchSize);
+        batchOverRuns(arg1, batchStartsAt, batchSize);
+        batchOverRuns(arg2, batchStartsAt, batchSize);
+    }
+
+    private void checkBounds(final int batchStartsAt, final int batchSize, final Object[][] args) {
+        checkBatchSizing(batchStartsAt, batchSize);
+        batchOverRuns(args, batchStartsAt, batchSize);
+    }
 
+    /**
+     * 批次大小必须大于0且不超过缓冲区大小。
+     *
+     * @param batchStartsAt 起始下标
+     * @param batchSize     发布个数
+     * @throws IllegalArgumentException 参数不合法
+     */
+    private void checkBatchSizing(int batchStartsAt, int batchSize) {
+        if (batchStartsAt < 0 || batchSize < 0) {
+            throw new IllegalArgumentException("Both batchStartsAt and batchSize must be positive but got: batchStartsAt " +
+                    batchStartsAt + " and batchSize " + batchSize);
+        } else if (batchSize > bufferSize) {
+            throw new IllegalArgumentException("The ring buffer cannot accommodate " + batchSize +
+                    " it only has space for " + bufferSize + " entities.");
+        }
+    }
+
+    /**
+     * 批次范围不能超出参数数组。
+     *
+     * @param arg0          参数数组
+     * @param batchStartsAt 起始下标
+     * @param batchSize     发布个数
+     * @throws IllegalArgumentException 超出参数数组
+     */
+    private <A> void batchOverRuns(final A[] arg0, final int batchStartsAt, final int batchSize) {
+        if (batchStartsAt + batchSize > arg0.length) {
+            throw new IllegalArgumentException("A batchSize of: " + batchSize +
+                    " with batchStatsAt of: " + batchStartsAt +
+                    " will overrun the available number of arguments: " + (arg0.length - batchStartsAt));
+        }
+    }
+
+    /**
+     * 转换事件，无论转换是否抛出异常都会发布该序号，避免阻塞消费者。
+     */
+    private void translateAndPublish(EventTranslator<E> translator, long sequence) {
+        try {
+            translator.translateTo(get(sequence), sequence);
+        } finally {
+            sequencer.publish(sequence);
+        }
+    }
 
+    private <A> void translateAndPublish(EventTranslatorOneArg<E, A> translator, long sequence, A arg0) {
+        try {
+            translator.translateTo(get(sequence), sequence, arg0);
+        } finally {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private <A, B> void translateAndPublish(EventTranslatorTwoArg<E, A, B> translator, long sequence, A arg0,
+                                            B arg1) {
+        try {
+            translator.translateTo(get(sequence), sequence, arg0, arg1);
+        } finally {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private <A, B, C> void translateAndPublish(EventTranslatorThreeArg<E, A, B, C> translator, long sequence,
+                                               A arg0, B arg1, C arg2) {
+        try {
+            translator.translateTo(get(sequence), sequence, arg0, arg1, arg2);
+        } finally {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private void translateAndPublishVararg(EventTranslatorVararg<E> translator, long sequence, Object... args) {
+        try {
+            translator.translateTo(get(sequence), sequence, args);
+        } finally {
+            sequencer.publish(sequence);
+        }
+    }
+
+    /**
+     * 在已申请的 [finalSequence - batchSize + 1, finalSequence] 范围内转换事件，然后一次发布整个范围。
+     */
+    private void translateAndPublishBatch(final EventTranslator<E>[] translators, int batchStartsAt,
+                                          final int batchSize, final long finalSequence) {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++) {
+                final EventTranslator<E> translator = translators[i];
+                translator.translateTo(get(sequence), sequence++);
+            }
+        } finally {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    private <A> void translateAndPublishBatch(final EventTranslatorOneArg<E, A> translator, final A[] arg0,
+                                              int batchStartsAt, final int batchSize, final long finalSequence) {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++) {
+                translator.translateTo(get(sequence), sequence++, arg0[i]);
+            }
+        } finally {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    private <A, B> void translateAndPublishBatch(final EventTranslatorTwoArg<E, A, B> translator, final A[] arg0,
+                                                 final B[] arg1, int batchStartsAt, int batchSize,
+                                                 final long finalSequence) {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++) {
+                translator.translateTo(get(sequence), sequence++, arg0[i], arg1[i]);
+            }
+        } finally {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    private <A, B, C> void translateAndPublishBatch(final EventTranslatorThreeArg<E, A, B, C> translator,
+                                                    final A[] arg0, final B[] arg1, final C[] arg2,
+                                                    int batchStartsAt, final int batchSize,
+                                                    final long finalSequence) {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++) {
+                translator.translateTo(get(sequence), sequence++, arg0[i], arg1[i], arg2[i]);
+            }
+        } finally {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    private void translateAndPublishBatch(final EventTranslatorVararg<E> translator, int batchStartsAt,
+                                          final int batchSize, final long finalSequence, final Object[][] args) {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++) {
+                translator.translateTo(get(sequence), sequence++, args[i]);
+            }
+        } finally {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+}
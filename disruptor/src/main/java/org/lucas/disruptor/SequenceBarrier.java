@@ -1,5 +1,7 @@
 package org.lucas.disruptor;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * 序列器内存屏障
  *
@@ -10,6 +12,18 @@ public interface SequenceBarrier {
 
     long waitFor(long sequence) throws AlertException, InterruptedException, TimeoutException;
 
+    /**
+     * 等待序号可用，最多等待指定时间，与等待策略本身是否支持超时无关。
+     *
+     * @param sequence 等待的序号
+     * @param timeout  超时时间
+     * @param unit     时间单位
+     * @return 可用的最大序号
+     * @throws TimeoutException 等待超时
+     */
+    long waitFor(long sequence, long timeout, TimeUnit unit)
+            throws AlertException, InterruptedException, TimeoutException;
+
     long getCursor();
 
     boolean isAlerted();
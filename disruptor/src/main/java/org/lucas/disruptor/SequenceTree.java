@@ -0,0 +1,313 @@
+package org.lucas.disruptor;
+
+import org.lucas.disruptor.util.Util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * 分层的序列组，用于消费者数量很多时的门控。
+ * <p>
+ * {@link FixedSequenceGroup} 和 {@link Util#getMinimumSequence} 每次都要遍历所有 {@link Sequence}，
+ * 消费者有成百上千个时，这些分散在不同缓存行上的读取会成为生产者和屏障的瓶颈。
+ * 本类把成员序列分散到若干个叶子节点，由消费者在推进时维护最小值，读取方只读一次根节点：
+ * <ul>
+ * <li>成员推进前的值不大于叶子最小值时（它可能就是叶子的瓶颈），重新计算并抬高该叶子的最小值；</li>
+ * <li>叶子最小值被抬高前的值不大于根节点最小值时，同样重新计算并抬高根节点的最小值；</li>
+ * <li>其余推进不影响任何最小值，只有一次写入和一次读取。</li>
+ * </ul>
+ * 因此 {@link #get()} 是一次 volatile 读取，只有瓶颈成员推进时才需要遍历一个叶子和所有叶子的最小值，
+ * 都是约 √N 次读取。
+ * <p>
+ * 成员序列只能通过 {@link #newSequence()} 创建，其写入都是 volatile 写入，
+ * 保证成员的写入与重新计算时的读取之间不会同时错过对方。
+ * 各节点的最小值只增不减，重新计算与写入并发时得到的是下界，不会越过任何成员。
+ * <p>
+ * 每个叶子持有独立的成员数组，通过 {@link SequenceGroups#addSequences} 和
+ * {@link SequenceGroups#removeSequence} 无锁地增删，复制的数组长度是叶子大小而不是消费者总数。
+ * 新成员从当前游标值开始，与 {@link RingBuffer#addGatingSequences} 一样，需要在生产者发布前加入。
+ * <p>
+ * 可以通过 {@link RingBuffer#addGatingSequences} 作为一个整体加入门控序列，
+ * 加入时对本类的 {@link #set(long)} 不会修改成员序列。
+ * {@link ProcessingSequenceBarrier} 依赖的序列恰好是一棵树的全部成员时直接依赖这棵树。
+ */
+public final class SequenceTree extends Sequence {
+
+    /**
+     * {@link Disruptor} 中一组事件处理器超过该数量时，它们的序列由一棵树管理
+     */
+    static final int FAN_OUT_THRESHOLD = 32;
+
+    /**
+     * 原子修改器，修改 {@link Leaf#sequences} 属性
+     */
+    private static final AtomicReferenceFieldUpdater<Leaf, Sequence[]> LEAF_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(Leaf.class, Sequence[].class, "sequences");
+
+    private final Cursored cursor;
+
+    private final Leaf[] leaves;
+
+    /**
+     * 所有非空叶子最小值中的最小值，只增不减
+     */
+    private final Sequence minimum = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    /**
+     * 成员总数
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * 新成员放入的叶子，轮询分配
+     */
+    private final AtomicInteger nextLeaf = new AtomicInteger();
+
+    /**
+     * @param cursor    游标，新成员的起始值，没有成员时 {@link #get()} 返回游标值
+     * @param leafCount 叶子个数，一般取成员总数的平方根
+     */
+    public SequenceTree(final Cursored cursor, final int leafCount) {
+        if (leafCount < 1) {
+            throw new IllegalArgumentException("leafCount must be > 0");
+        }
+        this.cursor = cursor;
+        this.leaves = new Leaf[leafCount];
+        for (int i = 0; i < leafCount; i++) {
+            leaves[i] = new Leaf();
+        }
+    }
+
+    /**
+     * @return 所有成员的最小值，没有成员时为游标值
+     */
+    @Override
+    public long get() {
+        // 没有成员时没有消费者推进最小值，直接取游标
+        return 0 == size.get() ? cursor.getCursor() : minimum.get();
+    }
+
+    /**
+     * 无锁地创建并加入一个成员序列，序列从当前游标值开始
+     *
+     * @return 新的成员序列，交给消费者作为它的消费进度
+     */
+    public Sequence newSequence() {
+        final Leaf leaf = leaves[(nextLeaf.getAndIncrement() & Integer.MAX_VALUE) % leaves.length];
+        final Member member = new Member(leaf);
+        SequenceGroups.addSequences(leaf, LEAF_UPDATER, cursor, member);
+        size.incrementAndGet();
+        // 叶子的最小值可能是之前的成员留下的
+        leaf.refresh();
+        return member;
+    }
+
+    /**
+     * 无锁地删除成员序列
+     *
+     * @param sequence 删除的序列
+     * @return {@code true} 删除成功，序列不是本树的成员时为 {@code false}
+     */
+    public boolean removeSequence(final Sequence sequence) {
+        if (!(sequence instanceof Member) || ((Member) sequence).tree() != this) {
+            return false;
+        }
+        final Leaf leaf = ((Member) sequence).leaf;
+        if (!SequenceGroups.removeSequence(leaf, LEAF_UPDATER, sequence)) {
+            return false;
+        }
+        size.decrementAndGet();
+        // 删除的可能是瓶颈成员，叶子变空时根节点不再计入它
+        leaf.refresh();
+        refresh();
+        return true;
+    }
+
+    /**
+     * @return 成员总数
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @param sequences 序列
+     * @return 序列恰好是同一棵树的全部成员时返回这棵树，否则为 {@code null}
+     */
+    static SequenceTree of(final Sequence[] sequences) {
+        if (0 == sequences.length || !(sequences[0] instanceof Member)) {
+            return null;
+        }
+        final SequenceTree tree = ((Member) sequences[0]).tree();
+        for (Sequence sequence : sequences) {
+            if (!(sequence instanceof Member) || ((Member) sequence).tree() != tree) {
+                return null;
+            }
+        }
+        return tree.size() == sequences.length ? tree : null;
+    }
+
+    /**
+     * 叶子最小值被抬高后调用
+     *
+     * @param previous 叶子原来的最小值
+     */
+    private void leafAdvanced(final long previous) {
+        // 叶子原来高于根节点时不可能是瓶颈
+        if (previous <= minimum.get()) {
+            refresh();
+        }
+    }
+
+    /**
+     * 重新计算根节点的最小值，抬高成功后再计算一次，直到没有变化
+     */
+    private void refresh() {
+        while (true) {
+            final long current = minimum.get();
+            long scanned = Long.MAX_VALUE;
+            for (Leaf leaf : leaves) {
+                if (0 != leaf.sequences.length) {
+                    scanned = Math.min(scanned, leaf.minimum.get());
+                }
+            }
+            // 没有非空叶子时保持原值，由 get() 返回游标
+            if (Long.MAX_VALUE == scanned || scanned <= current) {
+                return;
+            }
+            minimum.compareAndSet(current, scanned);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SequenceTree{minimum=").append(minimum);
+        for (Leaf leaf : leaves) {
+            sb.append(", ").append(leaf.minimum).append(Arrays.toString(leaf.sequences));
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * 不做任何事。成员序列属于各自的消费者，作为门控序列加入时被设置为游标值会跳过未消费的插槽。
+     *
+     * @param value 忽略
+     */
+    @Override
+    public void set(long value) {
+    }
+
+    /**
+     * 不支持
+     */
+    @Override
+    public boolean compareAndSet(long expectedValue, long newValue) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 不支持
+     */
+    @Override
+    public long incrementAndGet() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 不支持
+     */
+    @Override
+    public long addAndGet(long increment) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 叶子节点：一组成员序列和它们的最小值
+     */
+    final class Leaf {
+
+        /**
+         * 成员序列，由 {@link #LEAF_UPDATER} 原子替换
+         */
+        volatile Sequence[] sequences = new Sequence[0];
+
+        /**
+         * 成员最小值的下界，只增不减
+         */
+        final Sequence minimum = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+        /**
+         * 成员推进后调用
+         *
+         * @param previous 成员原来的值
+         */
+        void memberAdvanced(final long previous) {
+            // 成员原来高于叶子最小值时不可能是瓶颈
+            if (previous <= minimum.get()) {
+                refresh();
+            }
+        }
+
+        /**
+         * 重新计算叶子的最小值，抬高成功后再计算一次，直到没有变化；
+         * 再次计算保证与抬高前已读取过的成员并发推进时不会错过它。
+         */
+        void refresh() {
+            while (true) {
+                final long current = minimum.get();
+                final Sequence[] sequences = this.sequences;
+                if (0 == sequences.length) {
+                    return;
+                }
+                final long scanned = Util.getMinimumSequence(sequences);
+                if (scanned <= current) {
+                    return;
+                }
+                if (minimum.compareAndSet(current, scanned)) {
+                    leafAdvanced(current);
+                }
+            }
+        }
+    }
+
+    /**
+     * 成员序列，写入后通知所在的叶子
+     */
+    private final class Member extends Sequence {
+
+        private final Leaf leaf;
+
+        private Member(final Leaf leaf) {
+            this.leaf = leaf;
+        }
+
+        private SequenceTree tree() {
+            return SequenceTree.this;
+        }
+
+        /**
+         * 以 volatile 方式写入，再检查叶子的最小值
+         */
+        @Override
+        public void set(final long value) {
+            setVolatile(value);
+        }
+
+        @Override
+        public void setVolatile(final long value) {
+            final long previous = get();
+            super.setVolatile(value);
+            leaf.memberAdvanced(previous);
+        }
+
+        @Override
+        public boolean compareAndSet(final long expectedValue, final long newValue) {
+            if (super.compareAndSet(expectedValue, newValue)) {
+                leaf.memberAdvanced(expectedValue);
+                return true;
+            }
+            return false;
+        }
+    }
+}
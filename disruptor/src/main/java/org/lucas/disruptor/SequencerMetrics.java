@@ -0,0 +1,66 @@
+package org.lucas.disruptor;
+
+/**
+ * 生产者端的运行指标。
+ * <p>
+ * 通过 {@link AbstractSequencer#setMetrics(SequencerMetrics)} 启用后，
+ * 只在缓冲区已满、生产者进入等待的路径上更新，不影响正常的申请路径。
+ * 计数器使用填充过的 {@link Sequence}，多个生产者通过 CAS 更新。
+ */
+public final class SequencerMetrics implements SequencerMetricsMBean {
+
+    private final Sequencer sequencer;
+
+    private final Sequence stallCount = new Sequence(0);
+
+    private final Sequence stallTimeNanos = new Sequence(0);
+
+    public SequencerMetrics(final Sequencer sequencer) {
+        this.sequencer = sequencer;
+    }
+
+    /**
+     * 记录一次生产者等待
+     *
+     * @param nanos 等待的纳秒数
+     */
+    void onStall(final long nanos) {
+        stallCount.incrementAndGet();
+        stallTimeNanos.addAndGet(nanos);
+    }
+
+    @Override
+    public long getStallCount() {
+        return stallCount.get();
+    }
+
+    @Override
+    public long getStallTimeNanos() {
+        return stallTimeNanos.get();
+    }
+
+    @Override
+    public long getRemainingCapacity() {
+        return sequencer.remainingCapacity();
+    }
+
+    @Override
+    public int getBufferSize() {
+        return sequencer.getBufferSize();
+    }
+
+    @Override
+    public long getCursor() {
+        return sequencer.getCursor();
+    }
+
+    @Override
+    public String toString() {
+        return "SequencerMetrics{" +
+                "stallCount=" + stallCount +
+                ", stallTimeNanos=" + stallTimeNanos +
+                ", remainingCapacity=" + getRemainingCapacity() +
+                '}';
+    }
+
+}
@@ -0,0 +1,30 @@
+package org.lucas.disruptor;
+
+/**
+ * 生产者端的运行指标，通过 JMX 读取
+ */
+public interface SequencerMetricsMBean {
+
+    /**
+     * @return 缓冲区已满导致生产者等待的次数
+     */
+    long getStallCount();
+
+    /**
+     * @return 生产者累计等待的纳秒数
+     */
+    long getStallTimeNanos();
+
+    /**
+     * @return 剩余容量
+     */
+    long getRemainingCapacity();
+
+    int getBufferSize();
+
+    /**
+     * @return 生产者游标
+     */
+    long getCursor();
+
+}
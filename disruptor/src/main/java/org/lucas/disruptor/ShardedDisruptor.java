@@ -0,0 +1,218 @@
+package org.lucas.disruptor;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 按 key 哈希分片的 Disruptor。
+ * <p>
+ * 由 N 个独立的 {@link Disruptor} 组成，每个分片有自己的 {@link RingBuffer}、序号生成器和消费者。
+ * 相同 key 的事件总是发布到同一个分片，所以同一个 key 的事件保持顺序，不同 key 的事件可以并行处理，
+ * 同时避免所有生产者竞争同一个游标。
+ *
+ * @param <T> 事件类型
+ */
+public class ShardedDisruptor<T> {
+
+    private final Disruptor<T>[] shards;
+
+    private final int shardMask;
+
+    /**
+     * @param shardCount     分片数，必须是2的幂次方
+     * @param eventFactory   事件工厂
+     * @param ringBufferSize 每个分片的缓冲区大小，必须是2的幂次方
+     * @param threadFactory  消费者线程工厂
+     * @param producerType   每个分片的生产者类型
+     * @param waitStrategy   每个分片的等待策略，每个分片创建一个新实例
+     */
+    public ShardedDisruptor(final int shardCount, final EventFactory<T> eventFactory, final int ringBufferSize,
+                            final ThreadFactory threadFactory, final ProducerType producerType,
+                            final Supplier<? extends WaitStrategy> waitStrategy) {
+        if (shardCount < 1 || Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("shardCount must be a power of 2");
+        }
+        // 泛型数组只能通过原始类型创建
+        @SuppressWarnings({"unchecked", "rawtypes"}) final Disruptor<T>[] shards = new Disruptor[shardCount];
+        this.shards = shards;
+        this.shardMask = shardCount - 1;
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Disruptor<>(eventFactory, ringBufferSize, threadFactory, producerType, waitStrategy.get());
+        }
+    }
+
+    /**
+     * 为每个分片添加事件处理器。每个分片需要独立的处理器实例，由 handlerFactory 按分片下标创建。
+     *
+     * @param handlerFactory 事件处理器工厂，参数为分片下标
+     */
+    public void handleEventsWith(final ShardHandlerFactory<T> handlerFactory) {
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].handleEventsWith(handlerFactory.newHandler(i));
+        }
+    }
+
+    /**
+     * @param index 分片下标
+     * @return 分片，用于构建更复杂的消费者依赖关系
+     */
+    public Disruptor<T> shard(final int index) {
+        return shards[index];
+    }
+
+    /**
+     * @return 分片数
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * 启动所有分片
+     */
+    public void start() {
+        for (Disruptor<T> shard : shards) {
+            shard.start();
+        }
+    }
+
+    /**
+     * 立即停止所有分片
+     */
+    public void halt() {
+        for (Disruptor<T> shard : shards) {
+            shard.halt();
+        }
+    }
+
+    /**
+     * 等待所有分片处理完已发布的事件后停止，超时时间为所有分片共用的总时间。
+     * <p>
+     * 某个分片超时不影响其它分片：每个分片都会尝试停止，全部尝试完后再抛出超时异常，
+     * 与 {@link Disruptor#shutdown(long, TimeUnit)} 一样，超时的分片不会被停止。
+     *
+     * @param timeout  超时时间，小于0表示一直等待
+     * @param timeUnit 时间单位
+     * @throws TimeoutException 超时仍有分片未处理完
+     */
+    public void shutdown(final long timeout, final TimeUnit timeUnit) throws TimeoutException {
+        final long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        TimeoutException timedOut = null;
+        for (Disruptor<T> shard : shards) {
+            final long remainingMillis = timeout < 0
+                    ? -1L : Math.max(0L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+            try {
+                shard.shutdown(remainingMillis, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException e) {
+                if (null == timedOut) {
+                    timedOut = e;
+                }
+            }
+        }
+        if (null != timedOut) {
+            throw timedOut;
+        }
+    }
+
+    /**
+     * @param key 事件 key
+     * @return key 所在的分片下标
+     */
+    public int shardFor(final Object key) {
+        int h = key.hashCode();
+        // 与 HashMap 相同的扰动，避免低位相同的 key 集中在同一个分片
+        h ^= (h >>> 16);
+        return h & shardMask;
+    }
+
+    /**
+     * @param key 事件 key
+     * @return key 所在分片的 RingBuffer
+     */
+    public RingBuffer<T> ringBufferFor(final Object key) {
+        return shards[shardFor(key)].getRingBuffer();
+    }
+
+    /**
+     * 发布事件到 key 所在的分片
+     *
+     * @param key        事件 key
+     * @param translator 事件转换器
+     * @param arg0       事件参数
+     */
+    public <A> void publishEvent(final Object key, final EventTranslatorOneArg<T, A> translator, final A arg0) {
+        ringBufferFor(key).publishEvent(translator, arg0);
+    }
+
+    /**
+     * 发布事件到 key 所在的分片，缓冲区已满时不等待。
+     *
+     * @param key        事件 key
+     * @param translator 事件转换器
+     * @param arg0       事件参数
+     * @return {@code true} 发布成功
+     */
+    public <A> boolean tryPublishEvent(final Object key, final EventTranslatorOneArg<T, A> translator,
+                                       final A arg0) {
+        return ringBufferFor(key).tryPublishEvent(translator, arg0);
+    }
+
+    /**
+     * @return 所有分片的总容量
+     */
+    public long getBufferSize() {
+        long bufferSize = 0;
+        for (Disruptor<T> shard : shards) {
+            bufferSize += shard.getBufferSize();
+        }
+        return bufferSize;
+    }
+
+    /**
+     * @return 所有分片的剩余容量之和
+     */
+    public long remainingCapacity() {
+        long remaining = 0;
+        for (Disruptor<T> shard : shards) {
+            remaining += shard.getRingBuffer().remainingCapacity();
+        }
+        return remaining;
+    }
+
+    /**
+     * @return 所有分片已发布但未被末端消费者处理的事件数之和
+     */
+    public long getLag() {
+        long lag = 0;
+        for (int i = 0; i < shards.length; i++) {
+            lag += getLag(i);
+        }
+        return lag;
+    }
+
+    /**
+     * @param index 分片下标
+     * @return 该分片已发布但未被末端消费者处理的事件数
+     */
+    public long getLag(final int index) {
+        final RingBuffer<T> ringBuffer = shards[index].getRingBuffer();
+        return ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
+    }
+
+    /**
+     * 为每个分片创建事件处理器
+     *
+     * @param <T> 事件类型
+     */
+    @FunctionalInterface
+    public interface ShardHandlerFactory<T> {
+
+        /**
+         * @param shard 分片下标
+         * @return 该分片使用的事件处理器
+         */
+        EventHandler<? super T> newHandler(int shard);
+    }
+
+}
@@ -0,0 +1,219 @@
+package org.lucas.disruptor;
+
+import org.lucas.disruptor.util.Util;
+
+import java.util.concurrent.locks.LockSupport;
+
+abstract class SingleProducerSequencerPad extends AbstractSequencer {
+    /**
+     * 缓存行左填充.
+     */
+    protected long p1, p2, p3, p4, p5, p6, p7;
+
+    SingleProducerSequencerPad(int bufferSize, WaitStrategy waitStrategy) {
+        super(bufferSize, waitStrategy);
+    }
+}
+
+abstract class SingleProducerSequencerFields extends SingleProducerSequencerPad {
+
+    SingleProducerSequencerFields(int bufferSize, WaitStrategy waitStrategy) {
+        super(bufferSize, waitStrategy);
+    }
+
+    /**
+     * 生产者已申请的序号，只有生产者线程读写，不需要内存屏障。
+     */
+    long nextValue = Sequence.INITIAL_VALUE;
+
+    /**
+     * 缓存的最慢消费者序号，避免每次申请都遍历 gatingSequences。
+     */
+    long cachedValue = Sequence.INITIAL_VALUE;
+}
+
+/**
+ * 单生产者序号生成器。
+ * <p>
+ * 只允许一个线程调用 {@link #next()}，申请序号不需要 CAS，
+ * 发布时只对 {@link #cursor} 做一次有序写入。
+ */
+public final class SingleProducerSequencer extends SingleProducerSequencerFields {
+
+    /**
+     * 缓存行右填充.
+     */
+    protected long p1, p2, p3, p4, p5, p6, p7;
+
+    /**
+     * 指定大小和等待策略构建一个序列器
+     *
+     * @param bufferSize   缓冲区大小
+     * @param waitStrategy 等待策略
+     */
+    public SingleProducerSequencer(int bufferSize, WaitStrategy waitStrategy) {
+        super(bufferSize, waitStrategy);
+    }
+
+    /**
+     * @see Sequencer#hasAvailableCapacity(int)
+     */
+    @Override
+    public boolean hasAvailableCapacity(int requiredCapacity) {
+        return hasAvailableCapacity(requiredCapacity, false);
+    }
+
+    /**
+     * 判断是否有足够的容量
+     *
+     * @param requiredCapacity 需要容量
+     * @param doStore          是否需要将 nextValue 写入 cursor（插入 Store/Load 屏障）
+     * @return 是否有效容量
+     */
+    private boolean hasAvailableCapacity(int requiredCapacity, boolean doStore) {
+        long nextValue = this.nextValue;
+
+        long wrapPoint = (nextValue + requiredCapacity) - bufferSize;
+        long cachedGatingSequence = this.cachedValue;
+
+        if (wrapPoint > cachedGatingSequence || cachedGatingSequence > nextValue) {
+            if (doStore) {
+                // 插入 Store/Load 屏障，保证消费者能看到最新的 cursor
+                cursor.setVolatile(nextValue);
+            }
+
+            long minSequence = Util.getMinimumSequence(gatingSequences, nextValue);
+            this.cachedValue = minSequence;
+
+            if (wrapPoint > minSequence) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see #next(int)
+     */
+    @Override
+    public long next() {
+        return next(1);
+    }
+
+    /**
+     * 申请 n 个序号，缓冲区已满时等待消费者让出插槽。
+     *
+     * @param n 需要申请的个数
+     * @return 申请到的最大序号
+     */
+    @Override
+    public long next(int n) {
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException("n must be > 0 and < bufferSize");
+        }
+
+        long nextValue = this.nextValue;
+
+        long nextSequence = nextValue + n;
+        long wrapPoint = nextSequence - bufferSize;
+        long cachedGatingSequence = this.cachedValue;
+
+        if (wrapPoint > cachedGatingSequence || cachedGatingSequence > nextValue) {
+            // 插入 Store/Load 屏障
+            cursor.setVolatile(nextValue);
+
+            long minSequence = Util.getMinimumSequence(gatingSequences, nextValue);
+            if (wrapPoint > minSequence) {
+                final long stallStart = System.nanoTime();
+                do {
+                    // 添加休眠，等待消费者让出插槽
+                    LockSupport.parkNanos(1);
+                }
+                while (wrapPoint > (minSequence = Util.getMinimumSequence(gatingSequences, nextValue)));
+                recordStall(stallStart);
+            }
+
+            this.cachedValue = minSequence;
+        }
+
+        this.nextValue = nextSequence;
+
+        return nextSequence;
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException {
+        return tryNext(1);
+    }
+
+    @Override
+    public long tryNext(int n) throws InsufficientCapacityException {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+
+        if (!hasAvailableCapacity(n, true)) {
+            throw InsufficientCapacityException.INSTANCE;
+        }
+
+        return this.nextValue += n;
+    }
+
+    /**
+     * @return 剩余容量 = 缓冲区大小 - (已申请的序号 - 最慢的消费者序号)
+     */
+    @Override
+    public long remainingCapacity() {
+        long nextValue = this.nextValue;
+
+        long consumed = Util.getMinimumSequence(gatingSequences, nextValue);
+        long produced = nextValue;
+        return getBufferSize() - (produced - consumed);
+    }
+
+    /**
+     * 仅在环缓冲区初始化为特定值时使用。
+     *
+     * @param sequence 序列值
+     */
+    @Override
+    public void claim(long sequence) {
+        this.nextValue = sequence;
+    }
+
+    /**
+     * 通过一次有序写入 cursor 发布序号，并唤醒等待的消费者。
+     *
+     * @param sequence 已填充完数据的序号
+     */
+    @Override
+    public void publish(long sequence) {
+        // 插入 Store/Store 内存屏障
+        cursor.set(sequence);
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    /**
+     * 单生产者按顺序发布，直接发布 hi 即可。
+     *
+     * @see #publish(long)
+     */
+    @Override
+    public void publish(long lo, long hi) {
+        publish(hi);
+    }
+
+    /**
+     * 单生产者按顺序发布，cursor 之前的序号都已可用。
+     */
+    @Override
+    public boolean isAvailable(long sequence) {
+        return sequence <= cursor.get();
+    }
+
+    @Override
+    public long getHighestPublishedSequence(long lowerBound, long availableSequence) {
+        return availableSequence;
+    }
+
+}
@@ -0,0 +1,87 @@
+package org.lucas.disruptor;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 休眠等待策略。
+ * <p>
+ * 先自旋，再调用 {@link Thread#yield()}，最后每次循环 {@link LockSupport#parkNanos(long)}。
+ * 空闲时 CPU 占用低，生产者不需要唤醒消费者，适用于对延迟不敏感的场景（如异步日志）。
+ */
+public final class SleepingWaitStrategy implements WaitStrategy {
+
+    private static final int DEFAULT_RETRIES = 200;
+
+    private static final long DEFAULT_SLEEP = 100;
+
+    /**
+     * 自旋 + 让出 CPU 的总次数，后一半次数调用 {@link Thread#yield()}
+     */
+    private final int retries;
+
+    /**
+     * 每次休眠的纳秒数
+     */
+    private final long sleepTimeNs;
+
+    public SleepingWaitStrategy() {
+        this(DEFAULT_RETRIES, DEFAULT_SLEEP);
+    }
+
+    public SleepingWaitStrategy(int retries) {
+        this(retries, DEFAULT_SLEEP);
+    }
+
+    /**
+     * @param retries     休眠之前的重试次数
+     * @param sleepTimeNs 每次休眠的纳秒数
+     */
+    public SleepingWaitStrategy(int retries, long sleepTimeNs) {
+        this.retries = retries;
+        this.sleepTimeNs = sleepTimeNs;
+    }
+
+    @Override
+    public long waitFor(final long sequence, Sequence cursor, final Sequence dependentSequence,
+                        final SequenceBarrier barrier) throws AlertException {
+        long availableSequence;
+        int counter = retries;
+
+        while ((availableSequence = dependentSequence.get()) < sequence) {
+            counter = applyWaitMethod(barrier, counter);
+        }
+
+        return availableSequence;
+    }
+
+    /**
+     * 消费者不会阻塞在锁上，不需要唤醒。
+     */
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+
+    private int applyWaitMethod(final SequenceBarrier barrier, int counter) throws AlertException {
+        barrier.checkAlert();
+
+        if (counter > 100) {
+            --counter;
+        } else if (counter > 0) {
+            --counter;
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(sleepTimeNs);
+        }
+
+        return counter;
+    }
+
+    @Override
+    public String toString() {
+        return "SleepingWaitStrategy{" +
+                "retries=" + retries +
+                ", sleepTimeNs=" + sleepTimeNs +
+                '}';
+    }
+
+}
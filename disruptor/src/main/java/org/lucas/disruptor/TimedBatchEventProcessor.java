@@ -0,0 +1,257 @@
+package org.lucas.disruptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按数量或时间攒批的事件处理器，适用于写文件、写网络等适合批量提交的 I/O 处理器。
+ * <p>
+ * {@link BatchEventProcessor} 的批次大小取决于等待时已发布的事件数，流量低时每个事件都是一个批次；
+ * 本类把事件攒到 maxBatch 个，或者距第一个攒下的事件已过 maxDelay 时，才一次性交给 {@link Handler}：
+ * <ul>
+ * <li>没有攒下事件时无超时地等待，空闲时不会被定时唤醒；</li>
+ * <li>攒下事件后通过 {@link SequenceBarrier#waitFor(long, long, TimeUnit)} 只等待到截止时间，超时即提交；</li>
+ * <li>流量高时每批都是 maxBatch 个，流量低时每个事件最多延迟 maxDelay。</li>
+ * </ul>
+ * 事件不复制，批次中的事件仍然是缓冲区里的插槽，处理器的 {@link Sequence} 在批次提交后才更新，
+ * 因此提交前插槽不会被生产者覆盖。halt 时会先提交已攒下的事件。
+ *
+ * @param <T> 事件类型
+ */
+public final class TimedBatchEventProcessor<T> implements EventProcessor {
+
+    /**
+     * 批量事件处理回调
+     *
+     * @param <T> 事件类型
+     */
+    @FunctionalInterface
+    public interface Handler<T> {
+
+        /**
+         * 处理一个批次，返回后列表会被清空复用，不能在回调之外持有。
+         *
+         * @param events        批次中的事件，按序号排列
+         * @param firstSequence 第一个事件的序号
+         * @param lastSequence  最后一个事件的序号
+         * @throws Exception 交由 {@link ExceptionHandler} 处理，整个批次被跳过
+         */
+        void onBatch(List<T> events, long firstSequence, long lastSequence) throws Exception;
+    }
+
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+
+    /**
+     * 处理器运行状态
+     */
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+
+    private ExceptionHandler<? super T> exceptionHandler = new FatalExceptionHandler();
+
+    private final DataProvider<T> dataProvider;
+
+    private final SequenceBarrier sequenceBarrier;
+
+    private final Handler<T> handler;
+
+    private final int maxBatch;
+
+    private final long maxDelayNanos;
+
+    /**
+     * 攒下的事件，提交后清空复用
+     */
+    private final List<T> batch;
+
+    /**
+     * 传给回调的只读视图
+     */
+    private final List<T> batchView;
+
+    /**
+     * 处理器的消费进度，即最后一个已提交批次的最大序号
+     */
+    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    /**
+     * @param dataProvider    事件数据源，通常是 {@link RingBuffer}
+     * @param sequenceBarrier 序号屏障
+     * @param handler         批量事件处理回调
+     * @param maxBatch        每批最多的事件数，不能超过缓冲区大小
+     * @param maxDelay        第一个事件攒下后最多等待的时间
+     * @param unit            maxDelay 的时间单位
+     */
+    public TimedBatchEventProcessor(final DataProvider<T> dataProvider, final SequenceBarrier sequenceBarrier,
+                                    final Handler<T> handler, final int maxBatch,
+                                    final long maxDelay, final TimeUnit unit) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be > 0");
+        }
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException("maxDelay must be >= 0");
+        }
+        this.dataProvider = dataProvider;
+        this.sequenceBarrier = sequenceBarrier;
+        this.handler = handler;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.batch = new ArrayList<>(maxBatch);
+        this.batchView = Collections.unmodifiableList(batch);
+    }
+
+    @Override
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void halt() {
+        running.set(HALTED);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get() != IDLE;
+    }
+
+    /**
+     * 设置异常处理器，默认为 {@link FatalExceptionHandler}
+     *
+     * @param exceptionHandler 异常处理器
+     */
+    public void setExceptionHandler(final ExceptionHandler<? super T> exceptionHandler) {
+        if (null == exceptionHandler) {
+            throw new NullPointerException();
+        }
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * 处理器主循环，直到 {@link #halt()} 被调用。
+     *
+     * @throws IllegalStateException 处理器已经在运行
+     */
+    @Override
+    public void run() {
+        if (running.compareAndSet(IDLE, RUNNING)) {
+            sequenceBarrier.clearAlert();
+
+            notifyStart();
+            try {
+                if (running.get() == RUNNING) {
+                    processEvents();
+                }
+            } finally {
+                notifyShutdown();
+                running.set(IDLE);
+            }
+        } else {
+            // 已在运行时报错；在启动前被 halt 时不处理事件，只通知生命周期回调，状态保持为 HALTED
+            if (running.get() == RUNNING) {
+                throw new IllegalStateException("Thread is already running");
+            } else {
+                earlyExit();
+            }
+        }
+    }
+
+    private void processEvents() {
+        long nextSequence = sequence.get() + 1L;
+        // 本批次的截止时间，批次为空时无意义
+        long deadline = 0L;
+
+        while (true) {
+            try {
+                final long availableSequence;
+                if (batch.isEmpty()) {
+                    availableSequence = sequenceBarrier.waitFor(nextSequence);
+                } else {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        flush(nextSequence - 1L);
+                        continue;
+                    }
+                    availableSequence = sequenceBarrier.waitFor(nextSequence, remaining, TimeUnit.NANOSECONDS);
+                }
+
+                final long endSequence = Math.min(availableSequence, nextSequence + maxBatch - batch.size() - 1L);
+                if (batch.isEmpty() && nextSequence <= endSequence) {
+                    deadline = System.nanoTime() + maxDelayNanos;
+                }
+                while (nextSequence <= endSequence) {
+                    batch.add(dataProvider.get(nextSequence));
+                    nextSequence++;
+                }
+
+                if (batch.size() >= maxBatch) {
+                    flush(nextSequence - 1L);
+                }
+            } catch (final TimeoutException e) {
+                // 已到截止时间，提交不足 maxBatch 的批次
+                flush(nextSequence - 1L);
+            } catch (final AlertException ex) {
+                if (running.get() != RUNNING) {
+                    flush(nextSequence - 1L);
+                    break;
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                flush(nextSequence - 1L);
+                break;
+            }
+        }
+    }
+
+    /**
+     * 提交攒下的事件并更新消费进度，回调抛出异常时跳过整个批次。
+     *
+     * @param lastSequence 批次中最后一个事件的序号
+     */
+    private void flush(final long lastSequence) {
+        final int size = batch.size();
+        if (0 == size) {
+            return;
+        }
+        final long firstSequence = lastSequence - size + 1L;
+        try {
+            handler.onBatch(batchView, firstSequence, lastSequence);
+        } catch (final Throwable ex) {
+            exceptionHandler.handleEventException(ex, firstSequence, batch.get(0));
+        } finally {
+            batch.clear();
+        }
+        sequence.set(lastSequence);
+    }
+
+    private void earlyExit() {
+        notifyStart();
+        notifyShutdown();
+    }
+
+    private void notifyStart() {
+        if (handler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) handler).onStart();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnStartException(ex);
+            }
+        }
+    }
+
+    private void notifyShutdown() {
+        if (handler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) handler).onShutdown();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnShutdownException(ex);
+            }
+        }
+    }
+
+}
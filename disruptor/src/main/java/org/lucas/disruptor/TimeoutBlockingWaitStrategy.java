@@ -0,0 +1,135 @@
+package org.lucas.disruptor;
+
+import org.lucas.disruptor.util.ThreadHints;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带超时的阻塞等待策略。
+ * <p>
+ * 与 {@link BlockingWaitStrategy} 相同，但等待超过指定时间后抛出 {@link TimeoutException}，
+ * 事件处理器可以借此在空闲时执行定时任务（如刷新部分批次）。
+ */
+public class TimeoutBlockingWaitStrategy implements WaitStrategy {
+
+    private final Object mutex = new Object();
+
+    private final long timeoutInNanos;
+
+    /**
+     * @param timeout 超时时间
+     * @param units   时间单位
+     */
+    public TimeoutBlockingWaitStrategy(final long timeout, final TimeUnit units) {
+        timeoutInNanos = units.toNanos(timeout);
+    }
+
+    @Override
+    public long waitFor(final long sequence, final Sequence cursorSequence, final Sequence dependentSequence,
+                        final SequenceBarrier barrier) throws AlertException, InterruptedException, TimeoutException {
+        long timeoutNanos = timeoutInNanos;
+
+        long availableSequence;
+        if (cursorSequence.get() < sequence) {
+            synchronized (mutex) {
+                while (cursorSequence.get() < sequence) {
+                    barrier.checkAlert();
+                    timeoutNanos = awaitNanos(mutex, timeoutNanos);
+                    if (timeoutNanos <= 0) {
+                        throw TimeoutException.INSTANCE;
+                    }
+                }
+            }
+        }
+
+        while ((availableSequence = dependentSequence.get()) < sequence) {
+            barrier.checkAlert();
+            ThreadHints.onSpinWait();
+        }
+
+        return availableSequence;
+    }
+
+    /**
+     * 以调用方指定的超时时间代替构造时的超时时间
+     */
+    @Override
+    public long waitFor(final long sequence, final Sequence cursorSequence, final Sequence dependentSequence,
+                        final SequenceBarrier barrier, long timeoutNanos)
+            throws AlertException, InterruptedException, TimeoutException {
+        final long deadline = System.nanoTime() + timeoutNanos;
+        if (cursorSequence.get() < sequence) {
+            synchronized (mutex) {
+                while (cursorSequence.get() < sequence) {
+                    barrier.checkAlert();
+                    if (timeoutNanos <= 0) {
+                        throw TimeoutException.INSTANCE;
+                    }
+                    timeoutNanos = awaitNanos(mutex, timeoutNanos);
+                }
+            }
+        }
+
+        // 依赖的上游消费者落后时同样受超时约束
+        return spinUntil(sequence, dependentSequence, barrier, deadline);
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        synchronized (mutex) {
+            mutex.notifyAll();
+        }
+    }
+
+    /**
+     * 在 mutex 上等待指定纳秒数，调用方必须持有 mutex 锁。
+     *
+     * @param mutex        锁对象
+     * @param timeoutNanos 等待的纳秒数
+     * @return 剩余的纳秒数
+     * @throws InterruptedException 线程被中断
+     */
+    static long awaitNanos(final Object mutex, final long timeoutNanos) throws InterruptedException {
+        long millis = timeoutNanos / 1_000_000;
+        long nanos = timeoutNanos % 1_000_000;
+
+        long t0 = System.nanoTime();
+        mutex.wait(millis, (int) nanos);
+        long t1 = System.nanoTime();
+
+        return timeoutNanos - (t1 - t0);
+    }
+
+    /**
+     * 自旋等待依赖序列，超过截止时间后抛出 {@link TimeoutException}。
+     *
+     * @param sequence          等待的序号
+     * @param dependentSequence 依赖的序列
+     * @param barrier           序号屏障
+     * @param deadline          截止时间，{@link System#nanoTime()} 的值
+     * @return 可用的最大序号
+     * @throws AlertException   屏障被 alert
+     * @throws TimeoutException 超过截止时间
+     */
+    static long spinUntil(final long sequence, final Sequence dependentSequence, final SequenceBarrier barrier,
+                          final long deadline) throws AlertException, TimeoutException {
+        long availableSequence;
+        while ((availableSequence = dependentSequence.get()) < sequence) {
+            barrier.checkAlert();
+            if (System.nanoTime() - deadline >= 0) {
+                throw TimeoutException.INSTANCE;
+            }
+            ThreadHints.onSpinWait();
+        }
+        return availableSequence;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeoutBlockingWaitStrategy{" +
+                "mutex=" + mutex +
+                ", timeoutInNanos=" + timeoutInNanos +
+                '}';
+    }
+
+}
@@ -1,10 +1,51 @@
 package org.lucas.disruptor;
 
+import org.lucas.disruptor.util.ThreadHints;
+
+import java.util.concurrent.locks.LockSupport;
+
 public interface WaitStrategy {
 
     long waitFor(long sequence, Sequence cursor, Sequence dependentSequence, SequenceBarrier barrier)
             throws AlertException, InterruptedException, TimeoutException;
 
+    /**
+     * 最多等待 timeoutNanos 纳秒，超时后抛出 {@link TimeoutException}。
+     * <p>
+     * 默认实现依次自旋、让出 CPU、短暂休眠轮询依赖序列；阻塞类策略覆盖为带超时的 wait，仍由生产者唤醒。
+     *
+     * @param sequence          等待的序号
+     * @param cursor            生产者游标
+     * @param dependentSequence 依赖的序列
+     * @param barrier           序号屏障
+     * @param timeoutNanos      超时纳秒数
+     * @return 可用的最大序号
+     * @throws TimeoutException 等待超时
+     */
+    default long waitFor(long sequence, Sequence cursor, Sequence dependentSequence, SequenceBarrier barrier,
+                         long timeoutNanos) throws AlertException, InterruptedException, TimeoutException {
+        final long deadline = System.nanoTime() + timeoutNanos;
+        int counter = 0;
+        long availableSequence;
+        while ((availableSequence = dependentSequence.get()) < sequence) {
+            barrier.checkAlert();
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw TimeoutException.INSTANCE;
+            }
+            if (counter < 100) {
+                counter++;
+                ThreadHints.onSpinWait();
+            } else if (counter < 200) {
+                counter++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(Math.min(remaining, 100_000L));
+            }
+        }
+        return availableSequence;
+    }
+
     void signalAllWhenBlocking();
 
 }
@@ -0,0 +1,19 @@
+package org.lucas.disruptor;
+
+/**
+ * 工作处理器，由 {@link WorkProcessor} 回调。
+ * <p>
+ * 同一个 {@link WorkerPool} 中的多个 WorkHandler 竞争消费，每个事件只会被其中一个处理。
+ *
+ * @param <T> 事件类型
+ */
+@FunctionalInterface
+public interface WorkHandler<T> {
+
+    /**
+     * @param event 事件
+     * @throws Exception 交由 {@link ExceptionHandler} 处理
+     */
+    void onEvent(T event) throws Exception;
+
+}
@@ -0,0 +1,143 @@
+package org.lucas.disruptor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 竞争消费处理器。
+ * <p>
+ * 多个 WorkProcessor 共享同一个 workSequence，每次通过 CAS 抢占下一个序号，
+ * 保证每个事件只被处理一次。
+ *
+ * @param <T> 事件类型
+ */
+public final class WorkProcessor<T> implements EventProcessor {
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * 处理器的消费进度
+     */
+    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private final RingBuffer<T> ringBuffer;
+
+    private final SequenceBarrier sequenceBarrier;
+
+    private final WorkHandler<? super T> workHandler;
+
+    private final ExceptionHandler<? super T> exceptionHandler;
+
+    /**
+     * 所有 WorkProcessor 共享的工作序号
+     */
+    private final Sequence workSequence;
+
+    /**
+     * @param ringBuffer       事件数据源
+     * @param sequenceBarrier  序号屏障
+     * @param workHandler      工作处理器
+     * @param exceptionHandler 异常处理器
+     * @param workSequence     共享的工作序号
+     */
+    public WorkProcessor(final RingBuffer<T> ringBuffer, final SequenceBarrier sequenceBarrier,
+                         final WorkHandler<? super T> workHandler, final ExceptionHandler<? super T> exceptionHandler,
+                         final Sequence workSequence) {
+        this.ringBuffer = ringBuffer;
+        this.sequenceBarrier = sequenceBarrier;
+        this.workHandler = workHandler;
+        this.exceptionHandler = exceptionHandler;
+        this.workSequence = workSequence;
+    }
+
+    @Override
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void halt() {
+        running.set(false);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 处理器主循环，直到 {@link #halt()} 被调用。
+     *
+     * @throws IllegalStateException 处理器已经在运行
+     */
+    @Override
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Thread is already running");
+        }
+        sequenceBarrier.clearAlert();
+
+        notifyStart();
+
+        boolean processedSequence = true;
+        long cachedAvailableSequence = Long.MIN_VALUE;
+        long nextSequence = sequence.get();
+        T event = null;
+        while (true) {
+            try {
+                // 上一个序号处理完后，才去抢占下一个序号
+                if (processedSequence) {
+                    processedSequence = false;
+                    do {
+                        nextSequence = workSequence.get() + 1L;
+                        // 释放已处理完的序号，生产者可以复用该插槽
+                        sequence.set(nextSequence - 1L);
+                    }
+                    while (!workSequence.compareAndSet(nextSequence - 1L, nextSequence));
+                }
+
+                if (cachedAvailableSequence >= nextSequence) {
+                    event = ringBuffer.get(nextSequence);
+                    workHandler.onEvent(event);
+                    processedSequence = true;
+                } else {
+                    cachedAvailableSequence = sequenceBarrier.waitFor(nextSequence);
+                }
+            } catch (final TimeoutException e) {
+                // 等待超时，继续等待下一个事件
+            } catch (final AlertException ex) {
+                if (!running.get()) {
+                    break;
+                }
+            } catch (final Throwable ex) {
+                exceptionHandler.handleEventException(ex, nextSequence, event);
+                processedSequence = true;
+            }
+        }
+
+        notifyShutdown();
+
+        running.set(false);
+    }
+
+    private void notifyStart() {
+        if (workHandler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) workHandler).onStart();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnStartException(ex);
+            }
+        }
+    }
+
+    private void notifyShutdown() {
+        if (workHandler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) workHandler).onShutdown();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnShutdownException(ex);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package org.lucas.disruptor;
+
+import org.lucas.disruptor.util.Util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 竞争消费者池。
+ * <p>
+ * 池中的 {@link WorkProcessor} 共享一个工作序号，每个事件只会被其中一个 {@link WorkHandler} 处理。
+ *
+ * @param <T> 事件类型
+ */
+public final class WorkerPool<T> {
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    /**
+     * 所有 WorkProcessor 共享的工作序号
+     */
+    private final Sequence workSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private final RingBuffer<T> ringBuffer;
+
+    private final WorkProcessor<?>[] workProcessors;
+
+    /**
+     * 创建消费者池，由调用者负责将 {@link #getWorkerSequences()} 添加到 RingBuffer 的门控序列中。
+     *
+     * @param ringBuffer       事件数据源
+     * @param sequenceBarrier  序号屏障
+     * @param exceptionHandler 异常处理器
+     * @param workHandlers     工作处理器，每个处理器对应一个线程
+     */
+    @SafeVarargs
+    public WorkerPool(final RingBuffer<T> ringBuffer, final SequenceBarrier sequenceBarrier,
+                      final ExceptionHandler<? super T> exceptionHandler, final WorkHandler<? super T>... workHandlers) {
+        this.ringBuffer = ringBuffer;
+        final int numWorkers = workHandlers.length;
+        workProcessors = new WorkProcessor<?>[numWorkers];
+
+        for (int i = 0; i < numWorkers; i++) {
+            workProcessors[i] = new WorkProcessor<>(ringBuffer, sequenceBarrier, workHandlers[i], exceptionHandler,
+                    workSequence);
+        }
+    }
+
+    /**
+     * 创建 RingBuffer 和消费者池，并将消费者序列添加到 RingBuffer 的门控序列中。
+     *
+     * @param eventFactory     事件工厂
+     * @param exceptionHandler 异常处理器
+     * @param workHandlers     工作处理器，每个处理器对应一个线程
+     */
+    @SafeVarargs
+    public WorkerPool(final EventFactory<T> eventFactory, final ExceptionHandler<? super T> exceptionHandler,
+                      final WorkHandler<? super T>... workHandlers) {
+        this(RingBuffer.createMultiProducer(eventFactory, 1024, new BlockingWaitStrategy()), exceptionHandler,
+                workHandlers);
+    }
+
+    @SafeVarargs
+    private WorkerPool(final RingBuffer<T> ringBuffer, final ExceptionHandler<? super T> exceptionHandler,
+                       final WorkHandler<? super T>... workHandlers) {
+        this(ringBuffer, ringBuffer.newBarrier(), exceptionHandler, workHandlers);
+        ringBuffer.addGatingSequences(getWorkerSequences());
+    }
+
+    /**
+     * @return 所有消费者的序列以及共享的工作序号，作为生产者的门控序列
+     */
+    public Sequence[] getWorkerSequences() {
+        final Sequence[] sequences = new Sequence[workProcessors.length + 1];
+        for (int i = 0, size = workProcessors.length; i < size; i++) {
+            sequences[i] = workProcessors[i].getSequence();
+        }
+        sequences[sequences.length - 1] = workSequence;
+
+        return sequences;
+    }
+
+    /**
+     * 启动所有消费者，从当前生产者游标之后开始消费。
+     *
+     * @param executor 消费者线程执行器
+     * @return 事件数据源
+     * @throws IllegalStateException 消费者池已启动
+     */
+    public RingBuffer<T> start(final Executor executor) {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("WorkerPool has already been started and cannot be restarted until halted.");
+        }
+
+        final long cursor = ringBuffer.getCursor();
+        workSequence.set(cursor);
+
+        for (WorkProcessor<?> processor : workProcessors) {
+            processor.getSequence().set(cursor);
+            executor.execute(processor);
+        }
+
+        return ringBuffer;
+    }
+
+    /**
+     * 等待所有已发布的事件处理完后停止消费者。
+     */
+    public void drainAndHalt() {
+        Sequence[] workerSequences = getWorkerSequences();
+        while (ringBuffer.getCursor() > Util.getMinimumSequence(workerSequences)) {
+            Thread.yield();
+        }
+
+        for (WorkProcessor<?> processor : workProcessors) {
+            processor.halt();
+        }
+
+        started.set(false);
+    }
+
+    /**
+     * 立即停止消费者，未处理的事件不再处理。
+     */
+    public void halt() {
+        for (WorkProcessor<?> processor : workProcessors) {
+            processor.halt();
+        }
+
+        started.set(false);
+    }
+
+    /**
+     * @return {@code true} 消费者池正在运行
+     */
+    public boolean isRunning() {
+        return started.get();
+    }
+
+}
@@ -0,0 +1,64 @@
+package org.lucas.disruptor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 消费者池的消费者信息
+ *
+ * @param <T> 事件类型
+ */
+class WorkerPoolInfo<T> implements ConsumerInfo {
+
+    private final WorkerPool<T> workerPool;
+
+    private final SequenceBarrier sequenceBarrier;
+
+    private boolean endOfChain = true;
+
+    WorkerPoolInfo(final WorkerPool<T> workerPool, final SequenceBarrier sequenceBarrier) {
+        this.workerPool = workerPool;
+        this.sequenceBarrier = sequenceBarrier;
+    }
+
+    @Override
+    public Sequence[] getSequences() {
+        return workerPool.getWorkerSequences();
+    }
+
+    @Override
+    public SequenceBarrier getBarrier() {
+        return sequenceBarrier;
+    }
+
+    @Override
+    public boolean isEndOfChain() {
+        return endOfChain;
+    }
+
+    @Override
+    public void start(Executor executor) {
+        workerPool.start(executor);
+    }
+
+    @Override
+    public void halt() {
+        workerPool.halt();
+    }
+
+    @Override
+    public void markAsUsedInBarrier() {
+        endOfChain = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return workerPool.isRunning();
+    }
+
+    @Override
+    public boolean isStarted() {
+        // 消费者池在启动时同步设置运行状态
+        return workerPool.isRunning();
+    }
+
+}
@@ -0,0 +1,48 @@
+package org.lucas.disruptor;
+
+/**
+ * 让出 CPU 的等待策略。
+ * <p>
+ * 先自旋 {@link #SPIN_TRIES} 次，之后每次循环调用 {@link Thread#yield()}，
+ * 在低延迟和 CPU 占用之间折中，适用于消费者线程数小于逻辑核数的场景。
+ */
+public final class YieldingWaitStrategy implements WaitStrategy {
+
+    /**
+     * 自旋次数
+     */
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public long waitFor(final long sequence, Sequence cursor, final Sequence dependentSequence,
+                        final SequenceBarrier barrier) throws AlertException, InterruptedException {
+        long availableSequence;
+        int counter = SPIN_TRIES;
+
+        while ((availableSequence = dependentSequence.get()) < sequence) {
+            counter = applyWaitMethod(barrier, counter);
+        }
+
+        return availableSequence;
+    }
+
+    /**
+     * 消费者不会阻塞，不需要唤醒。
+     */
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+
+    private int applyWaitMethod(final SequenceBarrier barrier, int counter) throws AlertException {
+        barrier.checkAlert();
+
+        if (0 == counter) {
+            Thread.yield();
+        } else {
+            --counter;
+        }
+
+        return counter;
+    }
+
+}
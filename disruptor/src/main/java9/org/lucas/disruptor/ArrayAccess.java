@@ -0,0 +1,37 @@
+package org.lucas.disruptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * {@code int[]} 元素的有序写与 volatile 读（Java 9+，基于 {@link VarHandle}）。
+ */
+final class ArrayAccess {
+
+    private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private ArrayAccess() {
+    }
+
+    /**
+     * release 写入，等价于 {@code Unsafe.putOrderedInt}。
+     *
+     * @param array 数组
+     * @param index 元素索引
+     * @param value 写入的值
+     */
+    static void putOrderedInt(final int[] array, final int index, final int value) {
+        INT_ARRAY.setRelease(array, index, value);
+    }
+
+    /**
+     * acquire 读，与 {@link #putOrderedInt(int[], int, int)} 的 release 写配对。
+     *
+     * @param array 数组
+     * @param index 元素索引
+     * @return 元素的值
+     */
+    static int getIntVolatile(final int[] array, final int index) {
+        return (int) INT_ARRAY.getAcquire(array, index);
+    }
+}
@@ -0,0 +1,61 @@
+package org.lucas.disruptor;
+
+/**
+ * @Author: shaw
+ * @Date: 2019/5/17 10:04
+ */
+
+abstract class RingBufferPad {
+    /**
+     * 缓存行左填充.
+     */
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+/**
+ * 字段填充（Java 9+ 版本，不依赖 {@code Unsafe}）
+ */
+abstract class RingBufferFields<E> extends RingBufferPad {
+
+    /**
+     * 数组两端各填充的引用个数，按 128 字节计算，保证有效数据不与其它对象共享缓存行
+     */
+    private static final int BUFFER_PAD = 32;
+
+    private final long indexMask;
+    private final Object[] entries;
+    protected final int bufferSize;
+    protected final Sequencer sequencer;
+
+    RingBufferFields(EventFactory<E> eventFactory, Sequencer sequencer) {
+        this.sequencer = sequencer;
+        this.bufferSize = sequencer.getBufferSize();
+
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("RingBuffer.bufferSize 不能小于1");
+        }
+        if (Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("RingBuffer.bufferSize 必须是2的幂次方");
+        }
+        this.indexMask = bufferSize - 1;
+        this.entries = new Object[sequencer.getBufferSize() + 2 * BUFFER_PAD];
+        fill(eventFactory);
+    }
+
+    /**
+     * 填充事件
+     *
+     * @param eventFactory 事件工厂
+     */
+    private void fill(EventFactory<E> eventFactory) {
+        for (int i = 0; i < bufferSize; i++) {
+            entries[BUFFER_PAD + i] = eventFactory.newInstance();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final E elementAt(long sequence) {
+        // 元素在构造时填充后不再改变，普通读即可，JIT 可消除越界检查
+        return (E) entries[BUFFER_PAD + (int) (sequence & indexMask)];
+    }
+}
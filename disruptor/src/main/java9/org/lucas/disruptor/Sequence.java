@@ -0,0 +1,131 @@
+package org.lucas.disruptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Java 9+ 版本，以 {@link VarHandle} 替代 {@code Unsafe} 访问 {@link Value#value}。
+ *
+ * @Author: shaw
+ * @Date: 2019/5/17 14:23
+ */
+public class Sequence extends RhsPadding {
+
+    /**
+     * 设置起始序列值为 -1.
+     */
+    static final long INITIAL_VALUE = -1L;
+
+    /**
+     * {@link Value#value} 句柄
+     */
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(Value.class, "value", long.class);
+        } catch (final Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public Sequence() {
+        this(INITIAL_VALUE);
+    }
+
+    public Sequence(final long initialValue) {
+        // release 写，不保证写入后的数据立即可见。
+        VALUE.setRelease(this, initialValue);
+    }
+
+    /**
+     * @return 获取序列值
+     */
+    public long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    /**
+     * 执行此序列的有序写入。
+     * <p>
+     * 目的是在此写入与任何以前的存储之间设置 Store/Store 屏障，
+     * 但不保证写入的值会立即被其它线程发现。
+     *
+     * @param value 新的序列值
+     */
+    public void set(final long value) {
+        // release 写，等价于 Store/Store 屏障。
+        VALUE.setRelease(this, value);
+    }
+
+    /**
+     * 以 volatile 方式写入序列号。
+     * <p>
+     * 目的是在此写入与任何先前的写入之间设置 Store/Store 屏障，
+     * 在此写入与任何后续的 volatile 读取之间设置 Store/Load 屏障。
+     *
+     * @param value 新的序列值
+     */
+    public void setVolatile(final long value) {
+        VALUE.setVolatile(this, value);
+    }
+
+    /**
+     * 执行一个 CAS 操作，修改游标的值.
+     *
+     * @param expectedValue 预期值
+     * @param newValue      需要更新的值
+     * @return {@code true} 更新成功
+     */
+    public boolean compareAndSet(final long expectedValue, final long newValue) {
+        return VALUE.compareAndSet(this, expectedValue, newValue);
+    }
+
+    public long incrementAndGet() {
+        return addAndGet(1L);
+    }
+
+    public long addAndGet(final long increment) {
+        // 当前值
+        long currentValue;
+        // 设置的值
+        long newValue;
+        do {
+            currentValue = get();
+            newValue = currentValue + increment;
+        }
+        // CAS 操作
+        while (!compareAndSet(currentValue, newValue));
+        return newValue;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
+
+/**
+ * 填充CPU缓存行,避免多线程修改互相独立的变量时，如果这些变量共享同一个缓存行，就会无意中影响彼此的性能.
+ * 64字节的缓存行中,前后个7个填充,保证数据在任何被切割情况下都不会被影响.
+ */
+class RhsPadding extends Value {
+    /**
+     * 右填充
+     */
+    protected long p9, p10, p11, p12, p13, p14, p15;
+}
+
+class Value extends LhsPadding {
+    /**
+     * 保证该值的内存可见性
+     */
+    protected volatile long value;
+}
+
+class LhsPadding {
+    /**
+     * 左填充
+     */
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
@@ -0,0 +1,138 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.AutoScalingWorkerPool;
+import org.lucas.disruptor.FatalExceptionHandler;
+import org.lucas.disruptor.LifecycleAware;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.WorkHandler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AutoScalingWorkerPoolTests {
+
+    private static final int EVENTS = 50;
+
+    private final RingBuffer<long[]> ringBuffer = RingBuffer.createMultiProducer(() -> new long[1], 64);
+
+    private final AtomicIntegerArray handled = new AtomicIntegerArray(EVENTS);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger started = new AtomicInteger();
+
+    private final AtomicInteger shutdown = new AtomicInteger();
+
+    @Test
+    public void sample_ScalesWithLagTest() throws Exception {
+        final AutoScalingWorkerPool<long[]> pool = new AutoScalingWorkerPool<>(ringBuffer, Handler::new,
+                new FatalExceptionHandler(), 1, 3);
+        pool.setThresholds(4, 0);
+        pool.setSampling(2, TimeUnit.MILLISECONDS, 2);
+        pool.start(r -> new Thread(r).start());
+        assertTrue(pool.isRunning());
+        assertEquals(1, pool.getWorkerCount());
+
+        // 消费者阻塞在第一个事件上，积压持续超过阈值
+        publish(0, 20);
+        awaitTrue(() -> 3 == pool.getWorkerCount());
+        assertTrue(pool.getLag() > 4);
+
+        // 积压清空后逐个退休，直到 minWorkers
+        release.countDown();
+        awaitTrue(() -> 1 == pool.getWorkerCount());
+        assertEquals(3, started.get());
+        assertEquals(0L, pool.getLag());
+
+        // 退休的消费者处理完已抢占的序号后退出
+        publish(20, EVENTS);
+        awaitTrue(() -> 2 == shutdown.get());
+        pool.drainAndHalt();
+        assertFalse(pool.isRunning());
+        awaitTrue(() -> 3 == shutdown.get());
+
+        for (int i = 0; i < EVENTS; i++) {
+            assertEquals("event " + i, 1, handled.get(i));
+        }
+    }
+
+    @Test
+    public void start_RejectsRestartTest() {
+        final AutoScalingWorkerPool<long[]> pool = new AutoScalingWorkerPool<>(ringBuffer, Handler::new,
+                new FatalExceptionHandler(), 2, 2);
+        release.countDown();
+        pool.start(r -> new Thread(r).start());
+        try {
+            pool.start(r -> new Thread(r).start());
+            fail("pool has already been started");
+        } catch (final IllegalStateException expected) {
+            // 运行中不能再次启动
+        } finally {
+            pool.drainAndHalt();
+        }
+        assertEquals(0, pool.getWorkerCount());
+    }
+
+    @Test
+    public void constructor_RejectsInvalidSettingsTest() {
+        try {
+            new AutoScalingWorkerPool<>(ringBuffer, Handler::new, new FatalExceptionHandler(), 0, 2);
+            fail("minWorkers must be positive");
+        } catch (final IllegalArgumentException expected) {
+            // 至少一个消费者
+        }
+        final AutoScalingWorkerPool<long[]> pool = new AutoScalingWorkerPool<>(ringBuffer, Handler::new,
+                new FatalExceptionHandler(), 1, 2);
+        try {
+            pool.setThresholds(4, 4);
+            fail("scaleDownLag must be below scaleUpLag");
+        } catch (final IllegalArgumentException expected) {
+            // 两个阈值相等会反复伸缩
+        }
+    }
+
+    private void publish(final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            final int value = i;
+            ringBuffer.publishEvent((event, sequence) -> event[0] = value);
+        }
+    }
+
+    private static void awaitTrue(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline >= 0) {
+                fail("condition not reached");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private final class Handler implements WorkHandler<long[]>, LifecycleAware {
+
+        @Override
+        public void onEvent(final long[] event) throws Exception {
+            release.await();
+            handled.incrementAndGet((int) event[0]);
+        }
+
+        @Override
+        public void onStart() {
+            started.incrementAndGet();
+        }
+
+        @Override
+        public void onShutdown() {
+            shutdown.incrementAndGet();
+        }
+    }
+}
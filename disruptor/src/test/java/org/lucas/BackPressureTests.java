@@ -0,0 +1,110 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.BackPressurePublisher;
+import org.lucas.disruptor.ClaimHandle;
+import org.lucas.disruptor.EventTranslatorOneArg;
+import org.lucas.disruptor.InsufficientCapacityException;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.Sequence;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BackPressureTests {
+
+    private static final EventTranslatorOneArg<long[], Long> TRANSLATOR = (event, sequence, arg0) -> event[0] = arg0;
+
+    @Test
+    public void tryClaimUpTo_PartialClaimTest() throws Exception {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createMultiProducer(() -> new long[1], 8);
+        ringBuffer.addGatingSequences(new Sequence());
+        ringBuffer.publishEvents(TRANSLATOR, new Long[]{0L, 1L, 2L, 3L, 4L});
+
+        final ClaimHandle<long[]> handle = ringBuffer.newClaimHandle();
+        try (ClaimHandle<long[]> claim = handle.tryClaimUpTo(6)) {
+            assertEquals(3, claim.size());
+            assertEquals(5L, claim.sequence());
+        }
+        assertEquals(7L, ringBuffer.getCursor());
+
+        try {
+            handle.tryClaimUpTo(1);
+            fail("ring buffer is full");
+        } catch (final InsufficientCapacityException expected) {
+            // 一个序号也没有申请到
+        }
+    }
+
+    @Test
+    public void droppingNewest_CountsDropsTest() {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 4);
+        ringBuffer.addGatingSequences(new Sequence());
+        final BackPressurePublisher<long[]> publisher = BackPressurePublisher.droppingNewest(ringBuffer);
+
+        for (long i = 0; i < 6; i++) {
+            publisher.publishEvent(TRANSLATOR, i);
+        }
+
+        assertEquals(2L, publisher.getDroppedNewestCount());
+        assertEquals(3L, ringBuffer.getCursor());
+    }
+
+    @Test
+    public void spilling_DrainsInOrderTest() {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 4);
+        final Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequences(consumer);
+        final BackPressurePublisher<long[]> publisher = BackPressurePublisher.spilling(ringBuffer, 2);
+
+        for (long i = 0; i < 7; i++) {
+            publisher.publishEvent(TRANSLATOR, i);
+        }
+        assertEquals(2L, publisher.getSpilledCount());
+        assertEquals(1L, publisher.getDroppedNewestCount());
+        assertEquals(2, publisher.getOverflowSize());
+
+        // 消费两个事件后回灌
+        consumer.set(1L);
+        assertEquals(2, publisher.drainOverflow());
+        assertEquals(0, publisher.getOverflowSize());
+        assertEquals(4L, ringBuffer.get(4L)[0]);
+        assertEquals(5L, ringBuffer.get(5L)[0]);
+    }
+
+    @Test
+    public void droppingOldest_EvictsOverflowHeadTest() {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 4);
+        final Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequences(consumer);
+        final BackPressurePublisher<long[]> publisher = BackPressurePublisher.droppingOldest(ringBuffer, 2);
+
+        for (long i = 0; i < 7; i++) {
+            assertTrue(publisher.publishEvent(TRANSLATOR, i));
+        }
+        assertEquals(1L, publisher.getDroppedOldestCount());
+
+        consumer.set(3L);
+        publisher.drainOverflow();
+        assertEquals(5L, ringBuffer.get(4L)[0]);
+        assertEquals(6L, ringBuffer.get(5L)[0]);
+    }
+
+    @Test
+    public void blocking_TimesOutTest() {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createMultiProducer(() -> new long[1], 4);
+        ringBuffer.addGatingSequences(new Sequence());
+        final BackPressurePublisher<long[]> publisher =
+                BackPressurePublisher.blocking(ringBuffer, 1, TimeUnit.MILLISECONDS);
+
+        for (long i = 0; i < 4; i++) {
+            assertTrue(publisher.publishEvent(TRANSLATOR, i));
+        }
+        assertFalse(publisher.publishEvent(TRANSLATOR, 4L));
+        assertEquals(1L, publisher.getTimeoutCount());
+    }
+}
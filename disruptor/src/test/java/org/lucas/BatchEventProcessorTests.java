@@ -0,0 +1,162 @@
+package org.lucas;
+
+import org.junit.After;
+import org.junit.Test;
+import org.lucas.disruptor.BatchEventProcessor;
+import org.lucas.disruptor.ExceptionHandler;
+import org.lucas.disruptor.RingBuffer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+public class BatchEventProcessorTests {
+
+    private static final int EVENTS = 64;
+
+    private static final long FAILING_SEQUENCE = 37L;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    private final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 128);
+
+    /**
+     * 每个序号被处理的次数
+     */
+    private final AtomicIntegerArray deliveries = new AtomicIntegerArray(EVENTS);
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void setParallelism_ProcessesEachEventOnceTest() throws Exception {
+        final BatchEventProcessor<long[]> processor = newProcessor(false);
+        final Thread thread = runBatch(processor);
+
+        awaitSequence(processor, EVENTS - 1L);
+        processor.halt();
+        thread.join();
+
+        for (int i = 0; i < EVENTS; i++) {
+            assertEquals(1, deliveries.get(i));
+        }
+    }
+
+    @Test
+    public void setParallelism_SkipsFailedEventTest() throws Exception {
+        final BatchEventProcessor<long[]> processor = newProcessor(true);
+        final List<String> reported = new CopyOnWriteArrayList<>();
+        processor.setExceptionHandler(new RecordingExceptionHandler(reported, false));
+        final Thread thread = runBatch(processor);
+
+        awaitSequence(processor, EVENTS - 1L);
+        processor.halt();
+        thread.join();
+
+        // 只报告出错的事件，批次中的其它事件不会被重新投递
+        assertEquals("[" + FAILING_SEQUENCE + "=" + FAILING_SEQUENCE + "]", reported.toString());
+        for (int i = 0; i < EVENTS; i++) {
+            assertEquals(1, deliveries.get(i));
+        }
+    }
+
+    @Test
+    public void setParallelism_RethrowingExceptionHandlerStopsProcessorTest() throws Exception {
+        final BatchEventProcessor<long[]> processor = newProcessor(true);
+        final List<String> reported = new CopyOnWriteArrayList<>();
+        processor.setExceptionHandler(new RecordingExceptionHandler(reported, true));
+        final AtomicReference<Throwable> uncaught = new AtomicReference<>();
+        final Thread thread = new Thread(processor);
+        thread.setUncaughtExceptionHandler((t, e) -> uncaught.set(e));
+        publishAll();
+        thread.start();
+
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(thread.isAlive());
+        assertNotNull(uncaught.get());
+        assertFalse(processor.isRunning());
+
+        // 异常处理器只收到一次正确的序号和事件，批次没有被重新投递
+        assertEquals("[" + FAILING_SEQUENCE + "=" + FAILING_SEQUENCE + "]", reported.toString());
+        assertEquals(1, deliveries.get((int) FAILING_SEQUENCE));
+        for (int i = 0; i < EVENTS; i++) {
+            assertFalse(deliveries.get(i) > 1);
+        }
+        assertEquals(-1L, processor.getSequence().get());
+    }
+
+    private BatchEventProcessor<long[]> newProcessor(final boolean failing) {
+        final BatchEventProcessor<long[]> processor = new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(),
+                (event, sequence, endOfBatch) -> {
+                    deliveries.incrementAndGet((int) sequence);
+                    if (failing && sequence == FAILING_SEQUENCE) {
+                        throw new IllegalStateException("failing event " + event[0]);
+                    }
+                });
+        processor.setParallelism(pool, 4);
+        ringBuffer.addGatingSequences(processor.getSequence());
+        return processor;
+    }
+
+    /**
+     * 先发布所有事件再启动处理器，保证它们落在同一个批次中
+     */
+    private Thread runBatch(final BatchEventProcessor<long[]> processor) {
+        publishAll();
+        final Thread thread = new Thread(processor);
+        thread.start();
+        return thread;
+    }
+
+    private void publishAll() {
+        for (int i = 0; i < EVENTS; i++) {
+            ringBuffer.publishEvent((event, sequence) -> event[0] = sequence);
+        }
+    }
+
+    private static void awaitSequence(final BatchEventProcessor<?> processor, final long expected)
+            throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (processor.getSequence().get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, processor.getSequence().get());
+    }
+
+    private static final class RecordingExceptionHandler implements ExceptionHandler<long[]> {
+
+        private final List<String> reported;
+
+        private final boolean rethrow;
+
+        private RecordingExceptionHandler(final List<String> reported, final boolean rethrow) {
+            this.reported = reported;
+            this.rethrow = rethrow;
+        }
+
+        @Override
+        public void handleEventException(final Throwable ex, final long sequence, final long[] event) {
+            reported.add(sequence + "=" + (null == event ? null : event[0]));
+            if (rethrow) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public void handleOnStartException(final Throwable ex) {
+        }
+
+        @Override
+        public void handleOnShutdownException(final Throwable ex) {
+        }
+    }
+}
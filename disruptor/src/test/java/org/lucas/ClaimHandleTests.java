@@ -0,0 +1,133 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.ClaimHandle;
+import org.lucas.disruptor.InsufficientCapacityException;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.Sequence;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ClaimHandleTests {
+
+    @Test
+    public void claim_PublishesBatchOnCloseTest() {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 8);
+
+        try (ClaimHandle<long[]> claim = ringBuffer.newClaimHandle().claim(3)) {
+            for (int i = 0; i < claim.size(); i++) {
+                claim.event(i)[0] = 10L + i;
+            }
+            assertEquals(0L, claim.sequence());
+            assertEquals(2L, claim.sequence(2));
+            // 关闭前消费者看不到
+            assertEquals(-1L, ringBuffer.getCursor());
+        }
+
+        assertEquals(2L, ringBuffer.getCursor());
+        for (long sequence = 0; sequence < 3; sequence++) {
+            assertEquals(10L + sequence, ringBuffer.get(sequence)[0]);
+        }
+    }
+
+    @Test
+    public void claim_ReusesHandleTest() {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createMultiProducer(() -> new long[1], 8);
+        final ClaimHandle<long[]> handle = ringBuffer.newClaimHandle();
+
+        try (ClaimHandle<long[]> claim = handle.claim()) {
+            assertSame(handle, claim);
+        }
+        try (ClaimHandle<long[]> claim = handle.claim()) {
+            assertSame(handle, claim);
+            assertEquals(1L, claim.sequence());
+        }
+        assertNotSame(handle, ringBuffer.newClaimHandle());
+        assertEquals(1L, ringBuffer.getCursor());
+    }
+
+    @Test
+    public void newClaimHandle_DoesNotPinRingBufferTest() throws Exception {
+        final WeakReference<RingBuffer<long[]>> reference = publishOnce();
+
+        // 发布线程不再持有句柄后，RingBuffer 可以被回收
+        for (int i = 0; i < 50 && null != reference.get(); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+
+    @Test
+    public void close_PublishesWhenFillingFailsTest() {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 8);
+
+        try (ClaimHandle<long[]> claim = ringBuffer.newClaimHandle().claim(2)) {
+            claim.event(0)[0] = 1L;
+            throw new IllegalStateException("translator failed");
+        } catch (final IllegalStateException expected) {
+            // 序号仍然被发布，消费者不会被阻塞
+        }
+
+        assertEquals(1L, ringBuffer.getCursor());
+    }
+
+    @Test
+    public void claim_RejectsUnpublishedClaimTest() {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 8);
+        final ClaimHandle<long[]> handle = ringBuffer.newClaimHandle();
+
+        try (ClaimHandle<long[]> claim = handle.claim()) {
+            try {
+                handle.claim();
+                fail("previous claim has not been published");
+            } catch (final IllegalStateException expected) {
+                // 上一次申请尚未发布
+            }
+            try {
+                claim.sequence(1);
+                fail("only one sequence claimed");
+            } catch (final IndexOutOfBoundsException expected) {
+                // 下标超出已申请的范围
+            }
+        }
+        assertEquals(0L, ringBuffer.getCursor());
+    }
+
+    @Test
+    public void tryClaim_FullBufferTest() throws Exception {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 4);
+        final Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequences(consumer);
+        final ClaimHandle<long[]> handle = ringBuffer.newClaimHandle();
+
+        try (ClaimHandle<long[]> claim = handle.tryClaim(4)) {
+            assertEquals(4, claim.size());
+        }
+        try {
+            handle.tryClaim(1);
+            fail("ring buffer is full");
+        } catch (final InsufficientCapacityException expected) {
+            // 申请失败时句柄不持有序号，可以再次使用
+        }
+
+        consumer.set(0L);
+        try (ClaimHandle<long[]> claim = handle.tryClaim(1)) {
+            assertEquals(4L, claim.sequence());
+        }
+    }
+
+    private static WeakReference<RingBuffer<long[]>> publishOnce() {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 8);
+        try (ClaimHandle<long[]> claim = ringBuffer.newClaimHandle().claim()) {
+            claim.event()[0] = 1L;
+        }
+        return new WeakReference<>(ringBuffer);
+    }
+}
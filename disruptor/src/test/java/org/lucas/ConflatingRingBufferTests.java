@@ -0,0 +1,133 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.BlockingWaitStrategy;
+import org.lucas.disruptor.ConflatingRingBuffer;
+import org.lucas.disruptor.EventProcessor;
+import org.lucas.disruptor.ProducerType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConflatingRingBufferTests {
+
+    @Test
+    public void publish_ConflatesPendingKeyTest() throws Exception {
+        final ConflatingRingBuffer<String, Long> ringBuffer =
+                ConflatingRingBuffer.create(ProducerType.SINGLE, 8, new BlockingWaitStrategy());
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch endOfBatch = new CountDownLatch(1);
+        final EventProcessor processor = ringBuffer.createEventProcessor((key, value, sequence, end) -> {
+            received.add(key + "=" + value + "@" + sequence + (end ? "!" : ""));
+            if (end) {
+                endOfBatch.countDown();
+            }
+        });
+
+        for (long i = 0; i < 100; i++) {
+            ringBuffer.publish("a", i);
+        }
+        ringBuffer.publish("b", 7L);
+        assertEquals(1L, ringBuffer.getCursor());
+        assertEquals(99L, ringBuffer.getConflatedCount());
+        assertEquals(2, ringBuffer.getPendingCount());
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+        assertTrue(endOfBatch.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertEquals("[a=99@0, b=7@1!]", received.toString());
+        assertEquals(0, ringBuffer.getPendingCount());
+    }
+
+    @Test
+    public void createEventProcessor_EndOfBatchOnLastNonEmptySlotTest() throws Exception {
+        final ConflatingRingBuffer<GatedKey, Long> ringBuffer =
+                ConflatingRingBuffer.create(ProducerType.MULTI, 8, new BlockingWaitStrategy());
+        // 先创建消费者，加入门控序列时它的序列被设置为当前游标
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch endOfBatch = new CountDownLatch(1);
+        final EventProcessor processor = ringBuffer.createEventProcessor((k, value, sequence, end) -> {
+            received.add(value + "@" + sequence + (end ? "!" : ""));
+            if (end) {
+                endOfBatch.countDown();
+            }
+        });
+        final GatedKey key = new GatedKey();
+
+        // 两个生产者都申请到了序号，停在把 Entry 放入映射之前
+        final Thread first = key.gate(() -> ringBuffer.publish(key, 1L));
+        final Thread second = key.gate(() -> ringBuffer.publish(key, 2L));
+        // 先申请的放入 Entry，后申请的合并到该 Entry，留下最后一个空插槽
+        key.open(first);
+        first.join();
+        key.open(second);
+        second.join();
+        assertEquals(1L, ringBuffer.getCursor());
+        assertEquals(1L, ringBuffer.getConflatedCount());
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+        assertTrue("endOfBatch was never delivered", endOfBatch.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertEquals("[2@0!]", received.toString());
+    }
+
+    /**
+     * 在映射的 putIfAbsent（每个线程第二次计算哈希值）处停住指定线程的键
+     */
+    private static final class GatedKey {
+
+        private final Map<Thread, CountDownLatch> gates = new ConcurrentHashMap<>();
+
+        private final ThreadLocal<int[]> calls = ThreadLocal.withInitial(() -> new int[1]);
+
+        private final Semaphore arrived = new Semaphore(0);
+
+        /**
+         * 启动线程并等待它停在 putIfAbsent 处
+         */
+        Thread gate(final Runnable publisher) throws InterruptedException {
+            final Thread thread = new Thread(publisher);
+            gates.put(thread, new CountDownLatch(1));
+            thread.start();
+            arrived.acquire();
+            return thread;
+        }
+
+        void open(final Thread thread) {
+            gates.get(thread).countDown();
+        }
+
+        @Override
+        public int hashCode() {
+            final CountDownLatch gate = gates.get(Thread.currentThread());
+            if (null != gate && ++calls.get()[0] == 2) {
+                arrived.release();
+                try {
+                    gate.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return 1;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return this == obj;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.BatchEventProcessor;
+import org.lucas.disruptor.BlockingWaitStrategy;
+import org.lucas.disruptor.Disruptor;
+import org.lucas.disruptor.EventHandler;
+import org.lucas.disruptor.ProducerType;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.TimeoutException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class DisruptorTests {
+
+    @Test
+    public void then_OnlyEndOfChainGatesProducerTest() throws Exception {
+        final Disruptor<long[]> disruptor = newDisruptor(8);
+        final RingBuffer<long[]> ringBuffer = disruptor.getRingBuffer();
+        final CountDownLatch release = new CountDownLatch(1);
+        final BatchEventProcessor<long[]> first =
+                new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), (event, sequence, endOfBatch) -> {
+                });
+        final EventHandler<long[]> last = (event, sequence, endOfBatch) -> release.await();
+        disruptor.handleEventsWith(first).then(last);
+        disruptor.start();
+
+        // 上游不再是门控序列，只有末端消费者限制生产者
+        assertFalse(ringBuffer.removeGatingSequence(first.getSequence()));
+        for (int i = 0; i < 8; i++) {
+            disruptor.publishEvent((event, sequence) -> event[0] = sequence);
+        }
+        awaitSequence(first, 7L);
+        assertFalse(ringBuffer.tryPublishEvent((event, sequence) -> event[0] = sequence));
+        assertEquals(-1L, disruptor.getSequenceValueFor(last));
+
+        release.countDown();
+        disruptor.shutdown(5, TimeUnit.SECONDS);
+        assertEquals(7L, disruptor.getSequenceValueFor(last));
+    }
+
+    @Test
+    public void after_DiamondTest() throws Exception {
+        final Disruptor<long[]> disruptor = newDisruptor(16);
+        final int events = 1000;
+        final AtomicIntegerArray left = new AtomicIntegerArray(events);
+        final AtomicIntegerArray right = new AtomicIntegerArray(events);
+        final AtomicInteger joined = new AtomicInteger();
+        final AtomicInteger outOfOrder = new AtomicInteger();
+        final EventHandler<long[]> a = (event, sequence, endOfBatch) -> left.incrementAndGet((int) sequence);
+        final EventHandler<long[]> b = (event, sequence, endOfBatch) -> right.incrementAndGet((int) sequence);
+        final EventHandler<long[]> c = (event, sequence, endOfBatch) -> {
+            // 两个上游都处理完后才轮到汇合的消费者
+            if (1 != left.get((int) sequence) || 1 != right.get((int) sequence)) {
+                outOfOrder.incrementAndGet();
+            }
+            joined.incrementAndGet();
+        };
+        disruptor.handleEventsWith(a, b);
+        disruptor.after(a, b).handleEventsWith(c);
+        disruptor.start();
+
+        for (int i = 0; i < events; i++) {
+            disruptor.publishEvent((event, sequence) -> event[0] = sequence);
+        }
+        disruptor.shutdown(5, TimeUnit.SECONDS);
+
+        assertEquals(events, joined.get());
+        assertEquals(0, outOfOrder.get());
+        assertEquals(events - 1L, disruptor.getSequenceValueFor(a));
+        assertEquals(events - 1L, disruptor.getSequenceValueFor(b));
+    }
+
+    @Test
+    public void shutdown_DrainsRightAfterStartTest() throws Exception {
+        for (int run = 0; run < 50; run++) {
+            final Disruptor<long[]> disruptor = newDisruptor(16);
+            final AtomicInteger handled = new AtomicInteger();
+            disruptor.handleEventsWith((event, sequence, endOfBatch) -> handled.incrementAndGet());
+            disruptor.start();
+
+            // 消费者线程可能还没有开始运行
+            for (int i = 0; i < 10; i++) {
+                disruptor.publishEvent((event, sequence) -> event[0] = sequence);
+            }
+            disruptor.shutdown(1, TimeUnit.SECONDS);
+
+            assertEquals("run " + run, 10, handled.get());
+        }
+    }
+
+    @Test
+    public void shutdown_TimesOutBehindStalledConsumerTest() throws Exception {
+        final Disruptor<long[]> disruptor = newDisruptor(16);
+        final CountDownLatch release = new CountDownLatch(1);
+        disruptor.handleEventsWith((event, sequence, endOfBatch) -> release.await());
+        disruptor.start();
+        disruptor.publishEvent((event, sequence) -> event[0] = sequence);
+
+        try {
+            disruptor.shutdown(50, TimeUnit.MILLISECONDS);
+            fail("consumer is stalled");
+        } catch (final TimeoutException expected) {
+            // 超时不停止消费者
+        }
+        release.countDown();
+        disruptor.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    private static Disruptor<long[]> newDisruptor(final int ringBufferSize) {
+        return new Disruptor<>(() -> new long[1], ringBufferSize, Thread::new,
+                ProducerType.SINGLE, new BlockingWaitStrategy());
+    }
+
+    private static void awaitSequence(final BatchEventProcessor<?> processor, final long sequence)
+            throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (processor.getSequence().get() < sequence && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(sequence, processor.getSequence().get());
+    }
+}
@@ -0,0 +1,180 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.EventPoller;
+import org.lucas.disruptor.EventPoller.PollState;
+import org.lucas.disruptor.MultiProducerSequencer;
+import org.lucas.disruptor.Sequence;
+import org.lucas.disruptor.Sequencer;
+import org.lucas.disruptor.YieldingWaitStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class EventPollerTests {
+
+    private final Sequencer sequencer = new MultiProducerSequencer(16, new YieldingWaitStrategy());
+
+    private final long[][] events = new long[16][1];
+
+    /**
+     * 只依赖生产者游标
+     */
+    private final Sequence cursor = new Sequence() {
+        @Override
+        public long get() {
+            return sequencer.getCursor();
+        }
+    };
+
+    private final CountingSequence sequence = new CountingSequence();
+
+    private final List<Long> received = new ArrayList<>();
+
+    @Test
+    public void poll_IdleTest() throws Exception {
+        final EventPoller<long[]> poller = newPoller(cursor);
+
+        assertEquals(PollState.IDLE, poller.poll(this::record));
+        assertEquals(0, received.size());
+        assertEquals(0, sequence.writes);
+    }
+
+    @Test
+    public void poll_GatingTest() throws Exception {
+        final Sequence upstream = new Sequence();
+        final EventPoller<long[]> poller = newPoller(upstream);
+        publish(3);
+
+        // 生产者已发布，上游消费者还没有处理
+        assertEquals(PollState.GATING, poller.poll(this::record));
+        assertEquals(0, received.size());
+
+        upstream.set(1L);
+        assertEquals(PollState.PROCESSING, poller.poll(this::record));
+        assertEquals("[0, 1]", received.toString());
+        assertEquals(PollState.GATING, poller.poll(this::record));
+    }
+
+    @Test
+    public void poll_GatingOnUnpublishedClaimTest() throws Exception {
+        final EventPoller<long[]> poller = newPoller(cursor);
+        // 游标越过了已申请但尚未发布的序号
+        final long claimed = sequencer.next();
+
+        assertEquals(PollState.GATING, poller.poll(this::record));
+
+        events[(int) claimed & 15][0] = claimed;
+        sequencer.publish(claimed);
+        assertEquals(PollState.PROCESSING, poller.poll(this::record));
+        assertEquals("[0]", received.toString());
+    }
+
+    @Test
+    public void poll_DrainsAvailableRangeAndCommitsOnceTest() throws Exception {
+        final EventPoller<long[]> poller = newPoller(cursor);
+        publish(5);
+        final List<Boolean> endOfBatch = new ArrayList<>();
+
+        assertEquals(PollState.PROCESSING, poller.poll((event, sequence, end) -> {
+            endOfBatch.add(end);
+            return record(event, sequence, end);
+        }));
+
+        assertEquals("[0, 1, 2, 3, 4]", received.toString());
+        assertEquals("[false, false, false, false, true]", endOfBatch.toString());
+        assertEquals(4L, sequence.get());
+        assertEquals(1, sequence.writes);
+        assertEquals(PollState.IDLE, poller.poll(this::record));
+    }
+
+    @Test
+    public void poll_StopsWhenHandlerReturnsFalseTest() throws Exception {
+        final EventPoller<long[]> poller = newPoller(cursor);
+        publish(5);
+
+        assertEquals(PollState.PROCESSING, poller.poll((event, sequence, endOfBatch) -> {
+            record(event, sequence, endOfBatch);
+            return 1L != sequence;
+        }));
+
+        // 返回 false 的事件算作已处理
+        assertEquals("[0, 1]", received.toString());
+        assertEquals(1L, sequence.get());
+        assertEquals(1, sequence.writes);
+
+        assertEquals(PollState.PROCESSING, poller.poll(this::record));
+        assertEquals("[0, 1, 2, 3, 4]", received.toString());
+        assertEquals(2, sequence.writes);
+    }
+
+    @Test
+    public void poll_CommitsProcessedEventsOnExceptionTest() throws Exception {
+        final EventPoller<long[]> poller = newPoller(cursor);
+        publish(5);
+        final RuntimeException failure = new RuntimeException();
+
+        try {
+            poller.poll((event, sequence, endOfBatch) -> {
+                if (2L == sequence) {
+                    throw failure;
+                }
+                return record(event, sequence, endOfBatch);
+            });
+            fail("handler throws");
+        } catch (final RuntimeException e) {
+            assertEquals(failure, e);
+        }
+
+        // 抛出异常的事件没有处理完，下次轮询从它开始
+        assertEquals(1L, sequence.get());
+        assertEquals(1, sequence.writes);
+        assertEquals(PollState.PROCESSING, poller.poll(this::record));
+        assertEquals("[0, 1, 2, 3, 4]", received.toString());
+    }
+
+    private EventPoller<long[]> newPoller(final Sequence gatingSequence) {
+        final EventPoller<long[]> poller = new EventPoller<>(sequence -> events[(int) sequence & 15],
+                sequencer, this.sequence, gatingSequence);
+        sequencer.addGatingSequences(poller.getSequence());
+        // 只统计轮询时的写入
+        this.sequence.writes = 0;
+        return poller;
+    }
+
+    private boolean record(final long[] event, final long sequence, final boolean endOfBatch) {
+        received.add(event[0]);
+        return true;
+    }
+
+    private void publish(final int count) {
+        for (int i = 0; i < count; i++) {
+            final long sequence = sequencer.next();
+            events[(int) sequence & 15][0] = sequence;
+            sequencer.publish(sequence);
+        }
+    }
+
+    /**
+     * 记录消费进度的写入次数
+     */
+    private static final class CountingSequence extends Sequence {
+
+        private int writes;
+
+        @Override
+        public void set(final long value) {
+            writes++;
+            super.set(value);
+        }
+
+        @Override
+        public void setVolatile(final long value) {
+            writes++;
+            super.setVolatile(value);
+        }
+    }
+}
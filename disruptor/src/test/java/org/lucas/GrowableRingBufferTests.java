@@ -0,0 +1,93 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.GrowableRingBuffer;
+import org.lucas.disruptor.InsufficientCapacityException;
+import org.lucas.disruptor.Sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GrowableRingBufferTests {
+
+    @Test
+    public void publishEvent_ShrinksAfterBurstTest() {
+        final GrowableRingBuffer<long[]> ringBuffer = GrowableRingBuffer.create(() -> new long[1], 16, 8);
+        final Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequences(consumer);
+
+        // 突发：消费者不动，占满所有段
+        for (long i = 0; i < 128; i++) {
+            ringBuffer.publishEvent((event, sequence, arg0) -> event[0] = arg0, i);
+        }
+        assertEquals(8, ringBuffer.getSegmentCount());
+        try {
+            ringBuffer.tryNext();
+            fail("all segments are in use");
+        } catch (final InsufficientCapacityException expected) {
+            // 已达到内存上限
+        }
+
+        // 消费完突发的数据，之后消费者跟得上生产者
+        consumer.set(127L);
+        for (long i = 128; i < 128 + 10_000; i++) {
+            ringBuffer.publishEvent((event, sequence, arg0) -> event[0] = arg0, i);
+            assertEquals(i, ringBuffer.get(i)[0]);
+            consumer.set(i);
+        }
+
+        assertTrue("segments not released: " + ringBuffer.getSegmentCount(), ringBuffer.getSegmentCount() <= 2);
+    }
+
+    @Test
+    public void releaseConsumedSegments_KeepsUnconsumedTest() {
+        final GrowableRingBuffer<long[]> ringBuffer = GrowableRingBuffer.create(() -> new long[1], 4, 4);
+        final Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequences(consumer);
+
+        for (long i = 0; i < 12; i++) {
+            ringBuffer.publishEvent((event, sequence, arg0) -> event[0] = arg0, i);
+        }
+        assertEquals(3, ringBuffer.getSegmentCount());
+
+        // 只有第一段被完整消费
+        consumer.set(5L);
+        assertEquals(1, ringBuffer.releaseConsumedSegments());
+        assertEquals(2, ringBuffer.getSegmentCount());
+        for (long sequence = 6; sequence < 12; sequence++) {
+            assertEquals(sequence, ringBuffer.get(sequence)[0]);
+        }
+    }
+
+    @Test
+    public void tryNext_PartialCapacityClaimsRemainingTest() throws Exception {
+        final GrowableRingBuffer<long[]> ringBuffer = GrowableRingBuffer.create(() -> new long[1], 4, 4);
+        ringBuffer.addGatingSequences(new Sequence());
+        for (long i = 0; i < 10; i++) {
+            ringBuffer.publishEvent((event, sequence, arg0) -> event[0] = arg0, i);
+        }
+        assertEquals(3, ringBuffer.getSegmentCount());
+        assertEquals(6L, ringBuffer.remainingCapacity());
+
+        // 容量不足时整批失败，不移动游标
+        try {
+            ringBuffer.tryNext(7);
+            fail("only 6 slots left");
+        } catch (final InsufficientCapacityException expected) {
+            assertEquals(9L, ringBuffer.getCursor());
+        }
+
+        // 按剩余容量申请，跨越的段都已分配
+        final int count = (int) ringBuffer.remainingCapacity();
+        final long hi = ringBuffer.tryNext(count);
+        assertEquals(15L, hi);
+        assertEquals(4, ringBuffer.getSegmentCount());
+        for (long sequence = hi - count + 1; sequence <= hi; sequence++) {
+            ringBuffer.get(sequence)[0] = sequence;
+        }
+        ringBuffer.publish(hi - count + 1, hi);
+        assertEquals(0L, ringBuffer.remainingCapacity());
+        assertEquals(15L, ringBuffer.get(15L)[0]);
+    }
+}
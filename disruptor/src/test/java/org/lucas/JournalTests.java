@@ -0,0 +1,107 @@
+package org.lucas;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.lucas.disruptor.JournalCodec;
+import org.lucas.disruptor.JournalEventHandler;
+import org.lucas.disruptor.JournalReplayer;
+import org.lucas.disruptor.RingBuffer;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+public class JournalTests {
+
+    /**
+     * 事件为 long 数组，值为负数时编码为空内容
+     */
+    private static final JournalCodec<long[]> CODEC = new JournalCodec<long[]>() {
+        @Override
+        public void encode(final long[] event, final ByteBuffer dst) {
+            if (event[0] >= 0) {
+                dst.putLong(event[0]);
+            }
+        }
+
+        @Override
+        public void decode(final ByteBuffer src, final long[] event) {
+            event[0] = src.remaining() == 0 ? -1L : src.getLong();
+        }
+    };
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replay_AfterRestartTest() throws Exception {
+        final File directory = folder.getRoot();
+
+        // 第一次运行，段很小，会发生 roll
+        writeRun(directory, 0L, 10L);
+        // 重启后 RingBuffer 从序号 0 开始，已有日志不能被截断
+        writeRun(directory, 100L, 5L);
+
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 32);
+        final long replayed = new JournalReplayer<>(directory, CODEC).replay(0L, Long.MAX_VALUE, ringBuffer);
+
+        assertEquals(15L, replayed);
+        for (long sequence = 0; sequence < 10; sequence++) {
+            assertEquals(sequence, ringBuffer.get(sequence)[0]);
+        }
+        for (long sequence = 10; sequence < 15; sequence++) {
+            assertEquals(100L + sequence - 10, ringBuffer.get(sequence)[0]);
+        }
+    }
+
+    @Test
+    public void replay_EmptyPayloadTest() throws Exception {
+        final File directory = folder.getRoot();
+        final JournalEventHandler<long[]> handler = new JournalEventHandler<>(directory, 4096, 8, CODEC);
+        handler.onStart();
+        handler.onEvent(new long[]{1L}, 0L, false);
+        handler.onEvent(new long[]{-1L}, 1L, false);
+        handler.onEvent(new long[]{3L}, 2L, true);
+        handler.onShutdown();
+
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 8);
+        final long replayed = new JournalReplayer<>(directory, CODEC).replay(0L, 2L, ringBuffer);
+
+        assertEquals(3L, replayed);
+        assertEquals(1L, ringBuffer.get(0L)[0]);
+        assertEquals(-1L, ringBuffer.get(1L)[0]);
+        assertEquals(3L, ringBuffer.get(2L)[0]);
+    }
+
+    @Test
+    public void replay_RangeAcrossRunsTest() throws Exception {
+        final File directory = folder.getRoot();
+        writeRun(directory, 0L, 10L);
+        writeRun(directory, 100L, 5L);
+
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 8);
+        final long replayed = new JournalReplayer<>(directory, CODEC).replay(8L, 11L, ringBuffer);
+
+        assertEquals(4L, replayed);
+        assertEquals(8L, ringBuffer.get(0L)[0]);
+        assertEquals(9L, ringBuffer.get(1L)[0]);
+        assertEquals(100L, ringBuffer.get(2L)[0]);
+        assertEquals(101L, ringBuffer.get(3L)[0]);
+    }
+
+    /**
+     * 模拟一次运行：新的处理器从 RingBuffer 序号 0 开始写入 count 个事件
+     */
+    private static void writeRun(final File directory, final long firstValue, final long count) throws Exception {
+        final JournalEventHandler<long[]> handler = new JournalEventHandler<>(directory, 64, 8, CODEC);
+        handler.onStart();
+        final long[] event = new long[1];
+        for (long sequence = 0; sequence < count; sequence++) {
+            event[0] = firstValue + sequence;
+            handler.onEvent(event, sequence, sequence == count - 1 || sequence % 3 == 2);
+        }
+        handler.onShutdown();
+    }
+}
@@ -0,0 +1,186 @@
+package org.lucas;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.lucas.disruptor.MappedRingBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MappedRingBufferTests {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void read_MessagesWrittenThroughOtherMappingTest() throws Exception {
+        final File path = folder.newFile("ring");
+        try (MappedRingBuffer consumer = MappedRingBuffer.create(path, 1024);
+             MappedRingBuffer producer = MappedRingBuffer.open(path)) {
+            assertEquals(1024, producer.capacity());
+
+            assertTrue(producer.write(1, payload(0, 5), 0, 5));
+            assertTrue(producer.write(2, payload(1, 0), 0, 0));
+            assertTrue(producer.write(3, payload(2, 20), 2, 10));
+            // 记录头 8 字节，按 8 字节对齐
+            assertEquals(16 + 8 + 24, consumer.size());
+
+            final List<String> received = new ArrayList<>();
+            assertEquals(3, consumer.read((msgTypeId, buffer, index, length) ->
+                    received.add(msgTypeId + ":" + length + ":" + (length > 0 ? buffer.get(index) : -1))));
+
+            assertEquals("[1:5:0, 2:0:-1, 3:10:4]", received.toString());
+            assertEquals(0, consumer.size());
+            assertEquals(0, consumer.read((msgTypeId, buffer, index, length) -> fail("no more messages")));
+        }
+    }
+
+    @Test
+    public void write_WrapsWithPaddingTest() throws Exception {
+        try (MappedRingBuffer ringBuffer = MappedRingBuffer.create(folder.newFile("ring"), 1024)) {
+            final AtomicReference<String> failure = new AtomicReference<>();
+            final int[] expected = {0};
+            // 长度不是 8 的倍数，多圈之后必然在末尾写入填充记录
+            for (int i = 0; i < 500; i++) {
+                final int length = 1 + i % ringBuffer.maxMessageLength();
+                assertTrue(ringBuffer.write(i, payload(i, length), 0, length));
+                while (ringBuffer.size() > 512) {
+                    ringBuffer.read((msgTypeId, buffer, index, len) -> verify(msgTypeId, buffer, index, len,
+                            expected, failure));
+                }
+            }
+            while (ringBuffer.size() > 0) {
+                ringBuffer.read((msgTypeId, buffer, index, len) -> verify(msgTypeId, buffer, index, len,
+                        expected, failure));
+            }
+
+            assertNull(failure.get());
+            assertEquals(500, expected[0]);
+        }
+    }
+
+    @Test
+    public void write_FullBufferTest() throws Exception {
+        try (MappedRingBuffer ringBuffer = MappedRingBuffer.create(folder.newFile("ring"), 1024)) {
+            final byte[] src = payload(0, 120);
+            int written = 0;
+            while (ringBuffer.write(7, src, 0, src.length)) {
+                written++;
+            }
+            assertEquals(1024 / 128, written);
+
+            assertEquals(1, ringBuffer.read((msgTypeId, buffer, index, length) -> {
+            }, 1));
+            assertTrue(ringBuffer.write(7, src, 0, src.length));
+            assertFalse(ringBuffer.write(7, src, 0, src.length));
+        }
+    }
+
+    @Test
+    public void write_RejectsInvalidMessageTest() throws Exception {
+        try (MappedRingBuffer ringBuffer = MappedRingBuffer.create(folder.newFile("ring"), 1024)) {
+            try {
+                ringBuffer.write(MappedRingBuffer.PADDING_MSG_TYPE_ID, new byte[1], 0, 1);
+                fail("negative msgTypeId");
+            } catch (final IllegalArgumentException expected) {
+                // 负数类型保留给填充记录
+            }
+            try {
+                final int length = ringBuffer.maxMessageLength() + 1;
+                ringBuffer.write(1, new byte[length], 0, length);
+                fail("message too long");
+            } catch (final IllegalArgumentException expected) {
+                // 超过单条消息的最大长度
+            }
+            assertEquals(0, ringBuffer.size());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void open_RejectsUnknownFileTest() throws Exception {
+        final File path = folder.newFile("other");
+        Files.write(path.toPath(), new byte[4096]);
+        MappedRingBuffer.open(path).close();
+    }
+
+    @Test
+    public void read_ConcurrentProducersTest() throws Exception {
+        final File path = folder.newFile("ring");
+        final int perProducer = 5_000;
+        try (MappedRingBuffer consumer = MappedRingBuffer.create(path, 4096);
+             MappedRingBuffer producer = MappedRingBuffer.open(path)) {
+            final Thread[] producers = new Thread[2];
+            for (int p = 0; p < producers.length; p++) {
+                final int msgTypeId = p;
+                producers[p] = new Thread(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        final byte[] src = payload(i, 1 + i % 50);
+                        while (!producer.write(msgTypeId, src, 0, src.length)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+                producers[p].start();
+            }
+
+            // 每个生产者的消息按写入顺序到达
+            final int[] next = new int[producers.length];
+            final AtomicReference<String> failure = new AtomicReference<>();
+            while (next[0] + next[1] < 2 * perProducer) {
+                final int read = consumer.read((msgTypeId, buffer, index, length) -> {
+                    final int i = next[msgTypeId]++;
+                    if (length != 1 + i % 50 || buffer.get(index + length - 1) != (byte) (i + length - 1)) {
+                        failure.compareAndSet(null, "producer " + msgTypeId + " message " + i);
+                    }
+                });
+                if (0 == read) {
+                    Thread.yield();
+                }
+            }
+            for (Thread thread : producers) {
+                thread.join();
+            }
+
+            assertNull(failure.get());
+            assertEquals(0, consumer.size());
+        }
+    }
+
+    private static void verify(final int msgTypeId, final ByteBuffer buffer, final int index,
+                               final int length, final int[] expected, final AtomicReference<String> failure) {
+        final int i = expected[0]++;
+        if (msgTypeId != i) {
+            failure.compareAndSet(null, "expected message " + i + " but was " + msgTypeId);
+            return;
+        }
+        for (int k = 0; k < length; k++) {
+            if (buffer.get(index + k) != (byte) (i + k)) {
+                failure.compareAndSet(null, "message " + i + " corrupted at " + k);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 第 k 个字节为 seed + k
+     */
+    private static byte[] payload(final int seed, final int length) {
+        final byte[] bytes = new byte[length];
+        for (int k = 0; k < length; k++) {
+            bytes[k] = (byte) (seed + k);
+        }
+        return bytes;
+    }
+}
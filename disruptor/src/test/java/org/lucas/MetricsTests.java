@@ -0,0 +1,86 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.BlockingWaitStrategy;
+import org.lucas.disruptor.Disruptor;
+import org.lucas.disruptor.Histogram;
+import org.lucas.disruptor.ProducerType;
+import org.lucas.disruptor.SequencerMetrics;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTests {
+
+    @Test
+    public void histogram_PowerOfTwoBucketsTest() {
+        final Histogram histogram = new Histogram();
+        assertEquals(0L, histogram.getValueAtPercentile(99));
+
+        for (long value : new long[]{0, 1, 2, 3, 4, 1000}) {
+            histogram.record(value);
+        }
+        histogram.record(-5);
+
+        final long[] buckets = histogram.getBuckets();
+        assertArrayEquals(new long[]{2, 1, 2, 1}, new long[]{buckets[0], buckets[1], buckets[2], buckets[3]});
+        assertEquals(1L, buckets[10]);
+        assertEquals(7L, histogram.getCount());
+        assertEquals(3L, histogram.getValueAtPercentile(50));
+        assertEquals(1023L, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void enableMetrics_RecordsStallsAndBatchesTest() throws Exception {
+        final Disruptor<long[]> disruptor = new Disruptor<>(() -> new long[1], 4, Thread::new,
+                ProducerType.SINGLE, new BlockingWaitStrategy());
+        final CountDownLatch release = new CountDownLatch(1);
+        disruptor.handleEventsWith((event, sequence, endOfBatch) -> release.await());
+        final SequencerMetrics metrics = disruptor.enableMetrics("metrics-test");
+        disruptor.start();
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName sequencerName = new ObjectName("org.lucas.disruptor:type=Sequencer,name=\"metrics-test\"");
+        final ObjectName consumerName =
+                new ObjectName("org.lucas.disruptor:type=Consumer,name=\"metrics-test\",index=0");
+        assertTrue(server.isRegistered(sequencerName));
+        assertTrue(server.isRegistered(consumerName));
+        assertEquals(4, server.getAttribute(sequencerName, "BufferSize"));
+
+        // 消费者阻塞在第一个事件上，第五个事件之后生产者必须等待
+        final Thread producer = new Thread(() -> {
+            for (int i = 0; i < 6; i++) {
+                disruptor.publishEvent((event, sequence) -> event[0] = sequence);
+            }
+        });
+        producer.start();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (metrics.getRemainingCapacity() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(10);
+        release.countDown();
+        producer.join();
+        while ((Long) server.getAttribute(consumerName, "Lag") > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        final long batches = (Long) server.getAttribute(consumerName, "BatchCount");
+        assertTrue(batches >= 2 && batches <= 6);
+        disruptor.shutdown(5, TimeUnit.SECONDS);
+
+        assertTrue(metrics.getStallCount() >= 1);
+        assertTrue(metrics.getStallTimeNanos() > 0);
+        assertEquals(5L, metrics.getCursor());
+        // 停止后注销
+        assertFalse(server.isRegistered(sequencerName));
+        assertFalse(server.isRegistered(consumerName));
+    }
+}
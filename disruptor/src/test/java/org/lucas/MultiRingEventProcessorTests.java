@@ -0,0 +1,142 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.EventHandler;
+import org.lucas.disruptor.MultiRingEventProcessor;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.SequenceBarrier;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class MultiRingEventProcessorTests {
+
+    /**
+     * 事件为 {通道, 值}
+     */
+    private final List<RingBuffer<long[]>> lanes = Arrays.asList(
+            RingBuffer.createMultiProducer(() -> new long[2], 16),
+            RingBuffer.createMultiProducer(() -> new long[2], 16),
+            RingBuffer.createMultiProducer(() -> new long[2], 16));
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void run_WeightedRoundRobinTest() throws Exception {
+        final MultiRingEventProcessor<long[]> processor = newProcessor(new int[]{1, 2, 1}, this::record);
+        for (int i = 0; i < 6; i++) {
+            publish(1, i);
+        }
+        for (int i = 0; i < 3; i++) {
+            publish(2, i);
+        }
+
+        runUntil(processor, 9);
+
+        // 通道 1 每轮两个事件，通道 2 每轮一个事件
+        assertEquals("[1:0, 1:1!, 2:0!, 1:2, 1:3!, 2:1!, 1:4, 1:5!, 2:2!]", received.toString());
+        assertEquals(5L, processor.getSequences()[1].get());
+        assertEquals(2L, processor.getSequences()[2].get());
+    }
+
+    @Test
+    public void run_ControlLanePreemptsTest() throws Exception {
+        final MultiRingEventProcessor<long[]> processor = newProcessor(new int[]{1, 4, 1},
+                (event, sequence, endOfBatch) -> {
+                    record(event, sequence, endOfBatch);
+                    if (1L == event[0] && 0L == event[1]) {
+                        // 处理普通通道时控制通道来了新事件
+                        publish(0, 100);
+                    }
+                });
+        for (int i = 0; i < 4; i++) {
+            publish(1, i);
+        }
+
+        runUntil(processor, 5);
+
+        // 下一个事件结束当前批次，随后先处理控制通道
+        assertEquals("[1:0, 1:1!, 0:100!, 1:2, 1:3!]", received.toString());
+    }
+
+    @Test
+    public void run_ControlLaneFirstTest() throws Exception {
+        final MultiRingEventProcessor<long[]> processor = newProcessor(new int[]{1, 8, 8}, this::record);
+        publish(1, 0);
+        publish(2, 0);
+        publish(0, 0);
+        publish(0, 1);
+
+        runUntil(processor, 4);
+
+        assertEquals("[0:0!, 0:1!, 1:0!, 2:0!]", received.toString());
+    }
+
+    @Test
+    public void run_UnpublishedControlClaimDoesNotPreemptTest() throws Exception {
+        final MultiRingEventProcessor<long[]> processor = newProcessor(new int[]{1, 4, 1}, this::record);
+        // 控制通道的生产者申请了序号但尚未发布，游标已经越过
+        final long claimed = lanes.get(0).next();
+        for (int i = 0; i < 4; i++) {
+            publish(1, i);
+        }
+
+        final Thread thread = new Thread(processor);
+        thread.start();
+        awaitReceived(4);
+        final long[] event = lanes.get(0).get(claimed);
+        event[0] = 0L;
+        event[1] = 100L;
+        lanes.get(0).publish(claimed);
+        awaitReceived(5);
+        processor.halt();
+        thread.join();
+
+        assertEquals("[1:0, 1:1, 1:2, 1:3!, 0:100!]", received.toString());
+    }
+
+    private MultiRingEventProcessor<long[]> newProcessor(final int[] quotas, final EventHandler<long[]> handler) {
+        final SequenceBarrier[] barriers = new SequenceBarrier[lanes.size()];
+        for (int i = 0; i < barriers.length; i++) {
+            barriers[i] = lanes.get(i).newBarrier();
+        }
+        final MultiRingEventProcessor<long[]> processor =
+                new MultiRingEventProcessor<>(lanes, barriers, quotas, handler);
+        for (int i = 0; i < barriers.length; i++) {
+            lanes.get(i).addGatingSequences(processor.getSequences()[i]);
+        }
+        return processor;
+    }
+
+    private void record(final long[] event, final long sequence, final boolean endOfBatch) {
+        received.add(event[0] + ":" + event[1] + (endOfBatch ? "!" : ""));
+    }
+
+    private void publish(final int lane, final long value) {
+        lanes.get(lane).publishEvent((event, sequence) -> {
+            event[0] = lane;
+            event[1] = value;
+        });
+    }
+
+    private void runUntil(final MultiRingEventProcessor<long[]> processor, final int events) throws Exception {
+        final Thread thread = new Thread(processor);
+        thread.start();
+        awaitReceived(events);
+        processor.halt();
+        thread.join();
+        assertFalse(processor.isRunning());
+    }
+
+    private void awaitReceived(final int events) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.size() < events && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
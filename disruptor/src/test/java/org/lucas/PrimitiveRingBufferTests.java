@@ -0,0 +1,110 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.IntRingBuffer;
+import org.lucas.disruptor.LongRingBuffer;
+import org.lucas.disruptor.Sequence;
+import org.lucas.disruptor.SequenceBarrier;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveRingBufferTests {
+
+    @Test
+    public void publishValues_WrapsAroundTest() {
+        final LongRingBuffer ringBuffer = LongRingBuffer.createSingleProducer(8);
+        final Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequences(consumer);
+        final long[] dst = new long[8];
+
+        ringBuffer.publishValues(new long[]{1, 2, 3, 4, 5, 6}, 0, 6);
+        assertEquals(6, ringBuffer.drainTo(consumer, dst, 0, 8));
+
+        // 跨越缓冲区末尾，分两段复制
+        ringBuffer.publishValues(new long[]{0, 7, 8, 9, 10, 11}, 1, 5);
+        assertEquals(5, ringBuffer.drainTo(consumer, dst, 2, 6));
+        assertArrayEquals(new long[]{1, 2, 7, 8, 9, 10, 11, 0}, dst);
+        assertEquals(10L, consumer.get());
+        assertEquals(0, ringBuffer.drainTo(consumer, dst, 0, 8));
+    }
+
+    @Test
+    public void drainTo_LimitsCountTest() {
+        final IntRingBuffer ringBuffer = IntRingBuffer.createSingleProducer(8);
+        final Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequences(consumer);
+        for (int i = 0; i < 5; i++) {
+            ringBuffer.publishValue(i * 10);
+        }
+
+        final int[] dst = new int[3];
+        assertEquals(3, ringBuffer.drainTo(consumer, dst, 0, 3));
+        assertArrayEquals(new int[]{0, 10, 20}, dst);
+        assertEquals(2L, consumer.get());
+        assertEquals(2, ringBuffer.drainTo(consumer, dst, 0, 3));
+        assertEquals(30, dst[0]);
+        assertEquals(40, dst[1]);
+    }
+
+    @Test
+    public void tryPublishValue_FullBufferTest() {
+        final IntRingBuffer ringBuffer = IntRingBuffer.createMultiProducer(4);
+        final Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequences(consumer);
+
+        assertTrue(ringBuffer.tryPublishValues(new int[]{1, 2, 3}, 0, 3));
+        assertFalse(ringBuffer.tryPublishValues(new int[]{4, 5}, 0, 2));
+        assertTrue(ringBuffer.tryPublishValue(4));
+        assertFalse(ringBuffer.tryPublishValue(5));
+        assertEquals(3L, ringBuffer.getCursor());
+
+        consumer.set(0L);
+        assertTrue(ringBuffer.tryPublishValue(5));
+        assertEquals(5, ringBuffer.get(4L));
+    }
+
+    @Test
+    public void drainTo_MultiProducerTest() throws Exception {
+        final LongRingBuffer ringBuffer = LongRingBuffer.createMultiProducer(64);
+        final Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequences(consumer);
+        final SequenceBarrier barrier = ringBuffer.newBarrier();
+        final int perProducer = 10_000;
+
+        final Thread[] producers = new Thread[2];
+        for (int p = 0; p < producers.length; p++) {
+            final long base = p * 1_000_000L;
+            producers[p] = new Thread(() -> {
+                final long[] src = new long[4];
+                for (int i = 0; i < perProducer; i += src.length) {
+                    for (int j = 0; j < src.length; j++) {
+                        src[j] = base + i + j;
+                    }
+                    ringBuffer.publishValues(src, 0, src.length);
+                }
+            });
+            producers[p].start();
+        }
+
+        final long[] dst = new long[16];
+        final long[] lastSeen = {-1L, 999_999L};
+        long count = 0;
+        while (count < 2L * perProducer) {
+            final int drained = ringBuffer.drainTo(barrier, consumer, dst, 0, dst.length);
+            for (int i = 0; i < drained; i++) {
+                // 每个生产者的值按发布顺序到达
+                final int producer = (int) (dst[i] / 1_000_000L);
+                assertEquals(lastSeen[producer] + 1L, dst[i]);
+                lastSeen[producer] = dst[i];
+            }
+            count += drained;
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertEquals(2L * perProducer - 1L, ringBuffer.getCursor());
+    }
+}
@@ -1,11 +1,18 @@
 package org.lucas;
 
 import org.junit.Test;
+import org.lucas.disruptor.EventTranslatorOneArg;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.Sequence;
 import org.lucas.disruptor.util.Util;
 import org.openjdk.jol.info.ClassLayout;
 import org.openjdk.jol.vm.VM;
 import sun.misc.Unsafe;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
 /**
  * @Author: shaw
  * @Date: 2019/5/31 18:34
@@ -28,6 +35,38 @@ public class RingBufferTests {
         printLayoutInfo(layout);
     }
 
+    @Test
+    public void publishEvents_BatchTest() {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createMultiProducer(() -> new long[1], 16);
+        final EventTranslatorOneArg<long[], Long> translator = (event, sequence, arg0) -> event[0] = arg0;
+
+        ringBuffer.publishEvents(translator, 1, 3, new Long[]{0L, 1L, 2L, 3L});
+
+        assertEquals(2L, ringBuffer.getCursor());
+        for (long sequence = 0; sequence <= 2; sequence++) {
+            assertEquals(sequence + 1, ringBuffer.get(sequence)[0]);
+        }
+    }
+
+    @Test
+    public void publishEvents_InvalidArgsTest() {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 4);
+        final EventTranslatorOneArg<long[], Long> translator = (event, sequence, arg0) -> event[0] = arg0;
+        ringBuffer.addGatingSequences(new Sequence());
+
+        try {
+            ringBuffer.publishEvents(translator, 2, 3, new Long[]{0L, 1L, 2L});
+            fail("batch overruns the arguments");
+        } catch (final IllegalArgumentException expected) {
+        }
+        assertEquals(RingBuffer.INITIAL_CURSOR_VALUE, ringBuffer.getCursor());
+        assertEquals(4L, ringBuffer.remainingCapacity());
+
+        ringBuffer.publishEvents(translator, new Long[]{0L, 1L, 2L});
+        assertFalse(ringBuffer.tryPublishEvents(translator, new Long[]{3L, 4L}));
+        assertEquals(2L, ringBuffer.getCursor());
+    }
+
     private static void printLayoutInfo(final ClassLayout layout) {
         System.out.println(VM.current().details());
         System.out.println("Printable:\n" + layout.toPrintable());
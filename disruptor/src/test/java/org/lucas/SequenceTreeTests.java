@@ -0,0 +1,213 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.BlockingWaitStrategy;
+import org.lucas.disruptor.Disruptor;
+import org.lucas.disruptor.EventHandler;
+import org.lucas.disruptor.ProducerType;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.Sequence;
+import org.lucas.disruptor.SequenceTree;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SequenceTreeTests {
+
+    @Test
+    public void get_TracksSlowestMemberTest() {
+        final AtomicLong cursor = new AtomicLong(100L);
+        final SequenceTree tree = new SequenceTree(cursor::get, 3);
+        final Sequence[] members = new Sequence[9];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = tree.newSequence();
+            // 新成员从游标值开始
+            assertEquals(100L, members[i].get());
+        }
+        assertEquals(100L, tree.get());
+
+        cursor.set(200L);
+        for (int i = 0; i < members.length; i++) {
+            members[i].set(110L + i);
+        }
+        assertEquals(110L, tree.get());
+
+        // 只有瓶颈成员推进时最小值才变化
+        members[3].set(150L);
+        assertEquals(110L, tree.get());
+        members[0].set(150L);
+        assertEquals(111L, tree.get());
+        members[1].set(200L);
+        members[2].set(200L);
+        assertEquals(114L, tree.get());
+    }
+
+    @Test
+    public void removeSequence_RaisesMinimumTest() {
+        final AtomicLong cursor = new AtomicLong(0L);
+        final SequenceTree tree = new SequenceTree(cursor::get, 2);
+        final Sequence slow = tree.newSequence();
+        final Sequence fast = tree.newSequence();
+        cursor.set(50L);
+        fast.set(50L);
+        assertEquals(0L, tree.get());
+
+        assertTrue(tree.removeSequence(slow));
+        assertFalse(tree.removeSequence(slow));
+        assertFalse(tree.removeSequence(new Sequence()));
+        assertEquals(1, tree.size());
+        assertEquals(50L, tree.get());
+
+        // 删除全部成员后返回游标
+        assertTrue(tree.removeSequence(fast));
+        cursor.set(60L);
+        assertEquals(60L, tree.get());
+    }
+
+    @Test
+    public void get_EmptyTreeReturnsCursorTest() {
+        final AtomicLong cursor = new AtomicLong(7L);
+        final SequenceTree tree = new SequenceTree(cursor::get, 3);
+
+        assertEquals(7L, tree.get());
+        cursor.set(9L);
+        assertEquals(9L, tree.get());
+    }
+
+    @Test
+    public void addGatingSequences_KeepsMemberValuesTest() {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 16);
+        final SequenceTree tree = new SequenceTree(ringBuffer, 2);
+        final Sequence lagging = tree.newSequence();
+
+        for (int i = 0; i < 10; i++) {
+            ringBuffer.publishEvent((event, sequence) -> event[0] = sequence);
+        }
+        ringBuffer.addGatingSequences(tree);
+
+        // 加入门控序列时不能把消费者的序列推进到游标
+        assertEquals(-1L, lagging.get());
+        assertEquals(-1L, tree.get());
+        assertEquals(6L, ringBuffer.remainingCapacity());
+    }
+
+    @Test
+    public void get_ConcurrentMembersConvergeTest() throws Exception {
+        final AtomicLong cursor = new AtomicLong(0L);
+        final SequenceTree tree = new SequenceTree(cursor::get, 4);
+        final int threads = 4;
+        final int perThread = 4;
+        final long last = 20_000L;
+        final Sequence[] members = new Sequence[threads * perThread];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = tree.newSequence();
+        }
+        cursor.set(last);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<String> failure = new AtomicReference<>();
+
+        final Thread reader = new Thread(() -> {
+            long previous = Long.MIN_VALUE;
+            while (running.get()) {
+                final long minimum = tree.get();
+                long actual = Long.MAX_VALUE;
+                for (Sequence member : members) {
+                    actual = Math.min(actual, member.get());
+                }
+                if (minimum < previous) {
+                    failure.compareAndSet(null, "minimum went backwards: " + previous + " -> " + minimum);
+                }
+                if (minimum > actual) {
+                    failure.compareAndSet(null, "minimum " + minimum + " above member " + actual);
+                }
+                previous = minimum;
+            }
+        });
+        reader.start();
+
+        // 所有成员同步推进，最后一次推进后最小值必须追上
+        final CyclicBarrier start = new CyclicBarrier(threads);
+        final Thread[] consumers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int first = t * perThread;
+            consumers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final Exception e) {
+                    failure.compareAndSet(null, e.toString());
+                    return;
+                }
+                for (long value = 1; value <= last; value++) {
+                    for (int i = first; i < first + perThread; i++) {
+                        members[i].set(value);
+                    }
+                }
+            });
+            consumers[t].start();
+        }
+        for (Thread consumer : consumers) {
+            consumer.join();
+        }
+        running.set(false);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(last, tree.get());
+    }
+
+    @Test
+    public void handleEventsWith_LargeFanOutTest() throws Exception {
+        final Disruptor<long[]> disruptor = new Disruptor<>(() -> new long[1], 16, Thread::new,
+                ProducerType.SINGLE, new BlockingWaitStrategy());
+        final int events = 2_000;
+        final AtomicInteger corrupted = new AtomicInteger();
+        final AtomicInteger joined = new AtomicInteger();
+        // 超过阈值的一组事件处理器由一棵树门控，生产者不能越过最慢的一个
+        final EventHandler<long[]>[] handlers = newHandlers(40, corrupted);
+        disruptor.handleEventsWith(handlers).then((event, sequence, endOfBatch) -> {
+            if (event[0] != sequence) {
+                corrupted.incrementAndGet();
+            }
+            joined.incrementAndGet();
+        });
+        disruptor.start();
+
+        for (int i = 0; i < events; i++) {
+            disruptor.publishEvent((event, sequence) -> event[0] = sequence);
+        }
+        disruptor.shutdown(10, TimeUnit.SECONDS);
+
+        assertEquals(0, corrupted.get());
+        assertEquals(events, joined.get());
+        for (EventHandler<long[]> handler : handlers) {
+            assertEquals(events - 1L, disruptor.getSequenceValueFor(handler));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EventHandler<long[]>[] newHandlers(final int count, final AtomicInteger corrupted) {
+        final EventHandler<long[]>[] handlers = new EventHandler[count];
+        for (int i = 0; i < count; i++) {
+            final long delayEvery = i + 7L;
+            handlers[i] = (event, sequence, endOfBatch) -> {
+                if (event[0] != sequence) {
+                    corrupted.incrementAndGet();
+                }
+                // 不同的处理器在不同的位置变慢
+                if (0 == sequence % delayEvery) {
+                    Thread.yield();
+                }
+            };
+        }
+        return handlers;
+    }
+}
@@ -0,0 +1,134 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.BlockingWaitStrategy;
+import org.lucas.disruptor.EventHandler;
+import org.lucas.disruptor.LifecycleAware;
+import org.lucas.disruptor.ProducerType;
+import org.lucas.disruptor.ShardedDisruptor;
+import org.lucas.disruptor.TimeoutException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ShardedDisruptorTests {
+
+    @Test
+    public void publishEvent_SameKeySameShardTest() throws Exception {
+        final ShardedDisruptor<long[]> disruptor = new ShardedDisruptor<>(4, () -> new long[1], 64,
+                Thread::new, ProducerType.MULTI, BlockingWaitStrategy::new);
+        // 每个分片记录收到的 key，同一个 key 只能出现在一个分片
+        final AtomicLongArray shardOfKey = new AtomicLongArray(16);
+        for (int i = 0; i < 16; i++) {
+            shardOfKey.set(i, -1L);
+        }
+        final AtomicInteger misrouted = new AtomicInteger();
+        disruptor.handleEventsWith(shard -> (event, sequence, endOfBatch) -> {
+            final int key = (int) event[0];
+            if (!shardOfKey.compareAndSet(key, -1L, shard) && shardOfKey.get(key) != shard) {
+                misrouted.incrementAndGet();
+            }
+        });
+        disruptor.start();
+
+        for (int i = 0; i < 1000; i++) {
+            final long key = i % 16;
+            disruptor.publishEvent(key, (event, sequence, arg0) -> event[0] = arg0, key);
+        }
+        disruptor.shutdown(5, TimeUnit.SECONDS);
+
+        assertEquals(0, misrouted.get());
+        for (int key = 0; key < 16; key++) {
+            assertEquals(disruptor.shardFor((long) key), shardOfKey.get(key));
+        }
+    }
+
+    @Test
+    public void shutdown_DrainsRightAfterStartTest() throws Exception {
+        for (int run = 0; run < 20; run++) {
+            final ShardedDisruptor<long[]> disruptor = new ShardedDisruptor<>(4, () -> new long[1], 64,
+                    Thread::new, ProducerType.MULTI, BlockingWaitStrategy::new);
+            final AtomicInteger handled = new AtomicInteger();
+            disruptor.handleEventsWith(shard -> (event, sequence, endOfBatch) -> handled.incrementAndGet());
+            disruptor.start();
+
+            for (long key = 0; key < 100; key++) {
+                disruptor.publishEvent(key, (event, sequence, arg0) -> event[0] = arg0, key);
+            }
+            disruptor.shutdown(1, TimeUnit.SECONDS);
+
+            assertEquals("run " + run, 100, handled.get());
+        }
+    }
+
+    @Test
+    public void shutdown_TimeoutStillStopsOtherShardsTest() throws Exception {
+        final ShardedDisruptor<long[]> disruptor = new ShardedDisruptor<>(4, () -> new long[1], 64,
+                Thread::new, ProducerType.MULTI, BlockingWaitStrategy::new);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger stopped = new AtomicInteger();
+        final long stalledKey = 0L;
+        final int stalledShard = disruptor.shardFor(stalledKey);
+        disruptor.handleEventsWith(shard -> new StoppableHandler(shard == stalledShard, release, stopped));
+        disruptor.start();
+
+        for (long key = 0; key < 64; key++) {
+            disruptor.publishEvent(key, (event, sequence, arg0) -> event[0] = arg0, key);
+        }
+        // 紧接着启动后停止，消费者线程可能还没有开始运行
+        try {
+            disruptor.shutdown(100, TimeUnit.MILLISECONDS);
+            fail("stalled shard should time out");
+        } catch (final TimeoutException expected) {
+            // 超时分片以外的分片都已停止
+        }
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (stopped.get() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(3, stopped.get());
+
+        release.countDown();
+        disruptor.shutdown(-1, TimeUnit.MILLISECONDS);
+        while (stopped.get() < 4 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(4, stopped.get());
+    }
+
+    private static final class StoppableHandler implements EventHandler<long[]>, LifecycleAware {
+
+        private final boolean stall;
+
+        private final CountDownLatch release;
+
+        private final AtomicInteger stopped;
+
+        private StoppableHandler(final boolean stall, final CountDownLatch release, final AtomicInteger stopped) {
+            this.stall = stall;
+            this.release = release;
+            this.stopped = stopped;
+        }
+
+        @Override
+        public void onEvent(final long[] event, final long sequence, final boolean endOfBatch) throws Exception {
+            if (stall) {
+                release.await();
+            }
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onShutdown() {
+            stopped.incrementAndGet();
+        }
+    }
+}
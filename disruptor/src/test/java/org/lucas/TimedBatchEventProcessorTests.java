@@ -0,0 +1,132 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.BlockingWaitStrategy;
+import org.lucas.disruptor.LiteBlockingWaitStrategy;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.Sequence;
+import org.lucas.disruptor.SequenceBarrier;
+import org.lucas.disruptor.TimedBatchEventProcessor;
+import org.lucas.disruptor.TimeoutBlockingWaitStrategy;
+import org.lucas.disruptor.TimeoutException;
+import org.lucas.disruptor.WaitStrategy;
+import org.lucas.disruptor.YieldingWaitStrategy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TimedBatchEventProcessorTests {
+
+    @Test
+    public void waitFor_TimesOutBehindStalledUpstreamTest() throws Exception {
+        final WaitStrategy[] strategies = {
+                new BlockingWaitStrategy(),
+                new LiteBlockingWaitStrategy(),
+                new TimeoutBlockingWaitStrategy(1, TimeUnit.SECONDS),
+                new YieldingWaitStrategy()
+        };
+        for (WaitStrategy strategy : strategies) {
+            final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 8, strategy);
+            ringBuffer.publishEvent((event, sequence) -> event[0] = sequence);
+            // 生产者已发布，上游消费者停滞
+            final SequenceBarrier barrier = ringBuffer.newBarrier(new Sequence());
+
+            final FutureTask<Long> wait = new FutureTask<>(() -> barrier.waitFor(0L, 20, TimeUnit.MILLISECONDS));
+            final Thread thread = new Thread(wait);
+            thread.setDaemon(true);
+            thread.start();
+            try {
+                wait.get(5, TimeUnit.SECONDS);
+                fail(strategy + " should time out");
+            } catch (final ExecutionException expected) {
+                assertTrue(strategy.toString(), expected.getCause() instanceof TimeoutException);
+            } catch (final java.util.concurrent.TimeoutException e) {
+                barrier.alert();
+                fail(strategy + " ignored the deadline");
+            }
+        }
+    }
+
+    @Test
+    public void run_FlushesFullBatchTest() throws Exception {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 16);
+        final List<String> batches = new CopyOnWriteArrayList<>();
+        final TimedBatchEventProcessor<long[]> processor = new TimedBatchEventProcessor<>(ringBuffer,
+                ringBuffer.newBarrier(), (events, first, last) -> batches.add(first + "-" + last + ":" + events.size()),
+                4, 1, TimeUnit.HOURS);
+        ringBuffer.addGatingSequences(processor.getSequence());
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        for (int i = 0; i < 8; i++) {
+            ringBuffer.publishEvent((event, sequence) -> event[0] = sequence);
+        }
+        awaitSequence(processor.getSequence(), 7L);
+        processor.halt();
+        thread.join();
+
+        assertEquals("[0-3:4, 4-7:4]", batches.toString());
+    }
+
+    @Test
+    public void run_FlushesPartialBatchAfterDelayTest() throws Exception {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 16);
+        final List<String> batches = new CopyOnWriteArrayList<>();
+        final TimedBatchEventProcessor<long[]> processor = new TimedBatchEventProcessor<>(ringBuffer,
+                ringBuffer.newBarrier(), (events, first, last) -> batches.add(first + "-" + last + ":" + events.size()),
+                100, 20, TimeUnit.MILLISECONDS);
+        ringBuffer.addGatingSequences(processor.getSequence());
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        for (int i = 0; i < 3; i++) {
+            ringBuffer.publishEvent((event, sequence) -> event[0] = sequence);
+        }
+        awaitSequence(processor.getSequence(), 2L);
+        processor.halt();
+        thread.join();
+
+        assertEquals(3, batches.stream().mapToInt(batch -> Integer.parseInt(batch.split(":")[1])).sum());
+    }
+
+    @Test
+    public void run_FlushesBehindStalledUpstreamTest() throws Exception {
+        final RingBuffer<long[]> ringBuffer = RingBuffer.createSingleProducer(() -> new long[1], 16);
+        final Sequence upstream = new Sequence();
+        final List<String> batches = new CopyOnWriteArrayList<>();
+        final TimedBatchEventProcessor<long[]> processor = new TimedBatchEventProcessor<>(ringBuffer,
+                ringBuffer.newBarrier(upstream),
+                (events, first, last) -> batches.add(first + "-" + last + ":" + events.size()),
+                100, 20, TimeUnit.MILLISECONDS);
+        ringBuffer.addGatingSequences(processor.getSequence());
+
+        for (int i = 0; i < 6; i++) {
+            ringBuffer.publishEvent((event, sequence) -> event[0] = sequence);
+        }
+        // 上游只处理了两个事件后停滞，攒下的批次仍要按时提交
+        upstream.set(1L);
+        final Thread thread = new Thread(processor);
+        thread.start();
+
+        awaitSequence(processor.getSequence(), 1L);
+        processor.halt();
+        thread.join();
+
+        assertEquals("[0-1:2]", batches.toString());
+    }
+
+    private static void awaitSequence(final Sequence sequence, final long expected) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sequence.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, sequence.get());
+    }
+}
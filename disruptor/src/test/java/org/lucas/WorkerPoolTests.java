@@ -0,0 +1,123 @@
+package org.lucas;
+
+import org.junit.Test;
+import org.lucas.disruptor.BlockingWaitStrategy;
+import org.lucas.disruptor.Disruptor;
+import org.lucas.disruptor.FatalExceptionHandler;
+import org.lucas.disruptor.ProducerType;
+import org.lucas.disruptor.RingBuffer;
+import org.lucas.disruptor.Sequence;
+import org.lucas.disruptor.WorkHandler;
+import org.lucas.disruptor.WorkerPool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WorkerPoolTests {
+
+    @Test
+    public void start_EachEventHandledOnceTest() throws Exception {
+        final int producers = 3;
+        final int perProducer = 20_000;
+        final AtomicIntegerArray handled = new AtomicIntegerArray(producers * perProducer);
+        final AtomicIntegerArray workers = new AtomicIntegerArray(4);
+        final WorkHandler<long[]>[] handlers = newHandlers(handled, workers);
+        final WorkerPool<long[]> pool = new WorkerPool<>(() -> new long[1], new FatalExceptionHandler(), handlers);
+        final RingBuffer<long[]> ringBuffer = pool.start(r -> new Thread(r).start());
+
+        // 多个生产者同时发布，小于事件总数的 RingBuffer 会多次绕回
+        final CyclicBarrier barrier = new CyclicBarrier(producers);
+        final Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int first = p * perProducer;
+            threads[p] = new Thread(() -> {
+                try {
+                    barrier.await();
+                } catch (final Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                for (int i = first; i < first + perProducer; i++) {
+                    final long value = i;
+                    ringBuffer.publishEvent((event, sequence) -> event[0] = value);
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        pool.drainAndHalt();
+
+        for (int i = 0; i < handled.length(); i++) {
+            assertEquals("event " + i, 1, handled.get(i));
+        }
+        int total = 0;
+        for (int i = 0; i < workers.length(); i++) {
+            total += workers.get(i);
+        }
+        assertEquals(producers * perProducer, total);
+        assertFalse(pool.isRunning());
+    }
+
+    @Test
+    public void new_RegistersWorkerSequencesAsGatingTest() {
+        final WorkerPool<long[]> pool = new WorkerPool<>(() -> new long[1], new FatalExceptionHandler(),
+                event -> {
+                }, event -> {
+                });
+        // 不运行消费者线程，只检查门控序列
+        final RingBuffer<long[]> ringBuffer = pool.start(r -> {
+        });
+
+        // 每个消费者的序列和共享的工作序号都是门控序列
+        for (Sequence sequence : pool.getWorkerSequences()) {
+            assertTrue(ringBuffer.removeGatingSequence(sequence));
+        }
+        pool.halt();
+    }
+
+    @Test
+    public void handleEventsWithWorkerPool_GatesProducerTest() throws Exception {
+        final Disruptor<long[]> disruptor = new Disruptor<>(() -> new long[1], 8, Thread::new,
+                ProducerType.MULTI, new BlockingWaitStrategy());
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger handled = new AtomicInteger();
+        final WorkHandler<long[]> blocking = event -> {
+            release.await();
+            handled.incrementAndGet();
+        };
+        disruptor.handleEventsWithWorkerPool(blocking, blocking);
+        final RingBuffer<long[]> ringBuffer = disruptor.start();
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ringBuffer.tryPublishEvent((event, sequence) -> event[0] = sequence));
+        }
+        // 两个消费者都阻塞在已抢占的序号上，生产者不能覆盖未处理的插槽
+        assertFalse(ringBuffer.tryPublishEvent((event, sequence) -> event[0] = sequence));
+
+        release.countDown();
+        disruptor.shutdown(5, TimeUnit.SECONDS);
+        assertEquals(8, handled.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static WorkHandler<long[]>[] newHandlers(final AtomicIntegerArray handled,
+                                                     final AtomicIntegerArray workers) {
+        final WorkHandler<long[]>[] handlers = new WorkHandler[workers.length()];
+        for (int i = 0; i < handlers.length; i++) {
+            final int worker = i;
+            handlers[i] = event -> {
+                handled.incrementAndGet((int) event[0]);
+                workers.incrementAndGet(worker);
+            };
+        }
+        return handlers;
+    }
+}